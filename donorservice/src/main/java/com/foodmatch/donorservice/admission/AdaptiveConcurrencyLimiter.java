@@ -0,0 +1,141 @@
+package com.foodmatch.donorservice.admission;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Gradient-style adaptive concurrency limit for the donation intake path.
+ *
+ * Every completed request contributes an RTT sample. A long-term RTT is kept as a slow moving
+ * average; when the latest sample rises above tolerance x that baseline, the limit shrinks in
+ * proportion, otherwise it grows by about sqrt(limit). Growth only happens while the limit is
+ * actually being used, so a quiet period does not inflate it. Failed requests (5xx, exceptions)
+ * back the limit off multiplicatively.
+ *
+ * Independently of latency, {@link #applyBacklog} lets the downstream backlog (events accepted
+ * but not yet matched) cut the limit and hold it there until the backlog is back under target.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    // Samples in the long-term RTT average
+    private static final int LONG_WINDOW = 600;
+    private static final double DROP_BACKOFF = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double smoothing;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile double limit;
+    private volatile double longRttNanos;
+    private volatile long lastRttNanos;
+    private volatile boolean backlogged;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double tolerance, double smoothing) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Need 1 <= min-limit <= max-limit");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = Math.max(1.0, tolerance);
+        this.smoothing = Math.min(1.0, Math.max(0.01, smoothing));
+        this.limit = clamp(initialLimit, minLimit, maxLimit);
+    }
+
+    // Takes a permit, or returns false when the limit is reached; every true needs exactly one
+    // onSuccess, onDropped or onIgnored
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= getLimit()) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void onSuccess(long rttNanos) {
+        int inFlightAtCompletion = inFlight.getAndDecrement();
+        lock.lock();
+        try {
+            lastRttNanos = rttNanos;
+            double longRtt = longRttNanos == 0 ? rttNanos : longRttNanos + (rttNanos - longRttNanos) / LONG_WINDOW;
+            // After a slow spell the baseline sits far above current samples; pull it down faster
+            // so the gradient does not stay pinned at 1 while latency is rising again
+            if (longRtt > 2.0 * rttNanos) {
+                longRtt *= 0.95;
+            }
+            longRttNanos = longRtt;
+
+            // Under half the limit in use: the sample says nothing about whether more would fit
+            if (inFlightAtCompletion < limit / 2) {
+                return;
+            }
+            double gradient = clamp(tolerance * longRtt / Math.max(1, rttNanos), 0.5, 1.0);
+            double target = limit * gradient + Math.sqrt(limit);
+            if (backlogged) {
+                target = Math.min(target, limit);
+            }
+            limit = clamp(limit * (1 - smoothing) + target * smoothing, minLimit, maxLimit);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void onDropped() {
+        inFlight.decrementAndGet();
+        lock.lock();
+        try {
+            limit = clamp(limit * DROP_BACKOFF, minLimit, maxLimit);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Releases the permit without a sample, for requests whose latency is not comparable
+    public void onIgnored() {
+        inFlight.decrementAndGet();
+    }
+
+    // ratio = backlog / target. Above 1 the limit is cut by up to half per call and cannot grow
+    // until a later call reports the backlog under target again.
+    public void applyBacklog(double ratio) {
+        lock.lock();
+        try {
+            backlogged = ratio > 1.0;
+            if (backlogged) {
+                limit = clamp(limit / Math.min(2.0, ratio), minLimit, maxLimit);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public boolean isBacklogged() {
+        return backlogged;
+    }
+
+    public double getLongRttMillis() {
+        return longRttNanos / 1e6;
+    }
+
+    public double getLastRttMillis() {
+        return lastRttNanos / 1e6;
+    }
+
+    private static double clamp(double value, double min, double max) {
+        return Math.max(min, Math.min(max, value));
+    }
+}
@@ -0,0 +1,73 @@
+package com.foodmatch.donorservice.admission;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Admits POST /donations and /donations/batch only while the adaptive limit has room, and answers
+ * everything else with 429 and a Retry-After before any Tomcat time is spent on Mongo. Only
+ * single donations feed RTT samples; a batch holds a permit but its latency scales with its size.
+ */
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final PipelineBacklogMonitor backlogMonitor;
+    private final long maxRetryAfterSeconds;
+    private final Counter accepted;
+    private final Counter rejected;
+
+    public AdmissionControlFilter(AdaptiveConcurrencyLimiter limiter, PipelineBacklogMonitor backlogMonitor,
+                                  long maxRetryAfterSeconds, MeterRegistry meterRegistry) {
+        this.limiter = limiter;
+        this.backlogMonitor = backlogMonitor;
+        this.maxRetryAfterSeconds = maxRetryAfterSeconds;
+        this.accepted = Counter.builder("donation.admission.requests").tag("outcome", "accepted").register(meterRegistry);
+        this.rejected = Counter.builder("donation.admission.requests").tag("outcome", "rejected").register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (!limiter.tryAcquire()) {
+            rejected.increment();
+            // Over the limit because of latency: back off briefly. Because of the backlog: until it drains.
+            long retryAfter = limiter.isBacklogged() ? backlogMonitor.secondsUntilDrained(maxRetryAfterSeconds) : 1;
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write("{\"error\":\"Too many donations in progress, retry later\"}");
+            return;
+        }
+        accepted.increment();
+        boolean batch = request.getRequestURI().endsWith("/batch");
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            chain.doFilter(request, response);
+            failed = response.getStatus() >= 500;
+        } finally {
+            if (failed) {
+                limiter.onDropped();
+            } else if (batch) {
+                limiter.onIgnored();
+            } else {
+                limiter.onSuccess(System.nanoTime() - start);
+            }
+        }
+    }
+}
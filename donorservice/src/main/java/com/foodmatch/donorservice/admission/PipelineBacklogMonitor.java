@@ -0,0 +1,163 @@
+package com.foodmatch.donorservice.admission;
+
+import com.foodmatch.donorservice.model.Donation;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.admin.ListOffsetsResult;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how far the pipeline behind POST /donations is behind: donations still waiting in the
+ * outbox plus the matching service's consumer lag on donation.events. Both are events that were
+ * accepted but not yet matched. Each poll feeds backlog / target into the limiter, and the
+ * consumer's drain rate is kept to size Retry-After.
+ *
+ * Polls run on their own thread, not the shared @Scheduled one, so a slow broker cannot hold up
+ * the outbox relay.
+ */
+public class PipelineBacklogMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(PipelineBacklogMonitor.class);
+
+    private static final String TOPIC = "donation.events";
+    private static final long ADMIN_TIMEOUT_MS = 2000;
+
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final MongoTemplate mongoTemplate;
+    private final String bootstrapServers;
+    private final String consumerGroup;
+    private final long target;
+    private final long pollIntervalMs;
+
+    private ScheduledExecutorService executor;
+    private Admin admin;
+    private volatile long outboxPending;
+    private volatile long consumerLag;
+    private volatile double drainPerSecond;
+    private long lastCommitted = -1;
+    private long lastPollNanos;
+    private boolean lagWarned;
+
+    public PipelineBacklogMonitor(AdaptiveConcurrencyLimiter limiter, MongoTemplate mongoTemplate,
+                                  String bootstrapServers, String consumerGroup, long target, long pollIntervalMs) {
+        this.limiter = limiter;
+        this.mongoTemplate = mongoTemplate;
+        this.bootstrapServers = bootstrapServers;
+        this.consumerGroup = consumerGroup;
+        this.target = Math.max(1, target);
+        this.pollIntervalMs = pollIntervalMs;
+    }
+
+    @PostConstruct
+    void start() {
+        Map<String, Object> config = new HashMap<>();
+        config.put(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        config.put(AdminClientConfig.REQUEST_TIMEOUT_MS_CONFIG, (int) ADMIN_TIMEOUT_MS);
+        config.put(AdminClientConfig.DEFAULT_API_TIMEOUT_MS_CONFIG, (int) ADMIN_TIMEOUT_MS);
+        admin = Admin.create(config);
+        executor = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("admission-backlog").daemon(true).factory());
+        executor.scheduleWithFixedDelay(this::poll, pollIntervalMs, pollIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+        admin.close();
+    }
+
+    void poll() {
+        try {
+            // Answered from OutboxRelay's partial index, which holds exactly these donations
+            outboxPending = mongoTemplate.count(
+                    new Query(Criteria.where("outboxPendingSince").exists(true)), Donation.class);
+        } catch (Exception e) {
+            log.debug("Could not count outbox backlog: {}", e.toString());
+        }
+        try {
+            updateConsumerLag();
+            lagWarned = false;
+        } catch (Exception e) {
+            // Keep the last value; the outbox count still rises if the broker is the problem
+            if (!lagWarned) {
+                log.warn("Could not read consumer lag of {}: {}", consumerGroup, e.toString());
+                lagWarned = true;
+            }
+        }
+        limiter.applyBacklog(getBacklog() / (double) target);
+    }
+
+    private void updateConsumerLag() throws Exception {
+        Map<TopicPartition, OffsetAndMetadata> committed = admin.listConsumerGroupOffsets(consumerGroup)
+                .partitionsToOffsetAndMetadata().get(ADMIN_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        Map<TopicPartition, OffsetSpec> latest = new HashMap<>();
+        committed.forEach((partition, offset) -> {
+            if (offset != null && TOPIC.equals(partition.topic())) {
+                latest.put(partition, OffsetSpec.latest());
+            }
+        });
+        if (latest.isEmpty()) {
+            consumerLag = 0;
+            return;
+        }
+        Map<TopicPartition, ListOffsetsResult.ListOffsetsResultInfo> ends =
+                admin.listOffsets(latest).all().get(ADMIN_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        long lag = 0;
+        long committedTotal = 0;
+        for (TopicPartition partition : latest.keySet()) {
+            long position = committed.get(partition).offset();
+            committedTotal += position;
+            lag += Math.max(0, ends.get(partition).offset() - position);
+        }
+        consumerLag = lag;
+
+        long now = System.nanoTime();
+        if (lastCommitted >= 0 && committedTotal >= lastCommitted) {
+            double rate = (committedTotal - lastCommitted) * 1e9 / (now - lastPollNanos);
+            drainPerSecond = drainPerSecond == 0 ? rate : 0.7 * drainPerSecond + 0.3 * rate;
+        }
+        lastCommitted = committedTotal;
+        lastPollNanos = now;
+    }
+
+    public long getBacklog() {
+        return outboxPending + consumerLag;
+    }
+
+    public long getOutboxPending() {
+        return outboxPending;
+    }
+
+    public long getConsumerLag() {
+        return consumerLag;
+    }
+
+    // Seconds until the backlog is back under target at the current drain rate; 1 when it
+    // already is, maxSeconds when nothing is draining
+    public long secondsUntilDrained(long maxSeconds) {
+        long excess = getBacklog() - target;
+        if (excess <= 0) {
+            return 1;
+        }
+        double rate = drainPerSecond;
+        if (rate <= 0) {
+            return maxSeconds;
+        }
+        return Math.max(1, Math.min(maxSeconds, (long) Math.ceil(excess / rate)));
+    }
+}
@@ -0,0 +1,133 @@
+package com.foodmatch.donorservice.codec;
+
+import com.foodmatch.donorservice.model.DonationEvent;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Fixed-layout binary encoding of {@link DonationEvent} on {@code donation.events}.
+ * The same layout is decoded by matchingservice's {@code DonationEventBinaryCodec}; keep them in sync.
+ * Both codec tests check against the golden encodings in {@code codec-fixtures/donation-event-v1.tsv}.
+ *
+ * <pre>
+ * offset size
+ *  0     1    magic 0xD7 (never the first byte of a JSON document)
+ *  1     1    version (1)
+ *  2     8    lat, IEEE 754 big-endian
+ * 10     8    lon
+ * 18     4    quantity
+ * 22     8    timestamp as epoch millis, or Long.MIN_VALUE when carried as text below
+ * 30     var  donationId: u16 length (0xFFFF = null) + UTF-8 bytes
+ *  ..    var  donorId
+ *  ..    var  timestamp text, only when the millis slot is Long.MIN_VALUE
+ * </pre>
+ *
+ * Timestamps in the browser's {@code toISOString()} form (years 0000-9999) are packed into the
+ * millis slot and reproduced byte for byte on decode; anything else travels as text.
+ */
+public final class DonationEventBinaryCodec {
+
+    public static final byte MAGIC = (byte) 0xD7;
+    public static final byte VERSION = 1;
+
+    private static final int HEADER_SIZE = 30;
+    private static final int NULL_LENGTH = 0xFFFF;
+    private static final long TEXT_TIMESTAMP = Long.MIN_VALUE;
+
+    private static final VarHandle DOUBLE = MethodHandles.byteArrayViewVarHandle(double[].class, ByteOrder.BIG_ENDIAN);
+    private static final VarHandle LONG = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+    private static final VarHandle INT = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+    private static final VarHandle SHORT = MethodHandles.byteArrayViewVarHandle(short[].class, ByteOrder.BIG_ENDIAN);
+
+    private DonationEventBinaryCodec() {
+    }
+
+    public static byte[] encode(DonationEvent event) {
+        byte[] donationId = utf8(event.getDonationId());
+        byte[] donorId = utf8(event.getDonorId());
+        long millis = packTimestamp(event.getTimestamp());
+        byte[] timestampText = millis == TEXT_TIMESTAMP ? utf8(event.getTimestamp()) : null;
+
+        int size = HEADER_SIZE + stringSize(donationId) + stringSize(donorId)
+                + (millis == TEXT_TIMESTAMP ? stringSize(timestampText) : 0);
+        byte[] out = new byte[size];
+        out[0] = MAGIC;
+        out[1] = VERSION;
+        DOUBLE.set(out, 2, event.getLat());
+        DOUBLE.set(out, 10, event.getLon());
+        INT.set(out, 18, event.getQuantity());
+        LONG.set(out, 22, millis);
+        int pos = writeString(out, HEADER_SIZE, donationId);
+        pos = writeString(out, pos, donorId);
+        if (millis == TEXT_TIMESTAMP) {
+            writeString(out, pos, timestampText);
+        }
+        return out;
+    }
+
+    private static long packTimestamp(String t) {
+        // yyyy-MM-ddTHH:mm:ss.SSSZ, parsed by hand: Instant.parse dominates the encode cost otherwise
+        if (t == null || t.length() != 24 || t.charAt(4) != '-' || t.charAt(7) != '-' || t.charAt(10) != 'T'
+                || t.charAt(13) != ':' || t.charAt(16) != ':' || t.charAt(19) != '.' || t.charAt(23) != 'Z') {
+            return TEXT_TIMESTAMP;
+        }
+        int year = digits(t, 0, 4);
+        int month = digits(t, 5, 2);
+        int day = digits(t, 8, 2);
+        int hour = digits(t, 11, 2);
+        int minute = digits(t, 14, 2);
+        int second = digits(t, 17, 2);
+        int millis = digits(t, 20, 3);
+        if ((year | month | day | hour | minute | second | millis) < 0) {
+            return TEXT_TIMESTAMP;
+        }
+        try {
+            return LocalDateTime.of(year, month, day, hour, minute, second).toEpochSecond(ZoneOffset.UTC) * 1000L + millis;
+        } catch (DateTimeException e) {
+            return TEXT_TIMESTAMP;
+        }
+    }
+
+    private static int digits(String s, int from, int count) {
+        int value = 0;
+        for (int i = from; i < from + count; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static byte[] utf8(String value) {
+        if (value == null) {
+            return null;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length >= NULL_LENGTH) {
+            throw new IllegalArgumentException("String field too long for DonationEvent binary format");
+        }
+        return bytes;
+    }
+
+    private static int stringSize(byte[] bytes) {
+        return 2 + (bytes == null ? 0 : bytes.length);
+    }
+
+    private static int writeString(byte[] out, int pos, byte[] bytes) {
+        if (bytes == null) {
+            SHORT.set(out, pos, (short) NULL_LENGTH);
+            return pos + 2;
+        }
+        SHORT.set(out, pos, (short) bytes.length);
+        System.arraycopy(bytes, 0, out, pos + 2, bytes.length);
+        return pos + 2 + bytes.length;
+    }
+}
@@ -0,0 +1,15 @@
+package com.foodmatch.donorservice.codec;
+
+import com.foodmatch.donorservice.model.DonationEvent;
+import org.apache.kafka.common.serialization.Serializer;
+
+/**
+ * Kafka serializer writing {@link DonationEvent} in the binary layout of {@link DonationEventBinaryCodec}.
+ */
+public class DonationEventSerializer implements Serializer<DonationEvent> {
+
+    @Override
+    public byte[] serialize(String topic, DonationEvent event) {
+        return event == null ? null : DonationEventBinaryCodec.encode(event);
+    }
+}
@@ -0,0 +1,93 @@
+package com.foodmatch.donorservice.config;
+
+import com.foodmatch.donorservice.admission.AdaptiveConcurrencyLimiter;
+import com.foodmatch.donorservice.admission.AdmissionControlFilter;
+import com.foodmatch.donorservice.admission.PipelineBacklogMonitor;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+/**
+ * Adaptive admission control on the donation intake endpoints. Limiter state is exported as
+ * donation.admission.* gauges next to the accepted/rejected counter.
+ */
+@Configuration
+@ConditionalOnProperty(name = "donation.admission.enabled", havingValue = "true", matchIfMissing = true)
+public class AdmissionConfig {
+
+    @Value("${donation.admission.initial-limit:20}")
+    private int initialLimit;
+
+    @Value("${donation.admission.min-limit:4}")
+    private int minLimit;
+
+    @Value("${donation.admission.max-limit:200}")
+    private int maxLimit;
+
+    // Latency may rise to this multiple of its long-term average before the limit shrinks
+    @Value("${donation.admission.rtt-tolerance:2.0}")
+    private double rttTolerance;
+
+    @Value("${donation.admission.smoothing:0.2}")
+    private double smoothing;
+
+    @Value("${donation.admission.max-retry-after-seconds:30}")
+    private long maxRetryAfterSeconds;
+
+    @Value("${spring.kafka.bootstrap-servers:localhost:9092}")
+    private String bootstrapServers;
+
+    @Value("${donation.admission.backlog.consumer-group:matching-service-group}")
+    private String consumerGroup;
+
+    @Value("${donation.admission.backlog.target:5000}")
+    private long backlogTarget;
+
+    @Value("${donation.admission.backlog.poll-interval-ms:2000}")
+    private long backlogPollIntervalMs;
+
+    @Bean
+    public AdaptiveConcurrencyLimiter donationAdmissionLimiter(MeterRegistry meterRegistry) {
+        AdaptiveConcurrencyLimiter limiter =
+                new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit, rttTolerance, smoothing);
+        Gauge.builder("donation.admission.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                .register(meterRegistry);
+        Gauge.builder("donation.admission.in_flight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                .register(meterRegistry);
+        Gauge.builder("donation.admission.backlogged", limiter, l -> l.isBacklogged() ? 1 : 0)
+                .description("1 while the downstream backlog is over target and the limit may not grow")
+                .register(meterRegistry);
+        Gauge.builder("donation.admission.rtt", limiter, AdaptiveConcurrencyLimiter::getLastRttMillis)
+                .tag("window", "last").baseUnit("milliseconds").register(meterRegistry);
+        Gauge.builder("donation.admission.rtt", limiter, AdaptiveConcurrencyLimiter::getLongRttMillis)
+                .tag("window", "long").baseUnit("milliseconds").register(meterRegistry);
+        return limiter;
+    }
+
+    @Bean
+    public PipelineBacklogMonitor pipelineBacklogMonitor(AdaptiveConcurrencyLimiter limiter, MongoTemplate mongoTemplate,
+                                                         MeterRegistry meterRegistry) {
+        PipelineBacklogMonitor monitor = new PipelineBacklogMonitor(limiter, mongoTemplate, bootstrapServers,
+                consumerGroup, backlogTarget, backlogPollIntervalMs);
+        Gauge.builder("donation.admission.backlog", monitor, PipelineBacklogMonitor::getOutboxPending)
+                .tag("source", "outbox").register(meterRegistry);
+        Gauge.builder("donation.admission.backlog", monitor, PipelineBacklogMonitor::getConsumerLag)
+                .tag("source", "consumer_lag").register(meterRegistry);
+        return monitor;
+    }
+
+    @Bean
+    public FilterRegistrationBean<AdmissionControlFilter> admissionControlFilter(AdaptiveConcurrencyLimiter limiter,
+                                                                                 PipelineBacklogMonitor monitor,
+                                                                                 MeterRegistry meterRegistry) {
+        FilterRegistrationBean<AdmissionControlFilter> registration = new FilterRegistrationBean<>(
+                new AdmissionControlFilter(limiter, monitor, maxRetryAfterSeconds, meterRegistry));
+        registration.addUrlPatterns("/donations", "/donations/batch");
+        return registration;
+    }
+}
@@ -1,8 +1,12 @@
 package com.foodmatch.donorservice.config;
 
+import com.foodmatch.donorservice.codec.DonationEventSerializer;
 import com.foodmatch.donorservice.model.DonationEvent;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.core.*;
@@ -14,15 +18,45 @@ import java.util.Map;
 @Configuration
 public class KafkaProducerConfig {
 
+    // json | binary; matchingservice reads both, so switch only after consumers are upgraded
+    @Value("${donation.events.format:json}")
+    private String format;
+
+    @Value("${donation.events.producer.linger-ms:10}")
+    private int lingerMs;
+
+    @Value("${donation.events.producer.batch-size:65536}")
+    private int batchSize;
+
+    @Value("${donation.events.producer.compression:lz4}")
+    private String compression;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @Bean
     public ProducerFactory<String, DonationEvent> donationProducerFactory() {
         Map<String, Object> config = new HashMap<>();
 
         config.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, "localhost:9092");
         config.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        config.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+        config.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG,
+                "binary".equals(format) ? DonationEventSerializer.class : JsonSerializer.class);
+
+        // Let records for the same partition accumulate briefly and ship them as one compressed batch
+        config.put(ProducerConfig.LINGER_MS_CONFIG, lingerMs);
+        config.put(ProducerConfig.BATCH_SIZE_CONFIG, batchSize);
+        config.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, compression);
+
+        // Idempotent producer: retries cannot duplicate or reorder records within a partition
+        config.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        config.put(ProducerConfig.ACKS_CONFIG, "all");
+        config.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 5);
 
-        return new DefaultKafkaProducerFactory<>(config);
+        DefaultKafkaProducerFactory<String, DonationEvent> factory = new DefaultKafkaProducerFactory<>(config);
+        // Exports the client's metrics (record send rate, batch size, request latency) as kafka.producer.* meters
+        factory.addListener(new MicrometerProducerListener<>(meterRegistry));
+        return factory;
     }
 
     @Bean
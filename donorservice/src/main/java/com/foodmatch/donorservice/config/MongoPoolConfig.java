@@ -0,0 +1,26 @@
+package com.foodmatch.donorservice.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class MongoPoolConfig {
+
+    // Defaults are the driver's own; the virtual profile sizes the pool to the admission limit
+    @Value("${donation.mongo.max-pool-size:100}")
+    private int maxPoolSize;
+
+    @Value("${donation.mongo.wait-queue-timeout-ms:120000}")
+    private long waitQueueTimeoutMs;
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer mongoPoolCustomizer() {
+        return settings -> settings.applyToConnectionPoolSettings(pool -> pool
+                .maxSize(maxPoolSize)
+                .maxWaitTime(waitQueueTimeoutMs, TimeUnit.MILLISECONDS));
+    }
+}
@@ -0,0 +1,106 @@
+package com.foodmatch.donorservice.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Reports virtual threads that stay pinned to their carrier, which on Java 21 means blocking
+ * inside a synchronized block or a native frame. Listens to the JFR jdk.VirtualThreadPinned
+ * event in-process and counts it as jvm.threads.virtual.pinned{site}, where site is the first
+ * frame in our own code ("external" when the pin is entirely inside a library). The first stack
+ * seen for each site is logged.
+ *
+ * Active with spring.threads.virtual.enabled=true. For a one-off run, -Djdk.tracePinnedThreads=short
+ * prints the same information to stdout.
+ *
+ * Copy of matchingservice's VirtualThreadPinningMonitor; see there for why it is duplicated.
+ */
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadPinningMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+
+    private static final String EVENT = "jdk.VirtualThreadPinned";
+    private static final String OWN_PACKAGE = "com.foodmatch.";
+    private static final int LOGGED_FRAMES = 12;
+    private static final int MAX_LOGGED_SITES = 100;
+
+    private final MeterRegistry registry;
+    private final Timer pinnedTime;
+    private final Set<String> loggedSites = ConcurrentHashMap.newKeySet();
+    private final long thresholdMs;
+    private RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(MeterRegistry registry,
+                                       @Value("${donation.pinning.threshold-ms:20}") long thresholdMs) {
+        this.registry = registry;
+        this.thresholdMs = thresholdMs;
+        this.pinnedTime = Timer.builder("jvm.threads.virtual.pinned.duration")
+                .description("Time virtual threads spent pinned to their carrier, above the threshold")
+                .register(registry);
+    }
+
+    @PostConstruct
+    void start() {
+        stream = new RecordingStream();
+        stream.enable(EVENT).withThreshold(Duration.ofMillis(thresholdMs)).withStackTrace();
+        stream.onEvent(EVENT, this::onPinned);
+        stream.startAsync();
+        log.info("Reporting virtual thread pinning above {} ms", thresholdMs);
+    }
+
+    @PreDestroy
+    void stop() {
+        stream.close();
+    }
+
+    private void onPinned(RecordedEvent event) {
+        List<RecordedFrame> frames = frames(event.getStackTrace());
+        String site = frames.stream()
+                .filter(frame -> frame.getMethod().getType().getName().startsWith(OWN_PACKAGE))
+                .findFirst()
+                .map(VirtualThreadPinningMonitor::describe)
+                .orElse("external");
+        Counter.builder("jvm.threads.virtual.pinned")
+                .description("Virtual threads pinned to their carrier above the threshold, by first own frame")
+                .tag("site", site)
+                .register(registry)
+                .increment();
+        pinnedTime.record(event.getDuration());
+
+        String key = site.equals("external") && !frames.isEmpty() ? describe(frames.get(0)) : site;
+        if (loggedSites.size() < MAX_LOGGED_SITES && loggedSites.add(key)) {
+            log.warn("Virtual thread pinned for {} ms at {}:\n\t{}", event.getDuration().toMillis(), site,
+                    frames.stream().limit(LOGGED_FRAMES).map(VirtualThreadPinningMonitor::describe)
+                            .collect(Collectors.joining("\n\t")));
+        }
+    }
+
+    private static List<RecordedFrame> frames(RecordedStackTrace stackTrace) {
+        return stackTrace == null ? List.of() : stackTrace.getFrames();
+    }
+
+    private static String describe(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName();
+    }
+}
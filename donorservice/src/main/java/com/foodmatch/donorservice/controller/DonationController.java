@@ -4,6 +4,8 @@ import com.foodmatch.donorservice.model.Donation;
 import com.foodmatch.donorservice.service.DonationService;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/donations")
 public class DonationController {
@@ -18,4 +20,9 @@ public class DonationController {
     public Donation createDonation(@RequestBody Donation donation) {
         return service.saveDonation(donation);
     }
+
+    @PostMapping("/batch")
+    public List<Donation> createDonations(@RequestBody List<Donation> donations) {
+        return service.saveDonations(donations);
+    }
 }
@@ -1,8 +1,11 @@
 package com.foodmatch.donorservice.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+import java.time.Instant;
+
 @Document("donations")
 public class Donation {
     @Id
@@ -15,6 +18,17 @@ public class Donation {
     private double lon;
     private String timestamp;
 
+    // Outbox marker: set in the same document write as the donation, unset once the relay has
+    // published the event. Absent on published donations, so the sparse index stays small.
+    @JsonIgnore
+    private Instant outboxPendingSince;
+
+    // Set by the relay instance that is publishing the event, until its lease runs out
+    @JsonIgnore
+    private String outboxClaim;
+    @JsonIgnore
+    private Instant outboxClaimedUntil;
+
     // Getters and Setters
     public String getId() { return id; }
     public void setId(String id) { this.id = id; }
@@ -36,4 +50,19 @@ public class Donation {
 
     public String getTimestamp() { return timestamp; }
     public void setTimestamp(String timestamp) { this.timestamp = timestamp; }
+
+    @JsonIgnore
+    public Instant getOutboxPendingSince() { return outboxPendingSince; }
+    @JsonIgnore
+    public void setOutboxPendingSince(Instant outboxPendingSince) { this.outboxPendingSince = outboxPendingSince; }
+
+    @JsonIgnore
+    public String getOutboxClaim() { return outboxClaim; }
+    @JsonIgnore
+    public void setOutboxClaim(String outboxClaim) { this.outboxClaim = outboxClaim; }
+
+    @JsonIgnore
+    public Instant getOutboxClaimedUntil() { return outboxClaimedUntil; }
+    @JsonIgnore
+    public void setOutboxClaimedUntil(Instant outboxClaimedUntil) { this.outboxClaimedUntil = outboxClaimedUntil; }
 }
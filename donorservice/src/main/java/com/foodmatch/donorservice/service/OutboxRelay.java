@@ -0,0 +1,240 @@
+package com.foodmatch.donorservice.service;
+
+import com.foodmatch.donorservice.model.Donation;
+import com.foodmatch.donorservice.model.DonationEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.PartialIndexFilter;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Publishes pending donation events to Kafka. Polls donations that still carry an outbox marker,
+ * oldest first, sends a whole page without blocking between records, waits for the acks and then
+ * clears the marker on the acknowledged documents with one bulk update. Delivery is at-least-once:
+ * a crash between ack and update republishes the page.
+ *
+ * Every replica runs a relay, so a page is claimed before it is sent: one conditional updateMulti
+ * stamps the page's unclaimed (or lease-expired) donations with a fresh claim token and a lease,
+ * and only the donations that carry the token afterwards are sent. Each document's filter and
+ * update are applied atomically, so two relays can never both claim the same donation while its
+ * lease runs. Events whose send fails are unclaimed at once so the next poll retries them.
+ */
+@Component
+@ConditionalOnProperty(name = "donation.outbox.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    static final String TOPIC = "donation.events";
+    private static final String PENDING_FIELD = "outboxPendingSince";
+    // Default name of the index on (outboxPendingSince, _id); earlier builds created it sparse
+    private static final String PENDING_INDEX = "outboxPendingSince_1__id_1";
+    private static final String CLAIM_FIELD = "outboxClaim";
+    private static final String CLAIMED_UNTIL_FIELD = "outboxClaimedUntil";
+
+    private final MongoTemplate mongoTemplate;
+    private final KafkaTemplate<String, DonationEvent> kafkaTemplate;
+    private final Counter publishedCounter;
+    private final Counter failedCounter;
+    private final Timer publishTimer;
+    private final Timer outboxLag;
+    private final DistributionSummary batchSize;
+
+    @Value("${donation.outbox.batch-size:500}")
+    private int pageSize;
+
+    @Value("${donation.outbox.ack-timeout-ms:10000}")
+    private long ackTimeoutMs;
+
+    @Value("${donation.outbox.max-pages-per-run:20}")
+    private int maxPagesPerRun;
+
+    // Must outlast a page's send and ack wait, or a slow page gets published twice
+    @Value("${donation.outbox.lease-ms:30000}")
+    private long leaseMs;
+
+    // donor: all events of a donor land on one partition; cell: events of a 0.01° cell do
+    @Value("${donation.events.key:donor}")
+    private String partitionKey;
+
+    public OutboxRelay(MongoTemplate mongoTemplate, KafkaTemplate<String, DonationEvent> kafkaTemplate,
+                       MeterRegistry meterRegistry) {
+        this.mongoTemplate = mongoTemplate;
+        this.kafkaTemplate = kafkaTemplate;
+        this.publishedCounter = Counter.builder("donation.events.published")
+                .tag("result", "success")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("donation.events.published")
+                .tag("result", "failure")
+                .register(meterRegistry);
+        this.publishTimer = Timer.builder("donation.events.publish.latency")
+                .description("Time from send() to broker acknowledgement")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.outboxLag = Timer.builder("donation.outbox.lag")
+                .description("Time from the donation write to the broker acknowledgement of its event")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("donation.outbox.batch.size")
+                .register(meterRegistry);
+    }
+
+    private volatile boolean indexEnsured;
+
+    @Scheduled(fixedDelayString = "${donation.outbox.poll-interval-ms:200}")
+    public void relay() {
+        if (!indexEnsured) {
+            // Done on the relay thread rather than at startup so a slow Mongo does not block boot
+            ensurePendingIndex();
+            indexEnsured = true;
+        }
+        // Drain up to maxPagesPerRun full pages, stop early once the backlog is empty
+        for (int page = 0; page < maxPagesPerRun; page++) {
+            int fetched = relayPage();
+            if (fetched < pageSize) {
+                return;
+            }
+        }
+    }
+
+    // Partial, not sparse: a compound sparse index takes every document that has any of its fields,
+    // and every document has _id. Only donations with an unpublished event are indexed, and
+    // queries that include PENDING_FIELD exists(true) can use it.
+    private void ensurePendingIndex() {
+        IndexOperations indexOps = mongoTemplate.indexOps(Donation.class);
+        boolean sparseIndex = indexOps.getIndexInfo().stream()
+                .anyMatch(info -> PENDING_INDEX.equals(info.getName()) && info.getPartialFilterExpression() == null);
+        if (sparseIndex) {
+            indexOps.dropIndex(PENDING_INDEX);
+        }
+        indexOps.createIndex(new Index().on(PENDING_FIELD, Sort.Direction.ASC).on("_id", Sort.Direction.ASC)
+                .named(PENDING_INDEX)
+                .partial(PartialIndexFilter.of(Criteria.where(PENDING_FIELD).exists(true))));
+    }
+
+    /** Publishes one page of pending events and returns how many were fetched. */
+    int relayPage() {
+        Instant now = Instant.now();
+        Query candidates = new Query(claimable(now))
+                .with(Sort.by(Sort.Direction.ASC, PENDING_FIELD, "_id"))
+                .limit(pageSize);
+        candidates.fields().include("_id");
+        List<String> ids = mongoTemplate.find(candidates, Donation.class).stream().map(Donation::getId).toList();
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        String claim = UUID.randomUUID().toString();
+        mongoTemplate.updateMulti(
+                new Query(new Criteria().andOperator(Criteria.where("_id").in(ids), claimable(now))),
+                new Update().set(CLAIM_FIELD, claim).set(CLAIMED_UNTIL_FIELD, now.plusMillis(leaseMs)),
+                Donation.class);
+        List<Donation> pending = mongoTemplate.find(
+                // PENDING_FIELD keeps this on the partial index instead of a collection scan
+                new Query(Criteria.where(PENDING_FIELD).exists(true).and(CLAIM_FIELD).is(claim))
+                        .with(Sort.by(Sort.Direction.ASC, PENDING_FIELD, "_id")),
+                Donation.class);
+        if (pending.isEmpty()) {
+            // Another replica claimed the whole page; carry on with the next one
+            return ids.size();
+        }
+        batchSize.record(pending.size());
+
+        List<CompletableFuture<?>> sends = new ArrayList<>(pending.size());
+        for (Donation donation : pending) {
+            DonationEvent event = toEvent(donation);
+            long start = System.nanoTime();
+            sends.add(kafkaTemplate.send(TOPIC, partitionKey(event), event)
+                    .whenComplete((result, ex) -> publishTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS)));
+        }
+
+        List<String> acknowledged = new ArrayList<>(pending.size());
+        List<String> failed = new ArrayList<>();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ackTimeoutMs);
+        for (int i = 0; i < pending.size(); i++) {
+            Donation donation = pending.get(i);
+            try {
+                sends.get(i).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                acknowledged.add(donation.getId());
+                publishedCounter.increment();
+                if (donation.getOutboxPendingSince() != null) {
+                    outboxLag.record(Duration.between(donation.getOutboxPendingSince(), Instant.now()));
+                }
+            } catch (InterruptedException e) {
+                // The rest stay claimed until their lease runs out
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException | TimeoutException e) {
+                // Left pending; the next run retries it
+                failed.add(donation.getId());
+                failedCounter.increment();
+                log.warn("Donation event {} not acknowledged, will retry: {}", donation.getId(), e.toString());
+            }
+        }
+
+        if (!acknowledged.isEmpty()) {
+            mongoTemplate.updateMulti(
+                    new Query(Criteria.where("_id").in(acknowledged)),
+                    new Update().unset(PENDING_FIELD).unset(CLAIM_FIELD).unset(CLAIMED_UNTIL_FIELD),
+                    Donation.class);
+        }
+        if (!failed.isEmpty()) {
+            mongoTemplate.updateMulti(
+                    new Query(Criteria.where("_id").in(failed).and(CLAIM_FIELD).is(claim)),
+                    new Update().unset(CLAIM_FIELD).unset(CLAIMED_UNTIL_FIELD),
+                    Donation.class);
+        }
+        // A partially failed page ends this run so failures back off by one poll interval
+        return acknowledged.size() == pending.size() ? ids.size() : 0;
+    }
+
+    // Pending and either never claimed or claimed by a relay whose lease has run out
+    private static Criteria claimable(Instant now) {
+        return Criteria.where(PENDING_FIELD).exists(true).orOperator(
+                Criteria.where(CLAIMED_UNTIL_FIELD).exists(false),
+                Criteria.where(CLAIMED_UNTIL_FIELD).lt(now));
+    }
+
+    private static DonationEvent toEvent(Donation donation) {
+        DonationEvent event = new DonationEvent();
+        event.setDonationId(donation.getId());
+        event.setDonorId(donation.getDonorId());
+        event.setLat(donation.getLat());
+        event.setLon(donation.getLon());
+        event.setQuantity(donation.getQuantity());
+        event.setTimestamp(donation.getTimestamp());
+        return event;
+    }
+
+    private String partitionKey(DonationEvent event) {
+        if ("cell".equals(partitionKey)) {
+            return Math.round(event.getLat() * 100.0) + ":" + Math.round(event.getLon() * 100.0);
+        }
+        return event.getDonorId();
+    }
+}
@@ -0,0 +1,65 @@
+package com.foodmatch.donorservice.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(5);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(50);
+
+    @Test
+    void rejectsAtTheLimitAndGrowsWhileLatencyHolds() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(4, 2, 100, 2.0, 0.2);
+        for (int i = 0; i < 4; i++) {
+            assertThat(limiter.tryAcquire()).isTrue();
+        }
+        assertThat(limiter.tryAcquire()).isFalse();
+
+        for (int round = 0; round < 50; round++) {
+            limiter.onSuccess(FAST);
+            assertThat(limiter.tryAcquire()).isTrue();
+        }
+        assertThat(limiter.getLimit()).isGreaterThan(4);
+    }
+
+    @Test
+    void shrinksWhenLatencyRisesAndWhenBacklogged() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(40, 2, 100, 2.0, 0.5);
+        saturate(limiter, FAST, 100);
+        int before = limiter.getLimit();
+
+        saturate(limiter, SLOW, 20);
+        int slowed = limiter.getLimit();
+        assertThat(slowed).isLessThan(before);
+
+        limiter.applyBacklog(2.0);
+        assertThat(limiter.isBacklogged()).isTrue();
+        assertThat(limiter.getLimit()).isEqualTo(slowed / 2);
+        saturate(limiter, FAST, 20);
+        assertThat(limiter.getLimit()).isLessThanOrEqualTo(slowed / 2);
+
+        limiter.applyBacklog(0.5);
+        saturate(limiter, FAST, 20);
+        assertThat(limiter.getLimit()).isGreaterThan(slowed / 2);
+    }
+
+    // Completes requests while keeping the limiter fully used, as under sustained load
+    private static void saturate(AdaptiveConcurrencyLimiter limiter, long rttNanos, int samples) {
+        while (limiter.tryAcquire()) {
+            // fill up to the current limit
+        }
+        for (int i = 0; i < samples; i++) {
+            limiter.onSuccess(rttNanos);
+            while (limiter.tryAcquire()) {
+                // refill
+            }
+        }
+        while (limiter.getInFlight() > 0) {
+            limiter.onIgnored();
+        }
+    }
+}
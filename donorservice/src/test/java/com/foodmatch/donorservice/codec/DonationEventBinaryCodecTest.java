@@ -0,0 +1,46 @@
+package com.foodmatch.donorservice.codec;
+
+import com.foodmatch.donorservice.model.DonationEvent;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HexFormat;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DonationEventBinaryCodecTest {
+
+    // Shared with matchingservice's codec test, which decodes the same bytes
+    private static final Path GOLDEN = Path.of("../codec-fixtures/donation-event-v1.tsv");
+
+    @Test
+    void encodesTheGoldenFixtureByteForByte() throws IOException {
+        List<String[]> cases = Files.readAllLines(GOLDEN, StandardCharsets.UTF_8).stream()
+                .filter(line -> !line.isBlank() && !line.startsWith("#"))
+                .map(line -> line.split("\t"))
+                .toList();
+
+        assertThat(cases).isNotEmpty();
+        for (String[] fields : cases) {
+            DonationEvent event = new DonationEvent();
+            event.setDonationId(nullable(fields[0]));
+            event.setDonorId(nullable(fields[1]));
+            event.setLat(Double.parseDouble(fields[2]));
+            event.setLon(Double.parseDouble(fields[3]));
+            event.setQuantity(Integer.parseInt(fields[4]));
+            event.setTimestamp(nullable(fields[5]));
+
+            assertThat(HexFormat.of().formatHex(DonationEventBinaryCodec.encode(event)))
+                    .as("encoding of %s", fields[0])
+                    .isEqualTo(fields[6]);
+        }
+    }
+
+    private static String nullable(String field) {
+        return "null".equals(field) ? null : field;
+    }
+}
@@ -0,0 +1,239 @@
+package com.foodmatch.loadgen;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop concurrency sweep against one HTTP endpoint: for each level, that many clients
+ * each send a request, wait for the answer and send the next. Reports throughput, latency
+ * percentiles and errors per level, which shows where a service stops gaining throughput and
+ * starts queueing. Run it against the same service with and without the virtual profile.
+ *
+ *   java -jar target/loadgen.jar sweep --embedded --label platform
+ *   java -jar target/loadgen.jar sweep --embedded --virtual --label virtual
+ *   java -jar target/loadgen.jar sweep --url 'http://localhost:8082/matches/loadgen-donor-{donor}'
+ *
+ * Each client is its own thread, so the generator never caps concurrency below the level.
+ */
+final class ConcurrencySweep {
+
+    static final String USAGE = """
+            Usage: java -jar target/loadgen.jar sweep [options]
+
+              --url URL              endpoint to GET; {donor} is replaced by a random donor number
+                                     (embedded default: <matching>/matches/loadgen-donor-{donor})
+              --embedded             sweep an in-process matching service (see the load options)
+              --virtual              start the embedded service with the virtual profile
+              --levels N,N,...       concurrent clients per level (50,100,200,400,800,1600)
+              --duration N           measured seconds per level (10)
+              --warmup N             unmeasured seconds at the start of each level, also JIT warmup (10)
+              --donors N             range of {donor} (100000)
+              --label NAME           (local)
+              --out DIR              (results)
+            """;
+
+    private static final long MAX_MICROS = TimeUnit.MINUTES.toMicros(5);
+
+    private String url;
+    private boolean embedded;
+    private boolean virtual;
+    private int[] levels = {50, 100, 200, 400, 800, 1600};
+    private int durationSeconds = 10;
+    private int warmupSeconds = 10;
+    private int donors = 100_000;
+    private String label = "local";
+    private Path out = Path.of("results");
+    private final Map<String, String> serviceProperties = new LinkedHashMap<>();
+
+    private ConcurrencySweep() {
+    }
+
+    static void main(String[] args) throws Exception {
+        ConcurrencySweep sweep = new ConcurrencySweep();
+        try {
+            sweep.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.print(USAGE);
+            System.exit(2);
+        }
+        EmbeddedStack stack = null;
+        try {
+            if (sweep.embedded) {
+                if (sweep.virtual) {
+                    sweep.serviceProperties.put("spring.profiles.active", "virtual");
+                }
+                System.out.println("Starting embedded Kafka, Postgres, Redis and the matching service"
+                        + (sweep.virtual ? " (virtual profile)..." : "..."));
+                stack = EmbeddedStack.start(new LoadOptions().topic, sweep.serviceProperties);
+                if (sweep.url == null) {
+                    sweep.url = stack.matchingUrl() + "/matches/loadgen-donor-{donor}";
+                }
+            }
+            sweep.run();
+        } finally {
+            if (stack != null) {
+                stack.close();
+            }
+        }
+    }
+
+    private void parse(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String name = args[i];
+            if (name.equals("--embedded")) {
+                embedded = true;
+                continue;
+            }
+            if (name.equals("--virtual")) {
+                virtual = true;
+                continue;
+            }
+            String value;
+            int eq = name.indexOf('=');
+            if (eq >= 0) {
+                value = name.substring(eq + 1);
+                name = name.substring(0, eq);
+            } else if (i + 1 < args.length) {
+                value = args[++i];
+            } else {
+                throw new IllegalArgumentException("Missing value for " + name);
+            }
+            switch (name) {
+                case "--url" -> url = value;
+                case "--levels" -> levels = Arrays.stream(value.split(",")).mapToInt(Integer::parseInt).toArray();
+                case "--duration" -> durationSeconds = Integer.parseInt(value);
+                case "--warmup" -> warmupSeconds = Integer.parseInt(value);
+                case "--donors" -> donors = Integer.parseInt(value);
+                case "--label" -> label = value;
+                case "--out" -> out = Path.of(value);
+                default -> {
+                    if (name.startsWith("--matching.") || name.startsWith("--spring.")) {
+                        serviceProperties.put(name.substring(2), value);
+                    } else {
+                        throw new IllegalArgumentException("Unknown option " + name);
+                    }
+                }
+            }
+        }
+        if (url == null && !embedded) {
+            throw new IllegalArgumentException("--url is required without --embedded");
+        }
+        if (virtual && !embedded) {
+            throw new IllegalArgumentException("--virtual applies to the embedded service; start your own with --spring.profiles.active=virtual");
+        }
+    }
+
+    private void run() throws Exception {
+        System.out.println("Sweeping GET " + url);
+        List<String> lines = new ArrayList<>();
+        lines.add("GET " + url + (embedded ? virtual ? " (embedded, virtual profile)" : " (embedded)" : ""));
+        lines.add(String.format("%8s %10s %9s %9s %9s %9s %8s", "clients", "req/s", "p50 ms", "p99 ms",
+                "p99.9 ms", "max ms", "errors"));
+        System.out.println(lines.get(1));
+        List<String> csv = new ArrayList<>();
+        csv.add("clients,requests_per_second,p50_ms,p99_ms,p999_ms,max_ms,errors");
+
+        // Platform threads: with --embedded the service's virtual threads share this JVM's carriers
+        try (ExecutorService clients = Executors.newThreadPerTaskExecutor(
+                     Thread.ofPlatform().name("sweep-client-", 0).daemon(true).factory());
+             HttpClient http = HttpClient.newBuilder()
+                     .version(HttpClient.Version.HTTP_1_1)
+                     .connectTimeout(Duration.ofSeconds(10))
+                     .build()) {
+            for (int level : levels) {
+                Level result = runLevel(http, clients, level);
+                String line = String.format("%8d %10.0f %9.1f %9.1f %9.1f %9.1f %8d", level, result.throughput,
+                        result.latency.getValueAtPercentile(50) / 1000.0, result.latency.getValueAtPercentile(99) / 1000.0,
+                        result.latency.getValueAtPercentile(99.9) / 1000.0, result.latency.getMaxValue() / 1000.0,
+                        result.errors);
+                System.out.println(line);
+                lines.add(line);
+                csv.add(String.format("%d,%.1f,%.2f,%.2f,%.2f,%.2f,%d", level, result.throughput,
+                        result.latency.getValueAtPercentile(50) / 1000.0, result.latency.getValueAtPercentile(99) / 1000.0,
+                        result.latency.getValueAtPercentile(99.9) / 1000.0, result.latency.getMaxValue() / 1000.0,
+                        result.errors));
+            }
+        }
+
+        String stamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        Path dir = out.resolve(label + "-sweep-" + stamp);
+        Files.createDirectories(dir);
+        Files.write(dir.resolve("summary.txt"), lines);
+        Files.write(dir.resolve("sweep.csv"), csv);
+        System.out.println("Results written to " + dir.toAbsolutePath());
+    }
+
+    private record Level(double throughput, Histogram latency, long errors) {
+    }
+
+    private Level runLevel(HttpClient http, ExecutorService clients, int concurrency) throws InterruptedException {
+        Recorder recorder = new Recorder(MAX_MICROS, 3);
+        AtomicLong errors = new AtomicLong();
+        long start = System.nanoTime();
+        long measureFrom = start + TimeUnit.SECONDS.toNanos(warmupSeconds);
+        long end = measureFrom + TimeUnit.SECONDS.toNanos(durationSeconds);
+        List<Future<?>> running = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            running.add(clients.submit(() -> {
+                while (System.nanoTime() < end) {
+                    HttpRequest request = HttpRequest.newBuilder(URI.create(url.replace("{donor}",
+                                    String.valueOf(ThreadLocalRandom.current().nextInt(donors)))))
+                            .timeout(Duration.ofSeconds(30))
+                            .GET()
+                            .build();
+                    long sent = System.nanoTime();
+                    boolean ok;
+                    try {
+                        ok = http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() < 400;
+                    } catch (InterruptedException e) {
+                        return;
+                    } catch (Exception e) {
+                        ok = false;
+                    }
+                    long done = System.nanoTime();
+                    // Count completions inside the window, whenever they were sent: with latencies
+                    // near the window length, requiring both ends inside it drops most of them
+                    if (done >= measureFrom && done <= end) {
+                        if (ok) {
+                            recorder.recordValue(Math.min(MAX_MICROS, (done - sent) / 1000));
+                        } else {
+                            errors.incrementAndGet();
+                        }
+                    }
+                }
+            }));
+        }
+        for (Future<?> client : running) {
+            try {
+                client.get();
+            } catch (ExecutionException e) {
+                errors.incrementAndGet();
+            }
+        }
+        Histogram latency = recorder.getIntervalHistogram();
+        return new Level(latency.getTotalCount() / (double) durationSeconds, latency, errors.get());
+    }
+}
@@ -0,0 +1,18 @@
+package com.foodmatch.loadgen;
+
+import com.foodmatch.matchingservice.model.DonationEvent;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Where the generator sends donations: straight to donation.events, or through the donor service.
+ */
+interface DonationSink extends AutoCloseable {
+
+    // Completes with the donationId the matching service will write, once the broker or the donor
+    // service has accepted the donation
+    CompletableFuture<String> send(DonationEvent event);
+
+    @Override
+    void close();
+}
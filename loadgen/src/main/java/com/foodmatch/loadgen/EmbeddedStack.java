@@ -0,0 +1,93 @@
+package com.foodmatch.loadgen;
+
+import com.foodmatch.matchingservice.MatchingServiceApplication;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Everything the matching side needs, in this JVM: a single-node KRaft broker, a Postgres
+ * unpacked from the embedded binaries, an embedded Redis and the matching service itself on a
+ * random port. Nothing needs Docker or Testcontainers.
+ *
+ * The service shares the JVM, and here a CPU, with the generator, so compare embedded runs with
+ * each other rather than with runs against docker-compose.
+ */
+final class EmbeddedStack implements AutoCloseable {
+
+    static final int PARTITIONS = 3;
+
+    private final EmbeddedKafkaKraftBroker kafka;
+    private final EmbeddedPostgres postgres;
+    private final RedisServer redis;
+    private final ConfigurableApplicationContext matching;
+    private final String jdbcUrl;
+
+    private EmbeddedStack(EmbeddedKafkaKraftBroker kafka, EmbeddedPostgres postgres, RedisServer redis,
+                          ConfigurableApplicationContext matching, String jdbcUrl) {
+        this.kafka = kafka;
+        this.postgres = postgres;
+        this.redis = redis;
+        this.matching = matching;
+        this.jdbcUrl = jdbcUrl;
+    }
+
+    static EmbeddedStack start(String topic, Map<String, String> serviceProperties) throws IOException {
+        EmbeddedKafkaKraftBroker kafka = new EmbeddedKafkaKraftBroker(1, PARTITIONS, topic);
+        kafka.afterPropertiesSet();
+        EmbeddedPostgres postgres = EmbeddedPostgres.start();
+        int redisPort = freePort();
+        RedisServer redis = new RedisServer(redisPort);
+        redis.start();
+        String jdbcUrl = postgres.getJdbcUrl("postgres", "postgres");
+
+        // Passed as command-line arguments so they win over the service's application.properties
+        Map<String, String> properties = new LinkedHashMap<>();
+        properties.put("server.port", "0");
+        properties.put("spring.main.banner-mode", "off");
+        properties.put("spring.datasource.url", jdbcUrl);
+        properties.put("spring.datasource.username", "postgres");
+        properties.put("spring.datasource.password", "postgres");
+        properties.put("spring.jpa.show-sql", "false");
+        properties.put("spring.kafka.bootstrap-servers", kafka.getBrokersAsString());
+        properties.put("spring.data.redis.host", "localhost");
+        properties.put("spring.data.redis.port", String.valueOf(redisPort));
+        properties.putAll(serviceProperties);
+        ConfigurableApplicationContext matching = new SpringApplicationBuilder(MatchingServiceApplication.class)
+                .run(properties.entrySet().stream().map(e -> "--" + e.getKey() + "=" + e.getValue()).toArray(String[]::new));
+        return new EmbeddedStack(kafka, postgres, redis, matching, jdbcUrl);
+    }
+
+    String bootstrapServers() {
+        return kafka.getBrokersAsString();
+    }
+
+    String jdbcUrl() {
+        return jdbcUrl;
+    }
+
+    String matchingUrl() {
+        return "http://localhost:" + matching.getEnvironment().getProperty("local.server.port");
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        matching.close();
+        kafka.destroy();
+        redis.stop();
+        postgres.close();
+    }
+}
@@ -0,0 +1,96 @@
+package com.foodmatch.loadgen;
+
+import java.util.Random;
+
+/**
+ * Where donations come from. Both distributions stay around the same five cities the benchmarks
+ * use, so a seeded catalog (see {@link #ngoLocation}) puts an NGO within range of most of them.
+ */
+enum GeoDistribution {
+
+    // A few dense neighbourhoods per city take most donations, busier cities more often.
+    // This is the shape that makes a handful of location cells and NGOs hot.
+    HOTSPOT {
+        @Override
+        double[] next(Random random) {
+            int city = pickCity(random);
+            if (random.nextDouble() < HOTSPOT_SHARE) {
+                double[] spot = HOTSPOTS[city][random.nextInt(HOTSPOTS_PER_CITY)];
+                return new double[]{
+                        spot[0] + random.nextGaussian() * HOTSPOT_SPREAD_DEG,
+                        spot[1] + random.nextGaussian() * HOTSPOT_SPREAD_DEG};
+            }
+            return around(CITY_CENTERS[city], random);
+        }
+    },
+
+    // Uniform over a square of about 50 km around a uniformly chosen city
+    UNIFORM {
+        @Override
+        double[] next(Random random) {
+            double[] city = CITY_CENTERS[random.nextInt(CITY_CENTERS.length)];
+            return new double[]{
+                    city[0] + (random.nextDouble() * 2 - 1) * UNIFORM_HALF_SIDE_DEG,
+                    city[1] + (random.nextDouble() * 2 - 1) * UNIFORM_HALF_SIDE_DEG};
+        }
+    };
+
+    // Bangalore, Mumbai, Delhi, Chennai, Hyderabad
+    static final double[][] CITY_CENTERS = {
+            {12.9716, 77.5946},
+            {19.0760, 72.8777},
+            {28.7041, 77.1025},
+            {13.0827, 80.2707},
+            {17.3850, 78.4867}
+    };
+
+    // Share of hotspot traffic per city, in CITY_CENTERS order
+    private static final double[] CITY_WEIGHTS = {0.35, 0.25, 0.2, 0.12, 0.08};
+
+    private static final int HOTSPOTS_PER_CITY = 6;
+    private static final double HOTSPOT_SHARE = 0.8;
+    // About 500 m around a hotspot
+    private static final double HOTSPOT_SPREAD_DEG = 0.005;
+    // About 15 km standard deviation around a city centre, as in the benchmark fixtures
+    private static final double CITY_SPREAD_DEG = 0.135;
+    private static final double UNIFORM_HALF_SIDE_DEG = 0.225;
+
+    // Fixed per build, independent of --seed, so runs with different seeds hit the same hotspots
+    private static final double[][][] HOTSPOTS = hotspots(new Random(7));
+
+    abstract double[] next(Random random);
+
+    // NGOs are spread around each city centre
+    static double[] ngoLocation(Random random) {
+        return around(CITY_CENTERS[random.nextInt(CITY_CENTERS.length)], random);
+    }
+
+    private static int pickCity(Random random) {
+        double r = random.nextDouble();
+        for (int i = 0; i < CITY_WEIGHTS.length - 1; i++) {
+            r -= CITY_WEIGHTS[i];
+            if (r < 0) {
+                return i;
+            }
+        }
+        return CITY_WEIGHTS.length - 1;
+    }
+
+    private static double[] around(double[] center, Random random) {
+        return new double[]{
+                center[0] + random.nextGaussian() * CITY_SPREAD_DEG,
+                center[1] + random.nextGaussian() * CITY_SPREAD_DEG};
+    }
+
+    private static double[][][] hotspots(Random random) {
+        double[][][] hotspots = new double[CITY_CENTERS.length][HOTSPOTS_PER_CITY][];
+        for (int city = 0; city < CITY_CENTERS.length; city++) {
+            for (int i = 0; i < HOTSPOTS_PER_CITY; i++) {
+                hotspots[city][i] = new double[]{
+                        CITY_CENTERS[city][0] + (random.nextDouble() * 2 - 1) * 0.1,
+                        CITY_CENTERS[city][1] + (random.nextDouble() * 2 - 1) * 0.1};
+            }
+        }
+        return hotspots;
+    }
+}
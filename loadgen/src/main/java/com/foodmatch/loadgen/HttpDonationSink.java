@@ -0,0 +1,73 @@
+package com.foodmatch.loadgen;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.foodmatch.matchingservice.model.DonationEvent;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * POSTs each donation to the donor service. The donation gets its id from Mongo, and the outbox
+ * relay publishes it, so the measured latency covers the whole donor side as well.
+ */
+final class HttpDonationSink implements DonationSink {
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .executor(executor)
+            .build();
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final URI donations;
+
+    HttpDonationSink(String donorUrl) {
+        this.donations = URI.create(donorUrl.replaceAll("/+$", "") + "/donations");
+    }
+
+    @Override
+    public CompletableFuture<String> send(DonationEvent event) {
+        ObjectNode body = mapper.createObjectNode()
+                .put("donorId", event.getDonorId())
+                .put("description", "loadgen")
+                .put("quantity", event.getQuantity())
+                .put("lat", event.getLat())
+                .put("lon", event.getLon())
+                .put("timestamp", event.getTimestamp());
+        HttpRequest request = HttpRequest.newBuilder(donations)
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+                .build();
+        return client.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray()).thenApply(response -> {
+            if (response.statusCode() / 100 != 2) {
+                throw new IllegalStateException("POST /donations returned " + response.statusCode());
+            }
+            try {
+                JsonNode id = mapper.readTree(response.body()).get("id");
+                if (id == null || id.isNull()) {
+                    throw new IllegalStateException("POST /donations response has no id");
+                }
+                return id.asText();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    @Override
+    public void close() {
+        client.close();
+        executor.close();
+    }
+}
@@ -0,0 +1,66 @@
+package com.foodmatch.loadgen;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.foodmatch.matchingservice.codec.DonationEventBinaryCodec;
+import com.foodmatch.matchingservice.model.DonationEvent;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Publishes straight to donation.events, keyed by donorId, with the donor service's producer
+ * settings. Skips Mongo and the outbox relay, so the latency is the matching side's alone.
+ */
+final class KafkaDonationSink implements DonationSink {
+
+    private final KafkaProducer<String, byte[]> producer;
+    private final String topic;
+    private final boolean binary;
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    KafkaDonationSink(String bootstrapServers, String topic, String format) {
+        Map<String, Object> config = new HashMap<>();
+        config.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        config.put(ProducerConfig.LINGER_MS_CONFIG, 10);
+        config.put(ProducerConfig.BATCH_SIZE_CONFIG, 65536);
+        config.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, "lz4");
+        config.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        config.put(ProducerConfig.ACKS_CONFIG, "all");
+        this.producer = new KafkaProducer<>(config, new StringSerializer(), new ByteArraySerializer());
+        this.topic = topic;
+        this.binary = format.equals("binary");
+    }
+
+    @Override
+    public CompletableFuture<String> send(DonationEvent event) {
+        CompletableFuture<String> acked = new CompletableFuture<>();
+        byte[] value;
+        try {
+            value = binary ? DonationEventBinaryCodec.encode(event) : mapper.writeValueAsBytes(event);
+        } catch (JsonProcessingException e) {
+            acked.completeExceptionally(e);
+            return acked;
+        }
+        producer.send(new ProducerRecord<>(topic, event.getDonorId(), value), (metadata, e) -> {
+            if (e != null) {
+                acked.completeExceptionally(e);
+            } else {
+                acked.complete(event.getDonationId());
+            }
+        });
+        return acked;
+    }
+
+    @Override
+    public void close() {
+        producer.close(Duration.ofSeconds(10));
+    }
+}
@@ -0,0 +1,344 @@
+package com.foodmatch.loadgen;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.foodmatch.matchingservice.model.DonationEvent;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
+import org.HdrHistogram.Recorder;
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.admin.ConsumerGroupDescription;
+import org.apache.kafka.common.ConsumerGroupState;
+
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives the donor to matching pipeline at a scheduled rate and measures, per donation, the
+ * time until the broker or donor service accepted it and the time until its matched_donations
+ * row was visible. Both are measured from the intended send time, so they include any time the
+ * generator itself was held back by a slow pipeline.
+ *
+ *   java -jar target/loadgen.jar --embedded --schedule burst --rate 100 --duration 60
+ *   java -jar target/loadgen.jar --target http --distribution uniform --rate 50
+ *   java -jar target/loadgen.jar sweep ...   (see {@link ConcurrencySweep})
+ *
+ * Results go to results/&lt;label&gt;-&lt;timestamp&gt;/: HdrHistogram percentile distributions
+ * (send.hgrm, e2e.hgrm), per-second end-to-end intervals (e2e.hlog) and summary.txt.
+ */
+public final class LoadGenerator {
+
+    // The matching service's listener group; sending starts once it has members
+    static final String CONSUMER_GROUP = "matching-service-group";
+
+    private static final long MAX_MICROS = TimeUnit.HOURS.toMicros(1);
+
+    private final LoadOptions options;
+    private final Recorder sendLatency = new Recorder(MAX_MICROS, 3);
+    private final Recorder endToEnd = new Recorder(MAX_MICROS, 3);
+    private final Histogram sendTotal = new Histogram(MAX_MICROS, 3);
+    private final Histogram endToEndTotal = new Histogram(MAX_MICROS, 3);
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong acked = new AtomicLong();
+    private final AtomicLong sendErrors = new AtomicLong();
+    // Reporter thread only
+    private long lastSent;
+
+    private LoadGenerator(LoadOptions options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && (args[0].equals("--help") || args[0].equals("-h"))) {
+            System.out.print(LoadOptions.USAGE);
+            System.out.print(System.lineSeparator() + ConcurrencySweep.USAGE);
+            return;
+        }
+        if (args.length > 0 && args[0].equals("sweep")) {
+            int status = 0;
+            try {
+                ConcurrencySweep.main(Arrays.copyOfRange(args, 1, args.length));
+            } catch (Exception e) {
+                e.printStackTrace();
+                status = 1;
+            }
+            System.exit(status);
+        }
+        LoadOptions options;
+        try {
+            options = LoadOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.print(LoadOptions.USAGE);
+            System.exit(2);
+            return;
+        }
+
+        int status = 0;
+        EmbeddedStack stack = null;
+        try {
+            if (options.embedded) {
+                System.out.println("Starting embedded Kafka, Postgres, Redis and the matching service...");
+                stack = EmbeddedStack.start(options.topic, options.serviceProperties);
+                options.bootstrap = stack.bootstrapServers();
+                options.jdbcUrl = stack.jdbcUrl();
+                options.matchingUrl = stack.matchingUrl();
+            }
+            new LoadGenerator(options).run();
+        } catch (Exception e) {
+            e.printStackTrace();
+            status = 1;
+        } finally {
+            if (stack != null) {
+                stack.close();
+            }
+        }
+        // Kafka and Postgres clients, and the embedded service, leave non-daemon threads behind
+        System.exit(status);
+    }
+
+    static long toMicros(long nanos) {
+        return Math.min(MAX_MICROS, Math.max(0, nanos / 1000));
+    }
+
+    private void run() throws Exception {
+        if (options.ngosToSeed() > 0) {
+            seedNgos(options.ngosToSeed());
+        }
+        if (options.target.equals("kafka")) {
+            awaitConsumerGroup();
+        }
+
+        String stamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        Path dir = options.out.resolve(options.label + "-" + stamp);
+        Files.createDirectories(dir);
+        RateSchedule schedule = options.rateSchedule();
+        String description = String.format("%s%s, %s, %s, %ds", options.target,
+                options.target.equals("kafka") ? " (" + options.format + ")" : "",
+                options.distribution.name().toLowerCase(), schedule.describe(), options.durationSeconds);
+        System.out.println("Running " + description);
+
+        long runNanos;
+        try (PrintStream hlog = new PrintStream(Files.newOutputStream(dir.resolve("e2e.hlog")));
+             DonationSink sink = options.target.equals("kafka")
+                     ? new KafkaDonationSink(options.bootstrap, options.topic, options.format)
+                     : new HttpDonationSink(options.donorUrl);
+             MatchTracker tracker = new MatchTracker(options.jdbcUrl, options.jdbcUser, options.jdbcPassword,
+                     endToEnd, options.pollMs, options.matchTimeoutSeconds)) {
+            HistogramLogWriter log = new HistogramLogWriter(hlog);
+            long start = System.nanoTime();
+            log.outputLogFormatVersion();
+            log.outputStartTime(System.currentTimeMillis());
+            log.setBaseTime(System.currentTimeMillis());
+            log.outputLegend();
+            Thread reporter = Thread.ofPlatform().name("loadgen-report").daemon(true)
+                    .start(() -> reportLoop(start, tracker, log));
+
+            sendAll(sink, tracker, schedule, start);
+            runNanos = System.nanoTime() - start;
+            drain(tracker);
+
+            reporter.interrupt();
+            reporter.join();
+            report(start, tracker, log);
+            writeSummary(dir, description, runNanos, tracker);
+        }
+        System.out.println("Results written to " + dir.toAbsolutePath());
+    }
+
+    // Open loop: each donation is due at its scheduled time whatever happened to the previous ones
+    private void sendAll(DonationSink sink, MatchTracker tracker, RateSchedule schedule, long start)
+            throws InterruptedException {
+        Random random = new Random(options.seed);
+        Semaphore inFlight = new Semaphore(options.maxInFlight);
+        long end = TimeUnit.SECONDS.toNanos(options.durationSeconds);
+        for (long due = 0; due < end; due = schedule.next(due)) {
+            long intended = start + due;
+            for (long wait = intended - System.nanoTime(); wait > 0; wait = intended - System.nanoTime()) {
+                LockSupport.parkNanos(wait);
+            }
+            inFlight.acquire();
+            CompletableFuture<String> accepted;
+            try {
+                accepted = sink.send(nextDonation(random));
+            } catch (RuntimeException e) {
+                inFlight.release();
+                sendErrors.incrementAndGet();
+                continue;
+            }
+            sent.incrementAndGet();
+            accepted.whenComplete((donationId, e) -> {
+                inFlight.release();
+                if (e != null) {
+                    sendErrors.incrementAndGet();
+                    return;
+                }
+                sendLatency.recordValue(toMicros(System.nanoTime() - intended));
+                acked.incrementAndGet();
+                tracker.track(donationId, intended);
+            });
+        }
+        if (!inFlight.tryAcquire(options.maxInFlight, 30, TimeUnit.SECONDS)) {
+            System.out.println("Gave up waiting for " + (options.maxInFlight - inFlight.availablePermits())
+                    + " unacknowledged sends");
+        }
+    }
+
+    private DonationEvent nextDonation(Random random) {
+        double[] location = options.distribution.next(random);
+        DonationEvent event = new DonationEvent();
+        event.setDonationId(UUID.randomUUID().toString());
+        event.setDonorId("loadgen-donor-" + random.nextInt(options.donors));
+        event.setLat(location[0]);
+        event.setLon(location[1]);
+        event.setQuantity(1 + random.nextInt(20));
+        event.setTimestamp(Instant.now().toString());
+        return event;
+    }
+
+    private void drain(MatchTracker tracker) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(options.matchTimeoutSeconds + 5L);
+        while (tracker.pending() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(options.pollMs);
+        }
+    }
+
+    private void reportLoop(long start, MatchTracker tracker, HistogramLogWriter log) {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                Thread.sleep(1000);
+            } catch (InterruptedException e) {
+                return;
+            }
+            report(start, tracker, log);
+        }
+    }
+
+    private void report(long start, MatchTracker tracker, HistogramLogWriter log) {
+        Histogram send = sendLatency.getIntervalHistogram();
+        Histogram e2e = endToEnd.getIntervalHistogram();
+        sendTotal.add(send);
+        endToEndTotal.add(e2e);
+        log.outputIntervalHistogram(e2e);
+        long sentNow = sent.get();
+        System.out.printf("[%4ds] sent %d (+%d)  acked %d  matched %d  pending %d  ack p99 %s  e2e p50 %s p99 %s%n",
+                TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start), sentNow, sentNow - lastSent,
+                acked.get(), tracker.matched(), tracker.pending(),
+                millis(send, 99), millis(e2e, 50), millis(e2e, 99));
+        lastSent = sentNow;
+    }
+
+    private static String millis(Histogram histogram, double percentile) {
+        return histogram.getTotalCount() == 0 ? "-"
+                : String.format("%.1f ms", histogram.getValueAtPercentile(percentile) / 1000.0);
+    }
+
+    private void writeSummary(Path dir, String description, long runNanos, MatchTracker tracker) throws Exception {
+        try (PrintStream out = new PrintStream(Files.newOutputStream(dir.resolve("send.hgrm")))) {
+            sendTotal.outputPercentileDistribution(out, 1000.0);
+        }
+        try (PrintStream out = new PrintStream(Files.newOutputStream(dir.resolve("e2e.hgrm")))) {
+            endToEndTotal.outputPercentileDistribution(out, 1000.0);
+        }
+
+        List<String> lines = new ArrayList<>();
+        lines.add(description);
+        lines.add(String.format("sent %d (%.1f/s), send errors %d", sent.get(),
+                sent.get() * 1e9 / runNanos, sendErrors.get()));
+        lines.add(String.format("matched %d, unmatched %d (no row within %ds), still pending %d, poll errors %d",
+                tracker.matched(), tracker.unmatched(), options.matchTimeoutSeconds, tracker.pending(),
+                tracker.pollErrors()));
+        lines.add(String.format("%-12s %9s %9s %9s %9s %9s   (ms)", "", "p50", "p90", "p99", "p99.9", "max"));
+        lines.add(percentiles(options.target.equals("kafka") ? "broker ack" : "http 2xx", sendTotal));
+        lines.add(percentiles("end-to-end", endToEndTotal));
+        Files.write(dir.resolve("summary.txt"), lines);
+        System.out.println();
+        lines.forEach(System.out::println);
+    }
+
+    private static String percentiles(String name, Histogram histogram) {
+        if (histogram.getTotalCount() == 0) {
+            return String.format("%-12s %9s", name, "no samples");
+        }
+        return String.format("%-12s %9.1f %9.1f %9.1f %9.1f %9.1f", name,
+                histogram.getValueAtPercentile(50) / 1000.0, histogram.getValueAtPercentile(90) / 1000.0,
+                histogram.getValueAtPercentile(99) / 1000.0, histogram.getValueAtPercentile(99.9) / 1000.0,
+                histogram.getMaxValue() / 1000.0);
+    }
+
+    // Registers synthetic NGOs around the same cities as the donations; ones left by an earlier
+    // run (409) are kept as they are
+    private void seedNgos(int count) throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        Random random = new Random(options.seed + 1);
+        URI ngos = URI.create(options.matchingUrl.replaceAll("/+$", "") + "/ngos");
+        int created = 0;
+        try (HttpClient client = HttpClient.newHttpClient()) {
+            List<CompletableFuture<HttpResponse<Void>>> batch = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                double[] location = GeoDistribution.ngoLocation(random);
+                ObjectNode ngo = mapper.createObjectNode()
+                        .put("id", "loadgen-ngo-" + i)
+                        .put("name", "Loadgen NGO " + i)
+                        .put("lat", location[0])
+                        .put("lon", location[1])
+                        .put("address", "synthetic")
+                        .put("capacity", 500)
+                        .put("active", true);
+                batch.add(client.sendAsync(HttpRequest.newBuilder(ngos)
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(ngo.toString()))
+                        .build(), HttpResponse.BodyHandlers.discarding()));
+                if (batch.size() == 64 || i == count - 1) {
+                    for (CompletableFuture<HttpResponse<Void>> response : batch) {
+                        int status = response.join().statusCode();
+                        if (status == 201) {
+                            created++;
+                        } else if (status != 409) {
+                            throw new IllegalStateException("POST /ngos returned " + status);
+                        }
+                    }
+                    batch.clear();
+                }
+            }
+        }
+        System.out.printf("Seeded %d NGOs (%d new)%n", count, created);
+        // The matching index picks catalog changes up on its next reload (matching.ngo.reload-interval-ms)
+        Thread.sleep(2000);
+    }
+
+    private void awaitConsumerGroup() throws Exception {
+        try (Admin admin = Admin.create(Map.of(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, options.bootstrap))) {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(120);
+            while (System.nanoTime() < deadline) {
+                ConsumerGroupDescription group = admin.describeConsumerGroups(List.of(CONSUMER_GROUP))
+                        .describedGroups().get(CONSUMER_GROUP).get(10, TimeUnit.SECONDS);
+                if (group.state() == ConsumerGroupState.STABLE && !group.members().isEmpty()) {
+                    return;
+                }
+                Thread.sleep(500);
+            }
+        }
+        System.out.println("Consumer group " + CONSUMER_GROUP + " has no members yet; sending anyway");
+    }
+}
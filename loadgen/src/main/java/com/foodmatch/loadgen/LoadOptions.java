@@ -0,0 +1,167 @@
+package com.foodmatch.loadgen;
+
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Command-line options. Every option takes --name=value or --name value; --embedded is a flag.
+ * In embedded mode, --matching.* and --spring.* options are passed to the in-process service.
+ */
+final class LoadOptions {
+
+    static final String USAGE = """
+            Usage: java -jar target/loadgen.jar [options]
+
+              --target kafka|http        publish to donation.events, or POST /donations to the donor service (kafka)
+              --embedded                 start Kafka, Postgres, Redis and the matching service in-process (kafka only)
+              --distribution hotspot|uniform (hotspot)
+              --schedule steady|burst    (steady)
+              --rate N                   events per second outside bursts (200)
+              --duration N               seconds of load (60)
+              --burst-multiplier N       rate multiplier during a burst (10)
+              --burst-every N            seconds between burst starts (15)
+              --burst-length N           seconds each burst lasts (3)
+              --format json|binary       donation.events wire format for --target kafka (json)
+              --donors N                 distinct donorIds, which are also the record keys (1000)
+              --seed-ngos N              register N synthetic NGOs via POST /ngos first (0, 2000 when embedded)
+              --max-in-flight N          unacknowledged sends before the sender blocks (2000)
+              --poll-ms N                matched_donations poll interval, the e2e resolution (20)
+              --match-timeout N          seconds before a donation without a match row counts as unmatched (30)
+              --bootstrap HOSTS          (localhost:9092)
+              --topic NAME               (donation.events)
+              --donor-url URL            (http://localhost:8081)
+              --matching-url URL         (http://localhost:8082)
+              --jdbc-url URL             (jdbc:postgresql://localhost:5433/matching)
+              --jdbc-user NAME           (postgres)
+              --jdbc-password PASSWORD   (postgres)
+              --label NAME               results directory prefix (local)
+              --out DIR                  (results)
+              --seed N                   random seed (42)
+            """;
+
+    String target = "kafka";
+    boolean embedded;
+    GeoDistribution distribution = GeoDistribution.HOTSPOT;
+    String schedule = "steady";
+    double rate = 200;
+    int durationSeconds = 60;
+    double burstMultiplier = 10;
+    int burstEverySeconds = 15;
+    int burstLengthSeconds = 3;
+    String format = "json";
+    int donors = 1000;
+    Integer seedNgos;
+    int maxInFlight = 2000;
+    int pollMs = 20;
+    int matchTimeoutSeconds = 30;
+    String bootstrap = "localhost:9092";
+    String topic = "donation.events";
+    String donorUrl = "http://localhost:8081";
+    String matchingUrl = "http://localhost:8082";
+    String jdbcUrl = "jdbc:postgresql://localhost:5433/matching";
+    String jdbcUser = "postgres";
+    String jdbcPassword = "postgres";
+    String label = "local";
+    Path out = Path.of("results");
+    long seed = 42;
+    final Map<String, String> serviceProperties = new LinkedHashMap<>();
+
+    static LoadOptions parse(String[] args) {
+        LoadOptions options = new LoadOptions();
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument " + arg);
+            }
+            String name = arg.substring(2);
+            String value = null;
+            int eq = name.indexOf('=');
+            if (eq >= 0) {
+                value = name.substring(eq + 1);
+                name = name.substring(0, eq);
+            }
+            if (name.equals("embedded")) {
+                options.embedded = value == null || Boolean.parseBoolean(value);
+                continue;
+            }
+            if (value == null) {
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("Missing value for --" + name);
+                }
+                value = args[++i];
+            }
+            options.set(name, value);
+        }
+        options.validate();
+        return options;
+    }
+
+    private void set(String name, String value) {
+        switch (name) {
+            case "target" -> target = value;
+            case "distribution" -> distribution = GeoDistribution.valueOf(value.toUpperCase());
+            case "schedule" -> schedule = value;
+            case "rate" -> rate = Double.parseDouble(value);
+            case "duration" -> durationSeconds = Integer.parseInt(value);
+            case "burst-multiplier" -> burstMultiplier = Double.parseDouble(value);
+            case "burst-every" -> burstEverySeconds = Integer.parseInt(value);
+            case "burst-length" -> burstLengthSeconds = Integer.parseInt(value);
+            case "format" -> format = value;
+            case "donors" -> donors = Integer.parseInt(value);
+            case "seed-ngos" -> seedNgos = Integer.parseInt(value);
+            case "max-in-flight" -> maxInFlight = Integer.parseInt(value);
+            case "poll-ms" -> pollMs = Integer.parseInt(value);
+            case "match-timeout" -> matchTimeoutSeconds = Integer.parseInt(value);
+            case "bootstrap" -> bootstrap = value;
+            case "topic" -> topic = value;
+            case "donor-url" -> donorUrl = value;
+            case "matching-url" -> matchingUrl = value;
+            case "jdbc-url" -> jdbcUrl = value;
+            case "jdbc-user" -> jdbcUser = value;
+            case "jdbc-password" -> jdbcPassword = value;
+            case "label" -> label = value;
+            case "out" -> out = Path.of(value);
+            case "seed" -> seed = Long.parseLong(value);
+            default -> {
+                if (name.startsWith("matching.") || name.startsWith("spring.")) {
+                    serviceProperties.put(name, value);
+                } else {
+                    throw new IllegalArgumentException("Unknown option --" + name);
+                }
+            }
+        }
+    }
+
+    private void validate() {
+        if (!target.equals("kafka") && !target.equals("http")) {
+            throw new IllegalArgumentException("--target must be kafka or http");
+        }
+        if (embedded && target.equals("http")) {
+            // The donor service needs MongoDB, which has no in-process stand-in here
+            throw new IllegalArgumentException("--embedded only supports --target kafka");
+        }
+        if (!schedule.equals("steady") && !schedule.equals("burst")) {
+            throw new IllegalArgumentException("--schedule must be steady or burst");
+        }
+        if (!format.equals("json") && !format.equals("binary")) {
+            throw new IllegalArgumentException("--format must be json or binary");
+        }
+        if (rate <= 0 || durationSeconds <= 0 || donors <= 0 || maxInFlight <= 0 || pollMs <= 0) {
+            throw new IllegalArgumentException("--rate, --duration, --donors, --max-in-flight and --poll-ms must be positive");
+        }
+        if (!serviceProperties.isEmpty() && !embedded) {
+            throw new IllegalArgumentException("Service properties " + serviceProperties.keySet() + " need --embedded");
+        }
+    }
+
+    int ngosToSeed() {
+        return seedNgos != null ? seedNgos : embedded ? 2000 : 0;
+    }
+
+    RateSchedule rateSchedule() {
+        return schedule.equals("burst")
+                ? RateSchedule.burst(rate, burstMultiplier, burstEverySeconds, burstLengthSeconds)
+                : RateSchedule.steady(rate);
+    }
+}
@@ -0,0 +1,126 @@
+package com.foodmatch.loadgen;
+
+import org.HdrHistogram.Recorder;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Watches matched_donations for the donations that have been sent and records, for each, the
+ * time from its intended send time to the first poll that finds its row. Latency is therefore
+ * overstated by up to one poll interval plus one query.
+ *
+ * Donations with no NGO in range never get a row; they count as unmatched after the timeout.
+ */
+final class MatchTracker implements AutoCloseable {
+
+    private static final String FIND_MATCHED =
+            "select donation_id from matched_donations where donation_id = any(?)";
+    // Keeps each array parameter, and the index probe behind it, a reasonable size
+    private static final int IDS_PER_QUERY = 5000;
+
+    private final Map<String, Long> pending = new ConcurrentHashMap<>();
+    private final Recorder endToEnd;
+    private final Connection connection;
+    private final long pollMillis;
+    private final long timeoutNanos;
+    private final AtomicLong matched = new AtomicLong();
+    private final AtomicLong unmatched = new AtomicLong();
+    private final AtomicLong pollErrors = new AtomicLong();
+    private final Thread poller;
+    private volatile boolean running = true;
+
+    MatchTracker(String jdbcUrl, String user, String password, Recorder endToEnd,
+                 long pollMillis, long timeoutSeconds) throws SQLException {
+        this.connection = DriverManager.getConnection(jdbcUrl, user, password);
+        this.connection.setAutoCommit(true);
+        this.endToEnd = endToEnd;
+        this.pollMillis = pollMillis;
+        this.timeoutNanos = TimeUnit.SECONDS.toNanos(timeoutSeconds);
+        this.poller = Thread.ofPlatform().name("match-poller").daemon(true).start(this::pollLoop);
+    }
+
+    void track(String donationId, long intendedNanos) {
+        pending.put(donationId, intendedNanos);
+    }
+
+    int pending() {
+        return pending.size();
+    }
+
+    long matched() {
+        return matched.get();
+    }
+
+    long unmatched() {
+        return unmatched.get();
+    }
+
+    long pollErrors() {
+        return pollErrors.get();
+    }
+
+    private void pollLoop() {
+        while (running) {
+            try {
+                Thread.sleep(pollMillis);
+                poll();
+            } catch (InterruptedException e) {
+                return;
+            } catch (SQLException e) {
+                pollErrors.incrementAndGet();
+            }
+        }
+    }
+
+    private void poll() throws SQLException {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<String> ids = new ArrayList<>(pending.keySet());
+        long polledAt = System.nanoTime();
+        try (PreparedStatement statement = connection.prepareStatement(FIND_MATCHED)) {
+            for (int from = 0; from < ids.size(); from += IDS_PER_QUERY) {
+                List<String> chunk = ids.subList(from, Math.min(ids.size(), from + IDS_PER_QUERY));
+                statement.setArray(1, connection.createArrayOf("varchar", chunk.toArray()));
+                try (ResultSet rows = statement.executeQuery()) {
+                    while (rows.next()) {
+                        Long intended = pending.remove(rows.getString(1));
+                        if (intended != null) {
+                            endToEnd.recordValue(LoadGenerator.toMicros(polledAt - intended));
+                            matched.incrementAndGet();
+                        }
+                    }
+                }
+            }
+        }
+        for (Iterator<Map.Entry<String, Long>> it = pending.entrySet().iterator(); it.hasNext(); ) {
+            if (polledAt - it.next().getValue() > timeoutNanos) {
+                it.remove();
+                unmatched.incrementAndGet();
+            }
+        }
+    }
+
+    @Override
+    public void close() throws SQLException {
+        running = false;
+        poller.interrupt();
+        try {
+            poller.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        connection.close();
+    }
+}
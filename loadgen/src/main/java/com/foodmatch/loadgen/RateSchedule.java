@@ -0,0 +1,53 @@
+package com.foodmatch.loadgen;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * When each donation is due, relative to the start of the run. The sender is open-loop: it works
+ * from these intended times rather than from when the previous send finished, so a stalled
+ * pipeline shows up as latency instead of silently lowering the offered rate.
+ */
+final class RateSchedule {
+
+    private final double baseRate;
+    private final double burstRate;
+    private final long everyNanos;
+    private final long lengthNanos;
+
+    private RateSchedule(double baseRate, double burstRate, long everyNanos, long lengthNanos) {
+        this.baseRate = baseRate;
+        this.burstRate = burstRate;
+        this.everyNanos = everyNanos;
+        this.lengthNanos = lengthNanos;
+    }
+
+    static RateSchedule steady(double rate) {
+        return new RateSchedule(rate, rate, Long.MAX_VALUE, 0);
+    }
+
+    // multiplier x rate for the first lengthSeconds of every everySeconds, rate otherwise
+    static RateSchedule burst(double rate, double multiplier, int everySeconds, int lengthSeconds) {
+        if (everySeconds <= 0 || lengthSeconds < 0 || lengthSeconds > everySeconds) {
+            throw new IllegalArgumentException("Burst length must be between 0 and the burst interval");
+        }
+        return new RateSchedule(rate, rate * multiplier,
+                TimeUnit.SECONDS.toNanos(everySeconds), TimeUnit.SECONDS.toNanos(lengthSeconds));
+    }
+
+    double rateAt(long elapsedNanos) {
+        return elapsedNanos % everyNanos < lengthNanos ? burstRate : baseRate;
+    }
+
+    // Intended time of the event after the one due at elapsedNanos
+    long next(long elapsedNanos) {
+        return elapsedNanos + (long) (1e9 / rateAt(elapsedNanos));
+    }
+
+    String describe() {
+        if (lengthNanos == 0) {
+            return String.format("steady %.0f/s", baseRate);
+        }
+        return String.format("%.0f/s with %.0f/s bursts for %ds every %ds", baseRate, burstRate,
+                TimeUnit.NANOSECONDS.toSeconds(lengthNanos), TimeUnit.NANOSECONDS.toSeconds(everyNanos));
+    }
+}
@@ -0,0 +1,74 @@
+package com.foodmatch.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares two JMH JSON result files and exits with status 1 if any benchmark regressed by more
+ * than the threshold (default 10%). Throughput modes regress when the score drops, time modes
+ * when it rises. Benchmarks present in only one file are listed but never fail the run.
+ *
+ *   java -cp target/benchmarks.jar com.foodmatch.benchmarks.BenchmarkComparator baseline.json current.json [threshold%]
+ */
+public final class BenchmarkComparator {
+
+    private record Score(String mode, double score, double error, String unit) {
+    }
+
+    private BenchmarkComparator() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("usage: BenchmarkComparator <baseline.json> <current.json> [threshold%]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 10.0;
+        Map<String, Score> baseline = load(Path.of(args[0]));
+        Map<String, Score> current = load(Path.of(args[1]));
+
+        boolean regressed = false;
+        System.out.printf("%-90s %14s %14s %9s%n", "benchmark", "baseline", "current", "change");
+        for (Map.Entry<String, Score> entry : current.entrySet()) {
+            Score now = entry.getValue();
+            Score before = baseline.get(entry.getKey());
+            if (before == null) {
+                System.out.printf("%-90s %14s %14.3f %9s%n", entry.getKey(), "-", now.score(), "new");
+                continue;
+            }
+            double change = (now.score() - before.score()) / before.score() * 100.0;
+            // For throughput a drop is a regression, for time-per-op a rise is
+            double worse = now.mode().equals("thrpt") ? -change : change;
+            boolean flagged = worse > threshold;
+            regressed |= flagged;
+            System.out.printf("%-90s %14.3f %14.3f %+8.1f%%%s%n",
+                    entry.getKey(), before.score(), now.score(), change, flagged ? "  REGRESSION" : "");
+        }
+        for (String key : baseline.keySet()) {
+            if (!current.containsKey(key)) {
+                System.out.printf("%-90s %14.3f %14s %9s%n", key, baseline.get(key).score(), "-", "missing");
+            }
+        }
+        System.exit(regressed ? 1 : 0);
+    }
+
+    // Keyed by benchmark name plus its parameters, e.g. "...findNearestNgo{cacheState=COLD, ngoCount=1000}"
+    private static Map<String, Score> load(Path file) throws IOException {
+        Map<String, Score> scores = new LinkedHashMap<>();
+        for (JsonNode run : new ObjectMapper().readTree(file.toFile())) {
+            Map<String, String> params = new TreeMap<>();
+            run.path("params").properties().forEach(p -> params.put(p.getKey(), p.getValue().asText()));
+            String key = run.path("benchmark").asText() + (params.isEmpty() ? "" : params.toString());
+            JsonNode metric = run.path("primaryMetric");
+            scores.put(key, new Score(run.path("mode").asText(), metric.path("score").asDouble(),
+                    metric.path("scoreError").asDouble(), metric.path("scoreUnit").asText()));
+        }
+        return scores;
+    }
+}
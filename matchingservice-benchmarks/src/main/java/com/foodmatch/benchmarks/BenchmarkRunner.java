@@ -0,0 +1,45 @@
+package com.foodmatch.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+
+/**
+ * Runs JMH and always writes JSON results to results/&lt;label&gt;-&lt;timestamp&gt;.json, so runs from
+ * different releases can be diffed with {@link BenchmarkComparator}. Every other argument is
+ * passed to JMH unchanged.
+ *
+ *   java -cp target/benchmarks.jar com.foodmatch.benchmarks.BenchmarkRunner --label 0.0.1 FindNearestNgoBenchmark
+ */
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String label = "local";
+        if (args.length >= 2 && args[0].equals("--label")) {
+            label = args[1];
+            args = Arrays.copyOfRange(args, 2, args.length);
+        }
+        Path dir = Path.of("results");
+        Files.createDirectories(dir);
+        String stamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        Path output = dir.resolve(label + "-" + stamp + ".json");
+
+        CommandLineOptions cli = new CommandLineOptions(args);
+        new Runner(new OptionsBuilder()
+                .parent(cli)
+                .resultFormat(ResultFormatType.JSON)
+                .result(output.toString())
+                .build()).run();
+        System.out.println("Results written to " + output.toAbsolutePath());
+    }
+}
@@ -0,0 +1,78 @@
+package com.foodmatch.benchmarks;
+
+import com.foodmatch.matchingservice.geo.GridNgoIndex;
+import com.foodmatch.matchingservice.geo.NgoSpatialIndex;
+import com.foodmatch.matchingservice.model.DonationEvent;
+import com.foodmatch.matchingservice.model.Ngo;
+import com.foodmatch.matchingservice.service.CapacityAwareMatcher;
+import com.foodmatch.matchingservice.service.InMemoryCapacityLedger;
+import com.foodmatch.matchingservice.service.MatchingService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Many threads matching donations into the same hot area, all competing for the reservations
+ * of a handful of NGOs. Capacities are effectively unbounded so the ledger never fills and the
+ * CAS loops stay under contention for the whole run.
+ *
+ *   java -jar target/benchmarks.jar CapacityReservationBenchmark -t 16
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(16)
+public class CapacityReservationBenchmark {
+
+    // NGOs within reach of every donation in the hot area
+    @Param({"4", "32"})
+    public int hotNgos;
+
+    private NgoSpatialIndex index;
+    private CapacityAwareMatcher matcher;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        Random random = new Random(3L);
+        List<Ngo> ngos = new ArrayList<>(GeoFixtures.ngos(10_000, 5L));
+        for (int i = 0; i < hotNgos; i++) {
+            Ngo ngo = new Ngo("hot" + i, "Hot " + i,
+                    12.9716 + (random.nextDouble() - 0.5) * 0.02,
+                    77.5946 + (random.nextDouble() - 0.5) * 0.02, "hot area");
+            ngo.setCapacity(Integer.MAX_VALUE / 2);
+            ngo.setRating(1 + random.nextDouble() * 4);
+            ngos.add(ngo);
+        }
+        index = new GridNgoIndex(ngos, 0.02);
+        matcher = new CapacityAwareMatcher(new InMemoryCapacityLedger(), 0.6, 0.3, 0.1);
+    }
+
+    @Benchmark
+    public Ngo matchIntoHotArea() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        DonationEvent event = new DonationEvent();
+        event.setLat(12.9716 + (random.nextDouble() - 0.5) * 0.01);
+        event.setLon(77.5946 + (random.nextDouble() - 0.5) * 0.01);
+        event.setQuantity(1 + random.nextInt(20));
+        return matcher.match(event, index, MatchingService.MAX_MATCH_DISTANCE_KM);
+    }
+}
@@ -0,0 +1,88 @@
+package com.foodmatch.benchmarks;
+
+import com.foodmatch.matchingservice.geo.CellLookupTable;
+import com.foodmatch.matchingservice.geo.GridNgoIndex;
+import com.foodmatch.matchingservice.service.MatchingService;
+import com.foodmatch.matchingservice.model.Ngo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of keeping the precomputed cell table current, one shot per iteration:
+ *
+ *   build     - full build from the catalog (first start, or after large catalog changes)
+ *   restart   - map the saved table back and bind it to an unchanged catalog
+ *   moveOne   - incremental update after one NGO moved
+ *
+ *   java -jar target/benchmarks.jar CellLookupTableBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class CellLookupTableBenchmark {
+
+    @Param({"1000", "100000"})
+    public int ngoCount;
+
+    private List<Ngo> ngos;
+    private GridNgoIndex grid;
+    private CellLookupTable table;
+    private List<Ngo> moved;
+    private GridNgoIndex movedGrid;
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        ngos = GeoFixtures.ngos(ngoCount, 42);
+        grid = new GridNgoIndex(ngos, 0.02);
+        table = CellLookupTable.build(ngos, grid, 4, MatchingService.MAX_MATCH_DISTANCE_KM);
+        file = Files.createTempFile("ngo-cell-table", ".bin");
+        table.save(file);
+
+        moved = new ArrayList<>(ngos);
+        Ngo first = ngos.get(0);
+        moved.set(0, new Ngo(first.getId(), first.getName(), first.getLat() + 0.01, first.getLon(), first.getAddress()));
+        movedGrid = new GridNgoIndex(moved, 0.02);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public CellLookupTable build() {
+        return CellLookupTable.build(ngos, grid, 4, MatchingService.MAX_MATCH_DISTANCE_KM);
+    }
+
+    @Benchmark
+    public CellLookupTable restart() throws IOException {
+        return CellLookupTable.load(file).update(ngos, grid);
+    }
+
+    @Benchmark
+    public CellLookupTable moveOne() {
+        return table.update(moved, movedGrid);
+    }
+}
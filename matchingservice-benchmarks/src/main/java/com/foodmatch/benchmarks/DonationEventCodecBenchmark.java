@@ -0,0 +1,106 @@
+package com.foodmatch.benchmarks;
+
+import com.foodmatch.matchingservice.codec.DonationEventBinaryCodec;
+import com.foodmatch.matchingservice.codec.DonationEventDeserializer;
+import com.foodmatch.matchingservice.model.DonationEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.time.Instant;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decode and encode cost of one donation.events payload, JSON (the Spring Kafka serializers used
+ * before the binary codec) against the fixed binary layout. Average payload size is printed
+ * once per fork as "payload bytes/event".
+ *
+ *   java -jar target/benchmarks.jar DonationEventCodecBenchmark -prof gc
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DonationEventCodecBenchmark {
+
+    private static final int EVENT_COUNT = 1024;
+
+    public enum Format { JSON, BINARY }
+
+    @Param({"JSON", "BINARY"})
+    public Format format;
+
+    private DonationEvent[] events;
+    private byte[][] payloads;
+    private JsonSerializer<DonationEvent> jsonSerializer;
+    private DonationEventDeserializer deserializer;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        jsonSerializer = new JsonSerializer<>();
+        jsonSerializer.setAddTypeInfo(false);
+        deserializer = new DonationEventDeserializer();
+
+        SplittableRandom random = new SplittableRandom(7);
+        long now = Instant.parse("2025-08-05T10:00:00Z").toEpochMilli();
+        events = new DonationEvent[EVENT_COUNT];
+        payloads = new byte[EVENT_COUNT][];
+        long totalBytes = 0;
+        for (int i = 0; i < EVENT_COUNT; i++) {
+            DonationEvent event = new DonationEvent();
+            event.setDonationId(String.format("%024x", random.nextLong() & Long.MAX_VALUE));
+            event.setDonorId("donor-" + random.nextInt(10_000));
+            event.setLat(12.9 + random.nextDouble(0.2));
+            event.setLon(77.5 + random.nextDouble(0.2));
+            event.setQuantity(1 + random.nextInt(200));
+            // Same shape as the frontend's Date.toISOString()
+            event.setTimestamp(Instant.ofEpochMilli(now + random.nextInt(86_400_000)).toString());
+            if (event.getTimestamp().length() != 24) {
+                event.setTimestamp(event.getTimestamp().replace("Z", ".000Z"));
+            }
+            events[i] = event;
+            payloads[i] = encode(event);
+            totalBytes += payloads[i].length;
+        }
+        System.out.printf("%npayload bytes/event (%s): %.1f%n", format, (double) totalBytes / EVENT_COUNT);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        jsonSerializer.close();
+        deserializer.close();
+    }
+
+    private byte[] encode(DonationEvent event) {
+        return format == Format.BINARY
+                ? DonationEventBinaryCodec.encode(event)
+                : jsonSerializer.serialize("donation.events", event);
+    }
+
+    @Benchmark
+    public DonationEvent decode() {
+        int i = cursor++ & (EVENT_COUNT - 1);
+        return deserializer.deserialize("donation.events", payloads[i]);
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        int i = cursor++ & (EVENT_COUNT - 1);
+        return encode(events[i]);
+    }
+}
@@ -0,0 +1,106 @@
+package com.foodmatch.benchmarks;
+
+import com.foodmatch.matchingservice.model.DonationEvent;
+import com.foodmatch.matchingservice.model.Ngo;
+import com.foodmatch.matchingservice.service.MatchingService;
+import com.foodmatch.matchingservice.service.NgoCacheService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MatchingService.findNearestNgo through the real cache tiers, against an embedded Redis:
+ *
+ *   COLD      - the location key is cleared before every call: L1 miss, Redis miss, index search, write-back
+ *   WARM_L2   - L1 disabled (TTL 0), every call is a Redis GET
+ *   WARM_L1   - every call is an in-process near-cache hit
+ *   CELL_TABLE - matching.cell-table.enabled: every call is a precomputed table lookup
+ *
+ *   java -jar target/benchmarks.jar FindNearestNgoBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class FindNearestNgoBenchmark {
+
+    private static final int QUERY_COUNT = 1024;
+
+    public enum CacheState { COLD, WARM_L2, WARM_L1, CELL_TABLE }
+
+    @Param({"1000", "100000"})
+    public int ngoCount;
+
+    @Param({"COLD", "WARM_L2", "WARM_L1", "CELL_TABLE"})
+    public CacheState cacheState;
+
+    private MatchingContext context;
+    private MatchingService matchingService;
+    private NgoCacheService cacheService;
+    private DonationEvent[] events;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        List<Ngo> ngos = GeoFixtures.ngos(ngoCount, 42);
+        context = new MatchingContext(ngos, cacheState == CacheState.WARM_L2 ? 0 : 300);
+        matchingService = context.matchingService();
+        if (cacheState == CacheState.CELL_TABLE) {
+            context.installCellTable(ngos);
+        }
+        cacheService = context.cacheService();
+
+        double[][] queries = GeoFixtures.queries(QUERY_COUNT, 7);
+        events = new DonationEvent[QUERY_COUNT];
+        for (int i = 0; i < QUERY_COUNT; i++) {
+            DonationEvent event = new DonationEvent();
+            event.setDonationId("d" + i);
+            event.setLat(queries[i][0]);
+            event.setLon(queries[i][1]);
+            event.setQuantity(10);
+            events[i] = event;
+        }
+        if (cacheState != CacheState.COLD) {
+            for (DonationEvent event : events) {
+                matchingService.findNearestNgo(event);
+            }
+        }
+    }
+
+    // Per-invocation setup is acceptable here: a cold lookup costs tens of microseconds
+    @Setup(Level.Invocation)
+    public void evictNext() {
+        if (cacheState == CacheState.COLD) {
+            DonationEvent next = events[cursor];
+            cacheService.clearLocationCache(next.getLat(), next.getLon());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+    }
+
+    @Benchmark
+    public Ngo findNearestNgo() {
+        DonationEvent event = events[cursor];
+        cursor = (cursor + 1) & (QUERY_COUNT - 1);
+        return matchingService.findNearestNgo(event);
+    }
+}
@@ -0,0 +1,58 @@
+package com.foodmatch.benchmarks;
+
+import com.foodmatch.matchingservice.model.Ngo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Synthetic NGO catalogs and donation locations clustered around a handful of cities,
+ * so benchmarks see realistic density instead of points spread over the whole globe.
+ */
+final class GeoFixtures {
+
+    // Bangalore, Mumbai, Delhi, Chennai, Hyderabad
+    static final double[][] CITY_CENTERS = {
+            {12.9716, 77.5946},
+            {19.0760, 72.8777},
+            {28.7041, 77.1025},
+            {13.0827, 80.2707},
+            {17.3850, 78.4867}
+    };
+
+    // Roughly a 15 km standard deviation around each city center
+    private static final double CITY_SPREAD_DEG = 0.135;
+
+    private GeoFixtures() {}
+
+    static List<Ngo> ngos(int count, long seed) {
+        Random random = new Random(seed);
+        List<Ngo> ngos = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            double[] point = point(random);
+            Ngo ngo = new Ngo("ngo" + i, "NGO " + i, point[0], point[1], "synthetic");
+            ngo.setCapacity(100 + random.nextInt(400));
+            ngo.setRating(1 + random.nextDouble() * 4);
+            ngos.add(ngo);
+        }
+        return ngos;
+    }
+
+    static double[][] queries(int count, long seed) {
+        Random random = new Random(seed);
+        double[][] queries = new double[count][];
+        for (int i = 0; i < count; i++) {
+            queries[i] = point(random);
+        }
+        return queries;
+    }
+
+    private static double[] point(Random random) {
+        double[] city = CITY_CENTERS[random.nextInt(CITY_CENTERS.length)];
+        return new double[]{
+                city[0] + random.nextGaussian() * CITY_SPREAD_DEG,
+                city[1] + random.nextGaussian() * CITY_SPREAD_DEG
+        };
+    }
+}
@@ -0,0 +1,99 @@
+package com.foodmatch.benchmarks;
+
+import com.foodmatch.matchingservice.model.Ngo;
+import com.foodmatch.matchingservice.service.NgoCacheService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An L1 hit for a donation location, which is what almost every match does once warm:
+ *
+ *   stringKey - the previous scheme, "lat:lon" built from rounded doubles, looked up in Caffeine
+ *   cellKey   - NgoCacheService.locationCell + getCachedNgoLocation(long), the production path
+ *
+ * The point is the allocation column, so run it with the GC profiler:
+ *
+ *   java -jar target/benchmarks.jar LocationCacheKeyBenchmark -prof gc
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LocationCacheKeyBenchmark {
+
+    private static final int QUERY_COUNT = 1024;
+
+    private MatchingContext context;
+    private NgoCacheService cacheService;
+    private Cache<String, Ngo> stringCache;
+    private double[][] points;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        List<Ngo> ngos = GeoFixtures.ngos(QUERY_COUNT, 42);
+        context = new MatchingContext(ngos, 300);
+        cacheService = context.cacheService();
+        stringCache = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(Duration.ofMinutes(5))
+                .recordStats()
+                .build();
+
+        points = GeoFixtures.queries(QUERY_COUNT, 7);
+        for (int i = 0; i < QUERY_COUNT; i++) {
+            double[] p = points[i];
+            cacheService.cacheNgoLocation(cacheService.locationCell(p[0], p[1]), ngos.get(i));
+            stringCache.put(stringKey(p[0], p[1]), ngos.get(i));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+    }
+
+    // The key NgoCacheService built before LocationCell
+    private static String stringKey(double lat, double lon) {
+        double roundedLat = Math.round(lat * 100.0) / 100.0;
+        double roundedLon = Math.round(lon * 100.0) / 100.0;
+        return roundedLat + ":" + roundedLon;
+    }
+
+    private double[] next() {
+        double[] p = points[cursor];
+        cursor = (cursor + 1) & (QUERY_COUNT - 1);
+        return p;
+    }
+
+    @Benchmark
+    public Ngo stringKey() {
+        double[] p = next();
+        return stringCache.getIfPresent(stringKey(p[0], p[1]));
+    }
+
+    @Benchmark
+    public Ngo cellKey() {
+        double[] p = next();
+        return cacheService.getCachedNgoLocation(cacheService.locationCell(p[0], p[1]));
+    }
+}
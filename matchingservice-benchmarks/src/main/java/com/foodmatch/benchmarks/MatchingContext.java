@@ -0,0 +1,103 @@
+package com.foodmatch.benchmarks;
+
+import com.foodmatch.matchingservice.config.CapacityConfig;
+import com.foodmatch.matchingservice.config.RedisConfig;
+import com.foodmatch.matchingservice.geo.CellLookupTable;
+import com.foodmatch.matchingservice.geo.GridNgoIndex;
+import com.foodmatch.matchingservice.geo.NgoIndexType;
+import com.foodmatch.matchingservice.metrics.MatchingMetrics;
+import com.foodmatch.matchingservice.model.Ngo;
+import com.foodmatch.matchingservice.service.CapacityAwareMatcher;
+import com.foodmatch.matchingservice.service.MatchingService;
+import com.foodmatch.matchingservice.service.NgoCacheService;
+import com.foodmatch.matchingservice.service.NgoRegistryService;
+import com.foodmatch.matchingservice.service.RedisKeyScanner;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.net.ServerSocket;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The real MatchingService / NgoCacheService wiring against an embedded redis-server, without
+ * Kafka or JPA. Benchmarks get production cache code paths including the Redis round trip.
+ */
+final class MatchingContext implements AutoCloseable {
+
+    private final RedisServer redisServer;
+    private final AnnotationConfigApplicationContext context;
+
+    /**
+     * @param ngos         catalog loaded into the matching index
+     * @param l1TtlSeconds near-cache TTL; 0 makes every lookup fall through to Redis
+     */
+    MatchingContext(List<Ngo> ngos, long l1TtlSeconds) throws IOException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        redisServer = new RedisServer(port);
+        redisServer.start();
+
+        context = new AnnotationConfigApplicationContext();
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("benchmark", Map.of(
+                "matching.ngo.seed-defaults", "false",
+                "matching.cache.l1.max-size", "100000",
+                "matching.cache.l1.ttl-seconds", String.valueOf(l1TtlSeconds))));
+        LettuceConnectionFactory connectionFactory = new LettuceConnectionFactory("localhost", port);
+        context.registerBean(RedisConnectionFactory.class, () -> connectionFactory);
+        context.registerBean(StringRedisTemplate.class, () -> new StringRedisTemplate(connectionFactory));
+        context.registerBean(MeterRegistry.class, SimpleMeterRegistry::new);
+        context.register(RedisConfig.class, CapacityConfig.class, CapacityAwareMatcher.class, MatchingMetrics.class,
+                RedisKeyScanner.class, NgoRegistryService.class, NgoCacheService.class, MatchingService.class);
+        context.refresh();
+
+        // Loading 100k+ NGOs through the registry would dominate setup; install the index directly
+        setIndex(matchingService(), ngos);
+        cacheService().clearNgoCache();
+    }
+
+    MatchingService matchingService() {
+        return context.getBean(MatchingService.class);
+    }
+
+    NgoCacheService cacheService() {
+        return context.getBean(NgoCacheService.class);
+    }
+
+    // Serve findNearestNgo from a precomputed cell table, as with matching.cell-table.enabled
+    void installCellTable(List<Ngo> ngos) {
+        GridNgoIndex grid = (GridNgoIndex) matchingService().getNgoIndex();
+        setField(matchingService(), "cellTable",
+                CellLookupTable.build(ngos, grid, 4, MatchingService.MAX_MATCH_DISTANCE_KM));
+    }
+
+    private static void setIndex(MatchingService service, List<Ngo> ngos) {
+        setField(service, "ngoIndex", NgoIndexType.GRID.build(ngos, 0.02));
+    }
+
+    private static void setField(MatchingService service, String name, Object value) {
+        try {
+            Field field = MatchingService.class.getDeclaredField(name);
+            field.setAccessible(true);
+            field.set(service, value);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("MatchingService." + name + " not found", e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        context.close();
+        redisServer.stop();
+    }
+}
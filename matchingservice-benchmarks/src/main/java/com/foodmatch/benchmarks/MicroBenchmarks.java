@@ -0,0 +1,68 @@
+package com.foodmatch.benchmarks;
+
+import com.foodmatch.matchingservice.geo.GeoDistance;
+import com.foodmatch.matchingservice.service.NgoCacheService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-call primitives of the matching path: the distance functions (haversine moved from
+ * MatchingService to GeoDistance with the spatial index) and the location cache cell id.
+ *
+ *   java -jar target/benchmarks.jar MicroBenchmarks -prof gc
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MicroBenchmarks {
+
+    private static final int QUERY_COUNT = 1024;
+
+    private final NgoCacheService cacheService = new NgoCacheService();
+    private double[][] points;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        points = GeoFixtures.queries(QUERY_COUNT, 11);
+    }
+
+    private double[] next() {
+        double[] p = points[cursor];
+        cursor = (cursor + 1) & (QUERY_COUNT - 1);
+        return p;
+    }
+
+    @Benchmark
+    public double haversine() {
+        double[] a = next();
+        double[] b = points[(cursor + 17) & (QUERY_COUNT - 1)];
+        return GeoDistance.haversine(a[0], a[1], b[0], b[1]);
+    }
+
+    @Benchmark
+    public double equirectangular() {
+        double[] a = next();
+        double[] b = points[(cursor + 17) & (QUERY_COUNT - 1)];
+        return GeoDistance.equirectangular(a[0], a[1], b[0], b[1]);
+    }
+
+    @Benchmark
+    public long locationCell() {
+        double[] p = next();
+        return cacheService.locationCell(p[0], p[1]);
+    }
+}
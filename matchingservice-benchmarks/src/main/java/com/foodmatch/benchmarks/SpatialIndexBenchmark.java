@@ -0,0 +1,73 @@
+package com.foodmatch.benchmarks;
+
+import com.foodmatch.matchingservice.geo.NgoIndexType;
+import com.foodmatch.matchingservice.geo.NgoSpatialIndex;
+import com.foodmatch.matchingservice.model.Ngo;
+import com.foodmatch.matchingservice.service.MatchingService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Nearest-within-5km and range lookups: the original linear haversine scan against the grid index.
+ *
+ *   java -jar target/benchmarks.jar SpatialIndexBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class SpatialIndexBenchmark {
+
+    private static final int QUERY_COUNT = 4096;
+
+    @Param({"1000", "100000", "1000000"})
+    public int ngoCount;
+
+    @Param({"LINEAR", "GRID"})
+    public NgoIndexType indexType;
+
+    @Param({"0.02"})
+    public double cellSizeDeg;
+
+    private NgoSpatialIndex index;
+    private double[][] queries;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        index = indexType.build(GeoFixtures.ngos(ngoCount, 7L), cellSizeDeg);
+        queries = GeoFixtures.queries(QUERY_COUNT, 11L);
+    }
+
+    @Benchmark
+    public Ngo nearest() {
+        double[] q = next();
+        return index.nearest(q[0], q[1], MatchingService.MAX_MATCH_DISTANCE_KM);
+    }
+
+    @Benchmark
+    public List<Ngo> withinTwoKm() {
+        double[] q = next();
+        return index.withinRange(q[0], q[1], 2.0);
+    }
+
+    private double[] next() {
+        double[] q = queries[cursor];
+        cursor = (cursor + 1) & (QUERY_COUNT - 1);
+        return q;
+    }
+}
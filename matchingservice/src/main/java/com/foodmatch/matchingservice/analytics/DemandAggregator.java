@@ -0,0 +1,277 @@
+package com.foodmatch.matchingservice.analytics;
+
+import com.foodmatch.matchingservice.geo.LocationCell;
+import com.foodmatch.matchingservice.model.DonationEvent;
+import com.foodmatch.matchingservice.model.MatchedDonation;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Live demand and supply counters, kept up to date as donations are processed instead of being
+ * recomputed from matched_donations: per 0.01° location cell (donations, quantity, unmatched) and
+ * per NGO (matched donations and quantity), over the last 60 minutes and the last 24 hours.
+ * Reads walk the tracked cells or NGOs, never the table.
+ *
+ * Counts are by processing time and cover the partitions this replica consumes. Only newly
+ * inserted matches are counted, so redelivered matches are not double counted. A redelivered
+ * unmatched donation is dropped by the processor while its id is still among the recently
+ * processed ones, and only counted again after a restart or once the id has aged out.
+ *
+ * Cells and NGOs idle for more than 24 hours are evicted each snapshot interval. The counters are
+ * saved to a snapshot file periodically and on shutdown, and read back on startup, so a restart
+ * resumes with the current hour and day.
+ */
+@Service
+public class DemandAggregator {
+
+    private static final Logger log = LoggerFactory.getLogger(DemandAggregator.class);
+
+    private static final int MAGIC = 0x464D4441; // "FMDA"
+    private static final int VERSION = 1;
+
+    public record CellDemand(double lat, double lon, long donations, long quantity, long unmatched) {
+    }
+
+    public record NgoSupply(String ngoId, long donations, long quantity) {
+    }
+
+    public record Heatmap(String window, int last, Instant from, Instant to, double cellSizeDeg,
+                          long donations, long quantity, long unmatched, int cellCount, List<CellDemand> cells) {
+    }
+
+    public record Supply(String window, int last, Instant from, Instant to,
+                         long donations, long quantity, int ngoCount, List<NgoSupply> ngos) {
+    }
+
+    private final boolean enabled;
+    private final RollingCounterTable cells;
+    private final RollingCounterTable ngos;
+    private final String snapshotPath;
+
+    // NGO ids are counted under a dense ordinal; the list maps ordinals back to ids. Ordinals are
+    // never reused, so evicting an NGO's counters leaves its id in place for when it comes back.
+    private final Map<String, Integer> ngoOrdinals = new ConcurrentHashMap<>();
+    private final List<String> ngoIds = new CopyOnWriteArrayList<>();
+    private final ReentrantLock ngoIdLock = new ReentrantLock();
+
+    public DemandAggregator(@Value("${matching.analytics.enabled:true}") boolean enabled,
+                            @Value("${matching.analytics.stripes:32}") int stripes,
+                            @Value("${matching.analytics.max-cells:16384}") int maxCells,
+                            @Value("${matching.analytics.max-ngos:16384}") int maxNgos,
+                            @Value("${matching.analytics.snapshot-path:data/analytics-snapshot.bin}") String snapshotPath) {
+        this.enabled = enabled;
+        this.cells = new RollingCounterTable(stripes, maxCells);
+        this.ngos = new RollingCounterTable(stripes, maxNgos);
+        this.snapshotPath = snapshotPath;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void recordMatched(List<MatchedDonation> matches) {
+        if (!enabled || matches.isEmpty()) {
+            return;
+        }
+        int minute = currentMinute();
+        for (MatchedDonation match : matches) {
+            cells.add(LocationCell.of(match.getLat(), match.getLon()), minute, 1, match.getQuantity(), 0);
+            ngos.add(ngoOrdinal(match.getNgoId()), minute, 1, match.getQuantity(), 0);
+        }
+    }
+
+    public void recordUnmatched(List<DonationEvent> events) {
+        if (!enabled || events.isEmpty()) {
+            return;
+        }
+        int minute = currentMinute();
+        for (DonationEvent event : events) {
+            cells.add(LocationCell.of(event.getLat(), event.getLon()), minute, 1, event.getQuantity(), 1);
+        }
+    }
+
+    // Cells with donations in the last `last` minutes or hours, busiest first, at most limit of them.
+    // Totals cover every cell, not just the ones returned.
+    public Heatmap heatmap(RollingWindow window, int last, int limit) {
+        int span = checkSpan(window, last);
+        int current = window.bucketOf(currentMinute());
+        List<CellDemand> result = new ArrayList<>();
+        cells.forEach(window, current, span, (cell, donations, quantity, unmatched) ->
+                result.add(new CellDemand(LocationCell.lat(cell), LocationCell.lon(cell), donations, quantity, unmatched)));
+        long donations = 0;
+        long quantity = 0;
+        long unmatched = 0;
+        for (CellDemand cell : result) {
+            donations += cell.donations();
+            quantity += cell.quantity();
+            unmatched += cell.unmatched();
+        }
+        result.sort(Comparator.comparingLong(CellDemand::donations).reversed());
+        return new Heatmap(window.label(), span, Instant.ofEpochMilli(window.startMillis(current - span + 1)), Instant.now(),
+                LocationCell.CELL_SIZE_DEG, donations, quantity, unmatched, result.size(),
+                result.subList(0, Math.min(limit, result.size())));
+    }
+
+    // NGOs that received matches in the last `last` minutes or hours, most donations first
+    public Supply supply(RollingWindow window, int last, int limit) {
+        int span = checkSpan(window, last);
+        int current = window.bucketOf(currentMinute());
+        List<NgoSupply> result = new ArrayList<>();
+        ngos.forEach(window, current, span, (ordinal, donations, quantity, unmatched) ->
+                result.add(new NgoSupply(ngoIds.get((int) ordinal), donations, quantity)));
+        long donations = 0;
+        long quantity = 0;
+        for (NgoSupply ngo : result) {
+            donations += ngo.donations();
+            quantity += ngo.quantity();
+        }
+        result.sort(Comparator.comparingLong(NgoSupply::donations).reversed());
+        return new Supply(window.label(), span, Instant.ofEpochMilli(window.startMillis(current - span + 1)), Instant.now(),
+                donations, quantity, result.size(), result.subList(0, Math.min(limit, result.size())));
+    }
+
+    public int trackedCells() {
+        return cells.size();
+    }
+
+    public int trackedNgos() {
+        return ngos.size();
+    }
+
+    // Updates dropped because max-cells or max-ngos was reached
+    public long rejectedUpdates() {
+        return cells.rejectedCount() + ngos.rejectedCount();
+    }
+
+    @PostConstruct
+    void loadSnapshot() {
+        if (!enabled || snapshotPath.isBlank()) {
+            return;
+        }
+        Path path = Path.of(snapshotPath);
+        if (!Files.exists(path)) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 1 << 16))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("not an analytics snapshot");
+            }
+            long savedAt = in.readLong();
+            int ngoCount = in.readInt();
+            for (int i = 0; i < ngoCount; i++) {
+                ngoOrdinal(in.readUTF());
+            }
+            int minute = currentMinute();
+            cells.readFrom(in, minute);
+            ngos.readFrom(in, minute);
+            log.info("Resumed analytics from {}: {} cells, {} NGOs, saved {} s ago", path, cells.size(), ngos.size(),
+                    (System.currentTimeMillis() - savedAt) / 1000);
+        } catch (IOException e) {
+            log.warn("Ignoring analytics snapshot {}: {}", path, e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${matching.analytics.snapshot-interval-ms:60000}",
+            initialDelayString = "${matching.analytics.snapshot-interval-ms:60000}")
+    public void saveSnapshot() {
+        if (!enabled) {
+            return;
+        }
+        int minute = currentMinute();
+        int evicted = cells.evictStale(minute) + ngos.evictStale(minute);
+        if (evicted > 0) {
+            log.debug("Evicted {} analytics rows idle for over 24 h", evicted);
+        }
+        if (snapshotPath.isBlank()) {
+            return;
+        }
+        Path path = Path.of(snapshotPath);
+        try {
+            write(path, minute);
+        } catch (IOException e) {
+            log.warn("Could not save analytics snapshot to {}: {}", path, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void saveOnShutdown() {
+        saveSnapshot();
+    }
+
+    // Written to a sibling temp file and moved into place, so a crash mid-write keeps the last snapshot.
+    // NGO ids go first: an ordinal in the NGO counters may only refer to an id already written.
+    private void write(Path path, int minute) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path tmp = Files.createTempFile(parent, path.getFileName().toString(), ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(System.currentTimeMillis());
+            List<String> ids = List.copyOf(ngoIds);
+            out.writeInt(ids.size());
+            for (String id : ids) {
+                out.writeUTF(id);
+            }
+            cells.writeTo(out, minute);
+            ngos.writeTo(out, minute);
+        } catch (IOException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private int ngoOrdinal(String ngoId) {
+        Integer ordinal = ngoOrdinals.get(ngoId);
+        if (ordinal != null) {
+            return ordinal;
+        }
+        ngoIdLock.lock();
+        try {
+            ordinal = ngoOrdinals.get(ngoId);
+            if (ordinal == null) {
+                ordinal = ngoIds.size();
+                ngoIds.add(ngoId);
+                ngoOrdinals.put(ngoId, ordinal);
+            }
+            return ordinal;
+        } finally {
+            ngoIdLock.unlock();
+        }
+    }
+
+    private static int checkSpan(RollingWindow window, int last) {
+        if (last < 1 || last > window.buckets()) {
+            throw new IllegalArgumentException("last must be between 1 and " + window.buckets() + " for window "
+                    + window.label());
+        }
+        return last;
+    }
+
+    private static int currentMinute() {
+        return (int) (System.currentTimeMillis() / 60_000L);
+    }
+}
@@ -0,0 +1,348 @@
+package com.foodmatch.matchingservice.analytics;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Rolling counters per long key (a location cell or an NGO ordinal) in flat int arrays. Each key
+ * owns a row of 60 minute buckets followed by 24 hour buckets; a bucket is four ints: the minute or
+ * hour it counts, donations, quantity and unmatched.
+ *
+ * Keys are spread over lock stripes by hash. A stripe is an open-addressing index (linear probing)
+ * from key to row plus the rows themselves, so an update is one short critical section with no
+ * allocation and no boxing. A bucket still stamped with an earlier minute or hour is reset when it
+ * is next written and skipped by readers.
+ *
+ * A row whose newest hour bucket has left the 24 hour window is stale. Stale rows are compacted
+ * away by evictStale and whenever a stripe is full, so the table holds the keys seen in the last day
+ * rather than every key ever seen. Memory is about 1.3 KB per key. Past maxKeys live keys, new keys
+ * are counted as rejected and dropped.
+ */
+final class RollingCounterTable {
+
+    private static final int FIELDS = 4;
+    private static final int MINUTE_BUCKETS = RollingWindow.MINUTE.buckets();
+    private static final int HOUR_BUCKETS = RollingWindow.HOUR.buckets();
+    private static final int STRIDE = (MINUTE_BUCKETS + HOUR_BUCKETS) * FIELDS;
+    private static final int HOUR_OFFSET = MINUTE_BUCKETS * FIELDS;
+    // No cell packs to this (its latitude index would be Integer.MIN_VALUE) and ordinals are >= 0
+    private static final long EMPTY = Long.MIN_VALUE;
+    private static final int INITIAL_ROWS = 8;
+
+    @FunctionalInterface
+    interface Visitor {
+        void accept(long key, long donations, long quantity, long unmatched);
+    }
+
+    private static final class Stripe {
+        final ReentrantLock lock = new ReentrantLock();
+        long[] index = emptyIndex(INITIAL_ROWS * 2);
+        int[] rowOf = new int[INITIAL_ROWS * 2];
+        long[] rowKeys = new long[INITIAL_ROWS];
+        int[] data = new int[INITIAL_ROWS * STRIDE];
+        int rows;
+    }
+
+    private final Stripe[] stripes;
+    private final int stripeMask;
+    private final int maxRowsPerStripe;
+    private final LongAdder rejected = new LongAdder();
+
+    RollingCounterTable(int stripeCount, int maxKeys) {
+        int count = stripeCount <= 1 ? 1 : Integer.highestOneBit(stripeCount - 1) << 1;
+        this.stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new Stripe();
+        }
+        this.stripeMask = count - 1;
+        this.maxRowsPerStripe = Math.max(1, (maxKeys + count - 1) / count);
+    }
+
+    void add(long key, int minute, int donations, int quantity, int unmatched) {
+        long hash = mix(key);
+        Stripe stripe = stripes[(int) (hash >>> 32) & stripeMask];
+        stripe.lock.lock();
+        try {
+            int hour = RollingWindow.HOUR.bucketOf(minute);
+            int row = row(stripe, key, (int) hash, hour);
+            if (row < 0) {
+                rejected.increment();
+                return;
+            }
+            int base = row * STRIDE;
+            bump(stripe.data, base + Math.floorMod(minute, MINUTE_BUCKETS) * FIELDS, minute,
+                    donations, quantity, unmatched);
+            bump(stripe.data, base + HOUR_OFFSET + Math.floorMod(hour, HOUR_BUCKETS) * FIELDS, hour,
+                    donations, quantity, unmatched);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    // Sums each key's buckets for the `last` minutes or hours ending with `current` and visits the
+    // keys that had any donations. Holds one stripe lock at a time.
+    void forEach(RollingWindow window, int current, int last, Visitor visitor) {
+        int offset = window == RollingWindow.MINUTE ? 0 : HOUR_OFFSET;
+        int buckets = window.buckets();
+        int span = Math.min(last, buckets);
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                int[] data = stripe.data;
+                for (int row = 0; row < stripe.rows; row++) {
+                    long donations = 0;
+                    long quantity = 0;
+                    long unmatched = 0;
+                    int base = row * STRIDE + offset;
+                    for (int b = 0; b < buckets; b++) {
+                        int i = base + b * FIELDS;
+                        int age = current - data[i];
+                        if (age >= 0 && age < span) {
+                            donations += data[i + 1];
+                            quantity += data[i + 2];
+                            unmatched += data[i + 3];
+                        }
+                    }
+                    if (donations > 0) {
+                        visitor.accept(stripe.rowKeys[row], donations, quantity, unmatched);
+                    }
+                }
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+    }
+
+    int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                size += stripe.rows;
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    long rejectedCount() {
+        return rejected.sum();
+    }
+
+    // Drops the rows with nothing left in the last 24 hours as of `minute`; returns how many
+    int evictStale(int minute) {
+        int hour = RollingWindow.HOUR.bucketOf(minute);
+        int evicted = 0;
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                evicted += compact(stripe, hour);
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return evicted;
+    }
+
+    // Sections of (row count, then key and raw buckets per row), ended by -1. Each stripe's live rows
+    // are copied under its lock and written outside it. Bucket stamps travel with the counts, so
+    // whatever has aged out by the time the snapshot is read back is ignored like any other stale bucket.
+    void writeTo(DataOutputStream out, int minute) throws IOException {
+        int hour = RollingWindow.HOUR.bucketOf(minute);
+        out.writeInt(STRIDE);
+        for (Stripe stripe : stripes) {
+            long[] keys;
+            int[] data;
+            int live = 0;
+            stripe.lock.lock();
+            try {
+                keys = new long[stripe.rows];
+                data = new int[stripe.rows * STRIDE];
+                for (int row = 0; row < stripe.rows; row++) {
+                    if (!isStale(stripe.data, row * STRIDE, hour)) {
+                        keys[live] = stripe.rowKeys[row];
+                        System.arraycopy(stripe.data, row * STRIDE, data, live * STRIDE, STRIDE);
+                        live++;
+                    }
+                }
+            } finally {
+                stripe.lock.unlock();
+            }
+            out.writeInt(live);
+            for (int row = 0; row < live; row++) {
+                out.writeLong(keys[row]);
+                for (int i = row * STRIDE; i < (row + 1) * STRIDE; i++) {
+                    out.writeInt(data[i]);
+                }
+            }
+        }
+        out.writeInt(-1);
+    }
+
+    // Merges a snapshot in: a bucket for the same minute or hour adds up, a newer one replaces.
+    // Rows already stale as of `minute` are skipped.
+    void readFrom(DataInputStream in, int minute) throws IOException {
+        if (in.readInt() != STRIDE) {
+            throw new IOException("counter layout differs from this version");
+        }
+        int hour = RollingWindow.HOUR.bucketOf(minute);
+        int[] buckets = new int[STRIDE];
+        for (int rows = in.readInt(); rows >= 0; rows = in.readInt()) {
+            for (int r = 0; r < rows; r++) {
+                long key = in.readLong();
+                for (int i = 0; i < STRIDE; i++) {
+                    buckets[i] = in.readInt();
+                }
+                if (!isStale(buckets, 0, hour)) {
+                    merge(key, buckets, hour);
+                }
+            }
+        }
+    }
+
+    private void merge(long key, int[] buckets, int hour) {
+        long hash = mix(key);
+        Stripe stripe = stripes[(int) (hash >>> 32) & stripeMask];
+        stripe.lock.lock();
+        try {
+            int row = row(stripe, key, (int) hash, hour);
+            if (row < 0) {
+                rejected.increment();
+                return;
+            }
+            int base = row * STRIDE;
+            for (int i = 0; i < STRIDE; i += FIELDS) {
+                int stamp = stripe.data[base + i];
+                if (buckets[i] == stamp) {
+                    bump(stripe.data, base + i, stamp, buckets[i + 1], buckets[i + 2], buckets[i + 3]);
+                } else if (buckets[i] - stamp > 0) {
+                    System.arraycopy(buckets, i, stripe.data, base + i, FIELDS);
+                }
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    private static void bump(int[] data, int i, int stamp, int donations, int quantity, int unmatched) {
+        if (data[i] != stamp) {
+            data[i] = stamp;
+            data[i + 1] = 0;
+            data[i + 2] = 0;
+            data[i + 3] = 0;
+        }
+        data[i + 1] += donations;
+        data[i + 2] += quantity;
+        data[i + 3] += unmatched;
+    }
+
+    // Row of the key, added if new; -1 when the stripe is full even after evicting the rows that are
+    // stale as of `hour`. Caller holds the stripe lock.
+    private int row(Stripe stripe, long key, int hash, int hour) {
+        long[] index = stripe.index;
+        int mask = index.length - 1;
+        for (int i = hash & mask; ; i = (i + 1) & mask) {
+            if (index[i] == key) {
+                return stripe.rowOf[i];
+            }
+            if (index[i] == EMPTY) {
+                if (stripe.rows >= maxRowsPerStripe && compact(stripe, hour) == 0) {
+                    return -1;
+                }
+                return insert(stripe, key, hash);
+            }
+        }
+    }
+
+    // Moves the live rows down over the stale ones, zeroes the freed tail and rebuilds the index.
+    // Caller holds the stripe lock.
+    private static int compact(Stripe stripe, int hour) {
+        int live = 0;
+        for (int row = 0; row < stripe.rows; row++) {
+            if (isStale(stripe.data, row * STRIDE, hour)) {
+                continue;
+            }
+            if (live != row) {
+                stripe.rowKeys[live] = stripe.rowKeys[row];
+                System.arraycopy(stripe.data, row * STRIDE, stripe.data, live * STRIDE, STRIDE);
+            }
+            live++;
+        }
+        int evicted = stripe.rows - live;
+        if (evicted > 0) {
+            Arrays.fill(stripe.data, live * STRIDE, stripe.rows * STRIDE, 0);
+            stripe.rows = live;
+            rehash(stripe, stripe.index.length);
+        }
+        return evicted;
+    }
+
+    // True when no hour bucket of the row starting at `base` is within the 24 hours ending with `hour`
+    private static boolean isStale(int[] data, int base, int hour) {
+        for (int b = 0; b < HOUR_BUCKETS; b++) {
+            if (hour - data[base + HOUR_OFFSET + b * FIELDS] < HOUR_BUCKETS) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int insert(Stripe stripe, long key, int hash) {
+        int row = stripe.rows;
+        // Index stays at most half full, so probes stay short and always reach an empty slot
+        if ((row + 1) * 2 > stripe.index.length) {
+            rehash(stripe, stripe.index.length * 2);
+        }
+        if (row == stripe.rowKeys.length) {
+            int capacity = Math.min(Math.max(row * 2, INITIAL_ROWS), maxRowsPerStripe);
+            stripe.rowKeys = Arrays.copyOf(stripe.rowKeys, capacity);
+            stripe.data = Arrays.copyOf(stripe.data, capacity * STRIDE);
+        }
+        place(stripe.index, stripe.rowOf, key, hash, row);
+        stripe.rowKeys[row] = key;
+        stripe.rows = row + 1;
+        return row;
+    }
+
+    private static void rehash(Stripe stripe, int slots) {
+        long[] index = emptyIndex(slots);
+        int[] rowOf = new int[slots];
+        for (int row = 0; row < stripe.rows; row++) {
+            long key = stripe.rowKeys[row];
+            place(index, rowOf, key, (int) mix(key), row);
+        }
+        stripe.index = index;
+        stripe.rowOf = rowOf;
+    }
+
+    private static void place(long[] index, int[] rowOf, long key, int hash, int row) {
+        int mask = index.length - 1;
+        int i = hash & mask;
+        while (index[i] != EMPTY) {
+            i = (i + 1) & mask;
+        }
+        index[i] = key;
+        rowOf[i] = row;
+    }
+
+    private static long[] emptyIndex(int slots) {
+        long[] index = new long[slots];
+        Arrays.fill(index, EMPTY);
+        return index;
+    }
+
+    // Finalizer from MurmurHash3: neighbouring cells land in unrelated stripes and slots
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
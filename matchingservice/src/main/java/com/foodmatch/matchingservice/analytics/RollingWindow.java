@@ -0,0 +1,46 @@
+package com.foodmatch.matchingservice.analytics;
+
+import java.util.Locale;
+
+/**
+ * Bucket sizes of the rolling counters: the last 60 one-minute buckets and the last 24 one-hour
+ * buckets. Buckets are numbered by minutes or hours since the epoch.
+ */
+public enum RollingWindow {
+    MINUTE(60, 1),
+    HOUR(24, 60);
+
+    private final int buckets;
+    private final int minutesPerBucket;
+
+    RollingWindow(int buckets, int minutesPerBucket) {
+        this.buckets = buckets;
+        this.minutesPerBucket = minutesPerBucket;
+    }
+
+    public int buckets() {
+        return buckets;
+    }
+
+    // Bucket number holding the given minute since the epoch
+    public int bucketOf(int minute) {
+        return Math.floorDiv(minute, minutesPerBucket);
+    }
+
+    // Start of a bucket, in epoch milliseconds
+    public long startMillis(int bucket) {
+        return bucket * (long) minutesPerBucket * 60_000L;
+    }
+
+    public String label() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    public static RollingWindow parse(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("window must be minute or hour, not " + value);
+        }
+    }
+}
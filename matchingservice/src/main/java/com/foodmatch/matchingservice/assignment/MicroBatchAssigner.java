@@ -0,0 +1,263 @@
+package com.foodmatch.matchingservice.assignment;
+
+import com.foodmatch.matchingservice.geo.NgoSpatialIndex;
+import com.foodmatch.matchingservice.model.DonationEvent;
+import com.foodmatch.matchingservice.model.MatchedDonation;
+import com.foodmatch.matchingservice.model.Ngo;
+import com.foodmatch.matchingservice.service.CapacityAwareMatcher;
+import com.foodmatch.matchingservice.service.CapacityLedger;
+import com.foodmatch.matchingservice.service.DonationMatchProcessor;
+import com.foodmatch.matchingservice.service.MatchingService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Windowed global assignment for donation bursts.
+ *
+ * Listeners hand their events to submit() and wait on the returned future. Events are buffered
+ * until the window elapses or maxBatch events are waiting, then split into geographic shards
+ * that are solved in parallel with {@link ShardAssignmentSolver}. Each assignment is confirmed
+ * by reserving its quantity in the capacity ledger; a donation whose reservation loses a race
+ * falls back to the best remaining candidate in range, reserved against the same ledger, and is
+ * left unmatched when none has room. Because the listener blocks until its matches are
+ * returned, offsets are still only committed after the matches are written.
+ *
+ * Assignment needs the batch or parallel listener so that one window collects many events;
+ * startup fails when it is enabled together with the single-record listener.
+ *
+ * The window timer runs on its own thread rather than the shared @Scheduled pool, so a slow
+ * cache reload or snapshot cannot hold back listeners waiting on the window. If a flush fails,
+ * every reservation it made is released before the waiting listeners see the error.
+ */
+@Service
+public class MicroBatchAssigner {
+
+    private static final Logger log = LoggerFactory.getLogger(MicroBatchAssigner.class);
+
+    private final MatchingService matchingService;
+    private final CapacityAwareMatcher fallbackMatcher;
+    private final CapacityLedger ledger;
+
+    @Value("${matching.assignment.enabled:false}")
+    private boolean enabled;
+
+    @Value("${matching.assignment.window-ms:500}")
+    private long windowMs;
+
+    @Value("${matching.listener.mode:single}")
+    private String listenerMode;
+
+    @Value("${matching.assignment.max-batch:256}")
+    private int maxBatch;
+
+    // Shard edge in degrees (0.1° ≈ 11 km); each shard is solved independently
+    @Value("${matching.assignment.shard-size-deg:0.1}")
+    private double shardSizeDeg;
+
+    // Upper bound on donations per solve, so solve latency stays flat as bursts grow
+    @Value("${matching.assignment.max-shard-size:200}")
+    private int maxShardSize;
+
+    private final ExecutorService solverPool;
+    private final ScheduledExecutorService windowTimer = Executors.newSingleThreadScheduledExecutor(
+            runnable -> Thread.ofPlatform().name("assignment-window").daemon(true).unstarted(runnable));
+    private final ReentrantLock lock = new ReentrantLock();
+    private List<Pending> pending = new ArrayList<>();
+    private int pendingEvents;
+
+    public MicroBatchAssigner(MatchingService matchingService, CapacityAwareMatcher fallbackMatcher,
+                              @Value("${matching.assignment.parallelism:0}") int parallelism) {
+        this.matchingService = matchingService;
+        this.fallbackMatcher = fallbackMatcher;
+        this.ledger = fallbackMatcher.getLedger();
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.solverPool = Executors.newFixedThreadPool(threads);
+    }
+
+    @PostConstruct
+    void startWindowTimer() {
+        // A single-record listener waits out a whole window per event, capping throughput at
+        // 1000 / window-ms events per second
+        if (enabled && "single".equals(listenerMode)) {
+            throw new IllegalStateException("matching.assignment.enabled=true requires "
+                    + "matching.listener.mode=batch or parallel, not single");
+        }
+        if (enabled) {
+            windowTimer.scheduleWithFixedDelay(this::flushQuietly, windowMs, windowMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public CompletableFuture<List<MatchedDonation>> submit(List<DonationEvent> events) {
+        Pending request = new Pending(events, new CompletableFuture<>());
+        boolean full;
+        lock.lock();
+        try {
+            pending.add(request);
+            pendingEvents += events.size();
+            full = pendingEvents >= maxBatch;
+        } finally {
+            lock.unlock();
+        }
+        // Flush on the caller's thread: it is about to wait for the result anyway, and solver
+        // threads must stay free for the shard solves the flush fans out
+        if (full) {
+            flush();
+        }
+        return request.result();
+    }
+
+    // An exception escaping a scheduleWithFixedDelay task would cancel every later window
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Assignment window flush failed", e);
+        }
+    }
+
+    public void flush() {
+        List<Pending> batch;
+        lock.lock();
+        try {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = pending;
+            pending = new ArrayList<>();
+            pendingEvents = 0;
+        } finally {
+            lock.unlock();
+        }
+
+        try {
+            Map<String, Ngo> assigned = assign(batch);
+            for (Pending request : batch) {
+                List<MatchedDonation> matches = new ArrayList<>();
+                for (DonationEvent event : request.events()) {
+                    Ngo ngo = assigned.get(event.getDonationId());
+                    if (ngo != null) {
+                        matches.add(DonationMatchProcessor.toMatchedDonation(event, ngo));
+                    }
+                }
+                request.result().complete(matches);
+            }
+        } catch (Exception e) {
+            batch.forEach(request -> request.result().completeExceptionally(e));
+        }
+    }
+
+    private Map<String, Ngo> assign(List<Pending> batch) {
+        Map<Long, List<DonationEvent>> shards = new HashMap<>();
+        for (Pending request : batch) {
+            for (DonationEvent event : request.events()) {
+                shards.computeIfAbsent(shardKey(event), key -> new ArrayList<>()).add(event);
+            }
+        }
+
+        NgoSpatialIndex index = matchingService.getNgoIndex();
+        List<CompletableFuture<Map<String, Ngo>>> solves = new ArrayList<>();
+        for (List<DonationEvent> shard : shards.values()) {
+            for (int from = 0; from < shard.size(); from += maxShardSize) {
+                List<DonationEvent> chunk = shard.subList(from, Math.min(shard.size(), from + maxShardSize));
+                solves.add(CompletableFuture.supplyAsync(() -> solveAndReserve(chunk, index), solverPool));
+            }
+        }
+
+        // Join every solve, even after one fails, so all reservations are known before giving up
+        Map<String, Ngo> assigned = new HashMap<>();
+        RuntimeException failure = null;
+        for (CompletableFuture<Map<String, Ngo>> solve : solves) {
+            try {
+                assigned.putAll(solve.join());
+            } catch (RuntimeException e) {
+                failure = failure == null ? e : failure;
+            }
+        }
+        if (failure != null) {
+            for (Pending request : batch) {
+                releaseReserved(assigned, request.events());
+            }
+            throw failure;
+        }
+        return assigned;
+    }
+
+    private Map<String, Ngo> solveAndReserve(List<DonationEvent> donations, NgoSpatialIndex index) {
+        Ngo[] assignment = ShardAssignmentSolver.solve(donations, index, ledger, MatchingService.MAX_MATCH_DISTANCE_KM);
+        Map<String, Ngo> result = new HashMap<>();
+        try {
+            for (int i = 0; i < assignment.length; i++) {
+                DonationEvent donation = donations.get(i);
+                Ngo ngo = assignment[i];
+                if (ngo != null && ngo.getCapacity() > 0
+                        && !ledger.tryReserve(ngo.getId(), ngo.getCapacity(), donation.getQuantity())) {
+                    // Not matchDonation: the nearest engine would hand out an NGO without checking capacity
+                    ngo = fallbackMatcher.match(donation, index, MatchingService.MAX_MATCH_DISTANCE_KM);
+                }
+                if (ngo != null) {
+                    result.put(donation.getDonationId(), ngo);
+                }
+            }
+        } catch (RuntimeException e) {
+            releaseReserved(result, donations);
+            throw e;
+        }
+        return result;
+    }
+
+    // Undo the reservations behind assignments that will never be returned. NGOs without a
+    // capacity limit were never reserved against.
+    private void releaseReserved(Map<String, Ngo> assigned, List<DonationEvent> donations) {
+        for (DonationEvent donation : donations) {
+            Ngo ngo = assigned.get(donation.getDonationId());
+            if (ngo == null || ngo.getCapacity() <= 0) {
+                continue;
+            }
+            try {
+                ledger.release(ngo.getId(), donation.getQuantity());
+            } catch (RuntimeException e) {
+                log.warn("Could not release {} reserved at NGO {}: {}", donation.getQuantity(), ngo.getId(), e.getMessage());
+            }
+        }
+    }
+
+    // Hand back a reservation made by solveAndReserve for a match that was not kept
+    public void release(String ngoId, int quantity) {
+        ledger.release(ngoId, quantity);
+    }
+
+    private long shardKey(DonationEvent event) {
+        long row = (long) Math.floor(event.getLat() / shardSizeDeg);
+        long col = (long) Math.floor(event.getLon() / shardSizeDeg);
+        return (row << 32) | (col & 0xffffffffL);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        windowTimer.shutdown();
+        flush();
+        solverPool.shutdown();
+    }
+
+    private record Pending(List<DonationEvent> events, CompletableFuture<List<MatchedDonation>> result) {
+    }
+}
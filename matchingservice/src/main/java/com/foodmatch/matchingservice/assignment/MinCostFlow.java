@@ -0,0 +1,115 @@
+package com.foodmatch.matchingservice.assignment;
+
+import java.util.Arrays;
+import java.util.PriorityQueue;
+
+/**
+ * Min-cost max-flow by successive shortest paths, Dijkstra with Johnson potentials.
+ * Edge costs must be non-negative. Edges are stored in flat arrays; edge e and e ^ 1 are a
+ * forward/residual pair.
+ */
+public class MinCostFlow {
+
+    private static final long INF = Long.MAX_VALUE / 4;
+
+    private final int nodeCount;
+    private final int[] head;
+    private int[] next = new int[16];
+    private int[] to = new int[16];
+    private int[] capacity = new int[16];
+    private int[] originalCapacity = new int[16];
+    private long[] cost = new long[16];
+    private int edgeCount;
+
+    public MinCostFlow(int nodeCount) {
+        this.nodeCount = nodeCount;
+        this.head = new int[nodeCount];
+        Arrays.fill(head, -1);
+    }
+
+    // Returns the id of the forward edge, usable with flow(edge)
+    public int addEdge(int from, int target, int cap, long edgeCost) {
+        int edge = edgeCount;
+        append(from, target, cap, edgeCost);
+        append(target, from, 0, -edgeCost);
+        return edge;
+    }
+
+    public int flow(int edge) {
+        return originalCapacity[edge] - capacity[edge];
+    }
+
+    // Pushes as much flow as possible from source to sink at minimum total cost; returns {flow, cost}
+    public long[] solve(int source, int sink) {
+        long[] potential = new long[nodeCount];
+        long[] dist = new long[nodeCount];
+        int[] prevEdge = new int[nodeCount];
+        long totalFlow = 0;
+        long totalCost = 0;
+
+        while (true) {
+            Arrays.fill(dist, INF);
+            Arrays.fill(prevEdge, -1);
+            dist[source] = 0;
+            PriorityQueue<long[]> queue = new PriorityQueue<>((a, b) -> Long.compare(a[0], b[0]));
+            queue.add(new long[]{0, source});
+            while (!queue.isEmpty()) {
+                long[] top = queue.poll();
+                int node = (int) top[1];
+                if (top[0] > dist[node]) {
+                    continue;
+                }
+                for (int e = head[node]; e != -1; e = next[e]) {
+                    if (capacity[e] == 0) {
+                        continue;
+                    }
+                    int target = to[e];
+                    long candidate = dist[node] + cost[e] + potential[node] - potential[target];
+                    if (candidate < dist[target]) {
+                        dist[target] = candidate;
+                        prevEdge[target] = e;
+                        queue.add(new long[]{candidate, target});
+                    }
+                }
+            }
+            if (dist[sink] == INF) {
+                break;
+            }
+            for (int v = 0; v < nodeCount; v++) {
+                if (dist[v] < INF) {
+                    potential[v] += dist[v];
+                }
+            }
+
+            int push = Integer.MAX_VALUE;
+            for (int v = sink; v != source; v = to[prevEdge[v] ^ 1]) {
+                push = Math.min(push, capacity[prevEdge[v]]);
+            }
+            for (int v = sink; v != source; v = to[prevEdge[v] ^ 1]) {
+                capacity[prevEdge[v]] -= push;
+                capacity[prevEdge[v] ^ 1] += push;
+                totalCost += (long) push * cost[prevEdge[v]];
+            }
+            totalFlow += push;
+        }
+        return new long[]{totalFlow, totalCost};
+    }
+
+    private void append(int from, int target, int cap, long edgeCost) {
+        if (edgeCount == to.length) {
+            int size = edgeCount * 2;
+            next = Arrays.copyOf(next, size);
+            to = Arrays.copyOf(to, size);
+            capacity = Arrays.copyOf(capacity, size);
+            originalCapacity = Arrays.copyOf(originalCapacity, size);
+            cost = Arrays.copyOf(cost, size);
+        }
+        to[edgeCount] = target;
+        capacity[edgeCount] = cap;
+        originalCapacity[edgeCount] = cap;
+        cost[edgeCount] = edgeCost;
+        next[edgeCount] = head[from];
+        head[from] = edgeCount;
+        edgeCount++;
+    }
+}
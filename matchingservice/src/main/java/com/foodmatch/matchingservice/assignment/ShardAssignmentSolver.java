@@ -0,0 +1,104 @@
+package com.foodmatch.matchingservice.assignment;
+
+import com.foodmatch.matchingservice.geo.GeoDistance;
+import com.foodmatch.matchingservice.geo.NgoSpatialIndex;
+import com.foodmatch.matchingservice.model.DonationEvent;
+import com.foodmatch.matchingservice.model.Ngo;
+import com.foodmatch.matchingservice.service.CapacityLedger;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Global assignment for one geographic shard of a micro-batch.
+ *
+ * Builds source -> donation (cap 1) -> NGO (cap 1, cost = distance in metres) -> sink
+ * (cap = donations the NGO can still take) and solves min-cost max-flow: as many donations as
+ * possible get an NGO, and among those assignments total travel distance is minimal.
+ * NGO slots are estimated from remaining capacity and the batch's mean quantity; the caller
+ * still reserves real quantities against the ledger when it emits the result.
+ */
+public final class ShardAssignmentSolver {
+
+    private ShardAssignmentSolver() {}
+
+    // Returns the assigned NGO per donation (same order), or null where none was assigned
+    public static Ngo[] solve(List<DonationEvent> donations, NgoSpatialIndex index,
+                              CapacityLedger ledger, double maxKm) {
+        int n = donations.size();
+        Map<String, Integer> ngoSlots = new LinkedHashMap<>();
+        List<Ngo> ngos = new ArrayList<>();
+        List<List<Integer>> candidates = new ArrayList<>(n);
+        long quantity = 0;
+
+        for (DonationEvent donation : donations) {
+            quantity += Math.max(1, donation.getQuantity());
+            List<Integer> reachable = new ArrayList<>();
+            for (Ngo ngo : index.withinRange(donation.getLat(), donation.getLon(), maxKm)) {
+                if (!ngo.isActive()
+                        || GeoDistance.haversine(donation.getLat(), donation.getLon(), ngo.getLat(), ngo.getLon()) >= maxKm) {
+                    continue;
+                }
+                Integer slot = ngoSlots.get(ngo.getId());
+                if (slot == null) {
+                    slot = ngos.size();
+                    ngoSlots.put(ngo.getId(), slot);
+                    ngos.add(ngo);
+                }
+                reachable.add(slot);
+            }
+            candidates.add(reachable);
+        }
+
+        Ngo[] assignment = new Ngo[n];
+        if (ngos.isEmpty()) {
+            return assignment;
+        }
+
+        int m = ngos.size();
+        int[] reserved = ledger.reserved(new ArrayList<>(ngoSlots.keySet()));
+        long meanQuantity = Math.max(1, quantity / n);
+
+        int source = 0;
+        int sink = n + m + 1;
+        MinCostFlow flow = new MinCostFlow(n + m + 2);
+        for (int j = 0; j < m; j++) {
+            Ngo ngo = ngos.get(j);
+            int slots = ngo.getCapacity() <= 0
+                    ? n
+                    : (int) Math.min(n, Math.max(0, ngo.getCapacity() - reserved[j]) / meanQuantity);
+            if (slots > 0) {
+                flow.addEdge(n + 1 + j, sink, slots, 0);
+            }
+        }
+
+        int[][] edges = new int[n][];
+        for (int i = 0; i < n; i++) {
+            DonationEvent donation = donations.get(i);
+            flow.addEdge(source, i + 1, 1, 0);
+            List<Integer> reachable = candidates.get(i);
+            edges[i] = new int[reachable.size()];
+            for (int k = 0; k < reachable.size(); k++) {
+                Ngo ngo = ngos.get(reachable.get(k));
+                long metres = Math.round(1000 * GeoDistance.haversine(
+                        donation.getLat(), donation.getLon(), ngo.getLat(), ngo.getLon()));
+                edges[i][k] = flow.addEdge(i + 1, n + 1 + reachable.get(k), 1, metres);
+            }
+        }
+
+        flow.solve(source, sink);
+
+        for (int i = 0; i < n; i++) {
+            List<Integer> reachable = candidates.get(i);
+            for (int k = 0; k < edges[i].length; k++) {
+                if (flow.flow(edges[i][k]) > 0) {
+                    assignment[i] = ngos.get(reachable.get(k));
+                    break;
+                }
+            }
+        }
+        return assignment;
+    }
+}
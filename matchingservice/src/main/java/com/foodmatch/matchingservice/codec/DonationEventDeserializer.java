@@ -0,0 +1,50 @@
+package com.foodmatch.matchingservice.codec;
+
+import com.foodmatch.matchingservice.model.DonationEvent;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.util.Map;
+
+/**
+ * Reads both wire formats of {@code donation.events}: payloads starting with the binary magic byte
+ * go through {@link DonationEventBinaryCodec}, everything else through the JSON deserializer, so
+ * producers can switch formats without a coordinated consumer deploy.
+ */
+public class DonationEventDeserializer implements Deserializer<DonationEvent> {
+
+    private final JsonDeserializer<DonationEvent> json;
+
+    public DonationEventDeserializer() {
+        this.json = new JsonDeserializer<>(DonationEvent.class);
+        this.json.addTrustedPackages("com.foodmatch.matchingservice.model");
+        this.json.setUseTypeHeaders(false);
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        json.configure(configs, isKey);
+    }
+
+    @Override
+    public DonationEvent deserialize(String topic, byte[] data) {
+        if (DonationEventBinaryCodec.isBinary(data)) {
+            return DonationEventBinaryCodec.decode(data);
+        }
+        return json.deserialize(topic, data);
+    }
+
+    @Override
+    public DonationEvent deserialize(String topic, Headers headers, byte[] data) {
+        if (DonationEventBinaryCodec.isBinary(data)) {
+            return DonationEventBinaryCodec.decode(data);
+        }
+        return json.deserialize(topic, headers, data);
+    }
+
+    @Override
+    public void close() {
+        json.close();
+    }
+}
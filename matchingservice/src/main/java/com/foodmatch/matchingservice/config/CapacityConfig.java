@@ -0,0 +1,67 @@
+package com.foodmatch.matchingservice.config;
+
+import com.foodmatch.matchingservice.service.CapacityLedger;
+import com.foodmatch.matchingservice.service.CapacityPeriod;
+import com.foodmatch.matchingservice.service.InMemoryCapacityLedger;
+import com.foodmatch.matchingservice.service.RedisCapacityLedger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.util.HashMap;
+import java.util.Map;
+
+@Configuration
+public class CapacityConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(CapacityConfig.class);
+
+    private static final String RESERVED_BY_NGO =
+            "select ngo_id, sum(quantity) from matched_donations where \"timestamp\" >= ? group by ngo_id";
+
+    // memory: lock-free counters, correct within one replica; redis: Lua script, shared by all replicas
+    @Value("${matching.capacity.ledger:memory}")
+    private String ledgerType;
+
+    @Value("${matching.engine:nearest}")
+    private String matchingEngine;
+
+    @Value("${matching.assignment.enabled:false}")
+    private boolean assignmentEnabled;
+
+    // The ledger is seeded from today's rows in matched_donations here, while the bean is created,
+    // so it holds them before the Kafka listeners start and the first reservation is made
+    @Bean
+    public CapacityLedger capacityLedger(StringRedisTemplate stringRedisTemplate, JdbcTemplate jdbcTemplate) {
+        CapacityLedger ledger = "redis".equals(ledgerType)
+                ? new RedisCapacityLedger(stringRedisTemplate)
+                : new InMemoryCapacityLedger();
+        if ("capacity".equals(matchingEngine) || assignmentEnabled) {
+            seed(ledger, jdbcTemplate);
+        }
+        return ledger;
+    }
+
+    private void seed(CapacityLedger ledger, JdbcTemplate jdbcTemplate) {
+        try {
+            Map<String, Integer> totals = new HashMap<>();
+            Timestamp periodStart = Timestamp.from(CapacityPeriod.start(CapacityPeriod.current(Clock.systemUTC())));
+            jdbcTemplate.query(RESERVED_BY_NGO, rs -> {
+                totals.put(rs.getString(1), (int) Math.min(Integer.MAX_VALUE, rs.getLong(2)));
+            }, periodStart);
+            if (ledger.seed(totals)) {
+                log.info("Capacity ledger seeded from today's matches: {} NGOs", totals.size());
+            } else {
+                log.info("Capacity ledger kept as is ({} NGOs matched today)", totals.size());
+            }
+        } catch (Exception e) {
+            log.warn("Could not seed capacity ledger from matched_donations: {}", e.getMessage());
+        }
+    }
+}
@@ -1,15 +1,20 @@
 package com.foodmatch.matchingservice.config;
 
+import com.foodmatch.matchingservice.codec.DonationEventDeserializer;
 import com.foodmatch.matchingservice.model.DonationEvent;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.common.serialization.StringDeserializer;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.annotation.EnableKafka;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.ConsumerFactory;
-import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.listener.ContainerProperties;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.MicrometerConsumerListener;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -18,18 +23,37 @@ import java.util.Map;
 @Configuration
 public class KafkaConsumerConfig {
 
+    @Value("${spring.kafka.bootstrap-servers:localhost:9092}")
+    private String bootstrapServers;
+
+    // single: one record per listener call; batch: one poll per listener call;
+    // parallel: one poll fanned out to workers, ordered per key, offsets committed by the listener
+    @Value("${matching.listener.mode:single}")
+    private String listenerMode;
+
+    @Value("${matching.listener.max-poll-records:500}")
+    private int maxPollRecords;
+
+    // Containers are held back while CacheWarmupService fills the location cache; it starts them
+    @Value("${matching.cache.warmup.enabled:true}")
+    private boolean warmupEnabled;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @Bean
     public ConsumerFactory<String, DonationEvent> donationConsumerFactory() {
-        JsonDeserializer<DonationEvent> deserializer = new JsonDeserializer<>(DonationEvent.class);
-        deserializer.addTrustedPackages("com.foodmatch.matchingservice.model");
-        deserializer.setUseTypeHeaders(false);
-
         Map<String, Object> props = new HashMap<>();
-        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, "localhost:9092");
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         props.put(ConsumerConfig.GROUP_ID_CONFIG, "matching-service-group");
         props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
 
-        return new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(), deserializer);
+        DefaultKafkaConsumerFactory<String, DonationEvent> factory =
+                new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(), new DonationEventDeserializer());
+        // Exports the client's fetch metrics, including per-partition records-lag, as kafka.consumer.* gauges
+        factory.addListener(new MicrometerConsumerListener<>(meterRegistry));
+        return factory;
     }
 
     @Bean
@@ -37,6 +61,18 @@ public class KafkaConsumerConfig {
         ConcurrentKafkaListenerContainerFactory<String, DonationEvent> factory =
                 new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(donationConsumerFactory());
+        factory.setBatchListener(!"single".equals(listenerMode));
+        factory.setAutoStartup(!warmupEnabled);
+        // Consumer threads stay platform threads even with spring.threads.virtual.enabled: the classic
+        // consumer sleeps and blocks inside synchronized coordinator code, which pins a virtual
+        // thread to its carrier. Listener work moves to virtual threads via the parallel executor.
+        if ("parallel".equals(listenerMode)) {
+            // ParallelDonationEventListener commits contiguous completed offsets itself
+            factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        } else {
+            // Offsets for a poll are committed once the listener has returned for all of its records
+            factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.BATCH);
+        }
         return factory;
     }
 }
@@ -0,0 +1,67 @@
+package com.foodmatch.matchingservice.controller;
+
+import com.foodmatch.matchingservice.analytics.DemandAggregator;
+import com.foodmatch.matchingservice.analytics.RollingWindow;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/analytics")
+@CrossOrigin(origins = {"http://localhost:3000", "http://localhost:3001"})
+public class AnalyticsController {
+
+    private static final int MAX_LIMIT = 100_000;
+
+    private final DemandAggregator aggregator;
+
+    public AnalyticsController(DemandAggregator aggregator) {
+        this.aggregator = aggregator;
+    }
+
+    // GET /analytics/heatmap?window=minute|hour&last=&limit= → donations, quantity and unmatched per
+    // 0.01° cell over the last `last` minutes (up to 60) or hours (up to 24), busiest cells first
+    @GetMapping("/heatmap")
+    public ResponseEntity<?> heatmap(@RequestParam(defaultValue = "minute") String window,
+                                     @RequestParam(required = false) Integer last,
+                                     @RequestParam(defaultValue = "1000") int limit) {
+        if (!aggregator.isEnabled()) {
+            return disabled();
+        }
+        try {
+            RollingWindow rollingWindow = RollingWindow.parse(window);
+            return ResponseEntity.ok(aggregator.heatmap(rollingWindow, last != null ? last : rollingWindow.buckets(),
+                    checkLimit(limit)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // GET /analytics/ngos?window=minute|hour&last=&limit= → matched donations and quantity per NGO
+    @GetMapping("/ngos")
+    public ResponseEntity<?> ngos(@RequestParam(defaultValue = "minute") String window,
+                                  @RequestParam(required = false) Integer last,
+                                  @RequestParam(defaultValue = "1000") int limit) {
+        if (!aggregator.isEnabled()) {
+            return disabled();
+        }
+        try {
+            RollingWindow rollingWindow = RollingWindow.parse(window);
+            return ResponseEntity.ok(aggregator.supply(rollingWindow, last != null ? last : rollingWindow.buckets(),
+                    checkLimit(limit)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    private static int checkLimit(int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_LIMIT);
+        }
+        return limit;
+    }
+
+    private static ResponseEntity<String> disabled() {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Analytics are disabled (matching.analytics.enabled=false)");
+    }
+}
@@ -1,8 +1,10 @@
 package com.foodmatch.matchingservice.controller;
 
+import com.foodmatch.matchingservice.service.CacheWarmupService;
 import com.foodmatch.matchingservice.service.NgoCacheService;
 import com.foodmatch.matchingservice.service.MatchingService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -19,6 +21,9 @@ public class CacheController {
     @Autowired
     private MatchingService matchingService;
 
+    @Autowired
+    private CacheWarmupService cacheWarmupService;
+
     @GetMapping("/status")
     public ResponseEntity<Map<String, Object>> getCacheStatus() {
         Map<String, Object> status = new HashMap<>();
@@ -54,25 +59,22 @@ public class CacheController {
         Map<String, Object> stats = new HashMap<>();
         stats.put("cacheEnabled", ngoCacheService.isCacheEnabled());
         stats.put("cacheSize", ngoCacheService.getCacheSize());
-        stats.put("totalNgos", matchingService.getAllNgos().size());
+        stats.put("tiers", ngoCacheService.getTierStats());
+        stats.put("warmup", cacheWarmupService.progress());
+        stats.put("totalNgos", matchingService.getNgoCount());
         stats.put("memoryUsage", Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory());
         stats.put("maxMemory", Runtime.getRuntime().maxMemory());
         return ResponseEntity.ok(stats);
     }
 
+    // Re-runs the warm-up from matched_donations in the background; progress is on /cache/stats
     @PostMapping("/warm")
-    public ResponseEntity<Map<String, String>> warmCache() {
-        // Pre-populate cache with common locations
-        double[] commonLats = {12.9716, 12.920, 13.000, 12.933};
-        double[] commonLons = {77.5946, 77.600, 77.700, 77.610};
-        
-        for (int i = 0; i < commonLats.length; i++) {
-            matchingService.findNearestNgo(null); // This will trigger cache population
-        }
-        
-        Map<String, String> response = new HashMap<>();
-        response.put("message", "Cache warmed with common locations");
-        response.put("locationsWarmed", String.valueOf(commonLats.length));
-        return ResponseEntity.ok(response);
+    public ResponseEntity<Map<String, Object>> warmCache(
+            @RequestParam(defaultValue = "168") int hours,
+            @RequestParam(defaultValue = "20000") int maxCells) {
+        boolean started = cacheWarmupService.start(hours, maxCells);
+        Map<String, Object> response = new HashMap<>(cacheWarmupService.progress());
+        response.put("message", started ? "Cache warm-up started" : "Cache warm-up already running");
+        return ResponseEntity.status(started ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT).body(response);
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,38 @@
+package com.foodmatch.matchingservice.controller;
+
+import com.foodmatch.matchingservice.push.MatchPushService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/matches/stream")
+@CrossOrigin(origins = {"http://localhost:3000", "http://localhost:3001"})
+public class MatchStreamController {
+
+    private final MatchPushService pushService;
+
+    public MatchStreamController(MatchPushService pushService) {
+        this.pushService = pushService;
+    }
+
+    // GET /matches/stream?donorId=...&ngoId=... → server-sent "match" events as matches are made
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<?> stream(@RequestParam(required = false) String donorId,
+                                    @RequestParam(required = false) String ngoId) {
+        if (donorId == null && ngoId == null) {
+            return ResponseEntity.badRequest().body("donorId or ngoId is required");
+        }
+        try {
+            SseEmitter emitter = pushService.subscribe(donorId, ngoId);
+            return ResponseEntity.ok()
+                    // Stop nginx-style proxies from buffering the stream
+                    .header("X-Accel-Buffering", "no")
+                    .body(emitter);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header("Retry-After", "5").build();
+        }
+    }
+}
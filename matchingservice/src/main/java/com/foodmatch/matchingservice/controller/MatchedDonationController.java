@@ -1,11 +1,25 @@
 package com.foodmatch.matchingservice.controller;
 
+import com.foodmatch.matchingservice.assignment.MicroBatchAssigner;
 import com.foodmatch.matchingservice.model.MatchedDonation;
+import com.foodmatch.matchingservice.model.Ngo;
 import com.foodmatch.matchingservice.repository.MatchedDonationRepository;
+import com.foodmatch.matchingservice.service.CapacityLedger;
+import com.foodmatch.matchingservice.service.CapacityPeriod;
+import com.foodmatch.matchingservice.service.DonorHistoryCache;
+import com.foodmatch.matchingservice.service.MatchHistoryService;
+import com.foodmatch.matchingservice.service.MatchingService;
+import com.foodmatch.matchingservice.service.NgoRegistryService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.Clock;
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,26 +31,114 @@ public class MatchedDonationController {
     @Autowired
     private MatchedDonationRepository repository;
 
-    // GET /matches → return all matched donations
+    @Autowired
+    private MatchingService matchingService;
+
+    @Autowired
+    private MicroBatchAssigner assigner;
+
+    @Autowired
+    private CapacityLedger capacityLedger;
+
+    @Autowired
+    private NgoRegistryService ngoRegistry;
+
+    @Autowired
+    private MatchHistoryService matchHistoryService;
+
+    @Autowired
+    private DonorHistoryCache historyCache;
+
+    private static final int DEFAULT_PAGE_SIZE = 100;
+
+    // GET /matches → all matched donations as a JSON array, streamed from a database cursor.
+    // ?limit=N[&cursor=...] → one keyset page; ?format=ndjson → one JSON object per line
     @GetMapping
-    public ResponseEntity<List<MatchedDonation>> getAllMatches() {
+    public ResponseEntity<?> getAllMatches(@RequestParam(required = false) Integer limit,
+                                           @RequestParam(required = false) String cursor,
+                                           @RequestParam(required = false) String format) {
+        return history(null, limit, cursor, format);
+    }
+
+    // GET /matches/{donorId} → return matches by donor, same paging and streaming options
+    // The plain JSON form is served from DonorHistoryCache and honours If-None-Match.
+    @GetMapping("/{donorId}")
+    public ResponseEntity<?> getMatchesByDonor(@PathVariable String donorId,
+                                               @RequestParam(required = false) Integer limit,
+                                               @RequestParam(required = false) String cursor,
+                                               @RequestParam(required = false) String format,
+                                               @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (limit == null && cursor == null && format == null && historyCache.isEnabled()) {
+            try {
+                if (ifNoneMatch != null && ifNoneMatch.equals(historyCache.cachedEtag(donorId))) {
+                    return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(ifNoneMatch).build();
+                }
+                DonorHistoryCache.CachedHistory history = historyCache.get(donorId);
+                if (history != null) {
+                    if (history.etag().equals(ifNoneMatch)) {
+                        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(history.etag()).build();
+                    }
+                    return ResponseEntity.ok()
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .eTag(history.etag())
+                            .body(history.body());
+                }
+            } catch (Exception e) {
+                // Cache trouble must not take the endpoint down; stream from the database instead
+                System.err.println("Donor history cache unavailable for " + donorId + ": " + e.getMessage());
+            }
+        }
+        return history(donorId, limit, cursor, format);
+    }
+
+    // GET /matches/ngo/{ngoId}?from=&to=&limit= → matches of one NGO in a time window, oldest first
+    @GetMapping("/ngo/{ngoId}")
+    public ResponseEntity<List<MatchedDonation>> getMatchesByNgo(@PathVariable String ngoId,
+                                                                 @RequestParam(required = false) Instant from,
+                                                                 @RequestParam(required = false) Instant to,
+                                                                 @RequestParam(defaultValue = "100") int limit) {
         try {
-            List<MatchedDonation> matches = repository.findAll();
-            return ResponseEntity.ok(matches);
+            return ResponseEntity.ok(matchHistoryService.byNgo(ngoId,
+                    from != null ? from : Instant.EPOCH, to != null ? to : Instant.now(), limit));
         } catch (Exception e) {
-            System.err.println("Error fetching all matches: " + e.getMessage());
+            System.err.println("Error fetching matches for NGO " + ngoId + ": " + e.getMessage());
             return ResponseEntity.internalServerError().build();
         }
     }
 
-    // GET /matches/{donorId} → return matches by donor
-    @GetMapping("/{donorId}")
-    public ResponseEntity<List<MatchedDonation>> getMatchesByDonor(@PathVariable String donorId) {
+    // GET /matches/range?from=&to=&limit= → all matches in a time window, oldest first
+    @GetMapping("/range")
+    public ResponseEntity<List<MatchedDonation>> getMatchesInRange(@RequestParam Instant from,
+                                                                   @RequestParam(required = false) Instant to,
+                                                                   @RequestParam(defaultValue = "100") int limit) {
+        try {
+            return ResponseEntity.ok(matchHistoryService.inRange(from, to != null ? to : Instant.now(), limit));
+        } catch (Exception e) {
+            System.err.println("Error fetching matches from " + from + ": " + e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    private ResponseEntity<?> history(String donorId, Integer limit, String cursor, String format) {
+        String scope = donorId == null ? "all matches" : "matches for donor " + donorId;
         try {
-            List<MatchedDonation> matches = repository.findByDonorId(donorId);
-            return ResponseEntity.ok(matches);
+            if (limit != null || cursor != null) {
+                MatchHistoryService.MatchPage page =
+                        matchHistoryService.page(donorId, cursor, limit != null ? limit : DEFAULT_PAGE_SIZE);
+                return ResponseEntity.ok(page);
+            }
+            boolean ndjson = "ndjson".equalsIgnoreCase(format);
+            MatchHistoryService.StreamFormat streamFormat = ndjson
+                    ? MatchHistoryService.StreamFormat.NDJSON
+                    : MatchHistoryService.StreamFormat.JSON_ARRAY;
+            StreamingResponseBody body = out -> matchHistoryService.stream(donorId, streamFormat, out);
+            return ResponseEntity.ok()
+                    .contentType(ndjson ? MediaType.APPLICATION_NDJSON : MediaType.APPLICATION_JSON)
+                    .body(body);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
         } catch (Exception e) {
-            System.err.println("Error fetching matches for donor " + donorId + ": " + e.getMessage());
+            System.err.println("Error fetching " + scope + ": " + e.getMessage());
             return ResponseEntity.internalServerError().build();
         }
     }
@@ -46,6 +148,7 @@ public class MatchedDonationController {
     public ResponseEntity<String> clearAllMatches() {
         try {
             repository.deleteAll();
+            historyCache.evictAll();
             return ResponseEntity.ok("All matches cleared successfully");
         } catch (Exception e) {
             System.err.println("Error clearing matches: " + e.getMessage());
@@ -54,8 +157,12 @@ public class MatchedDonationController {
     }
 
     // PUT /matches/{donationId} → update a specific match
+    // A quantity change to one of today's matches is applied to the NGO's capacity reservation too;
+    // 409 when an increase no longer fits. Earlier matches no longer count against capacity.
     @PutMapping("/{donationId}")
     public ResponseEntity<MatchedDonation> updateMatch(@PathVariable String donationId, @RequestBody MatchedDonation updateRequest) {
+        int reservedExtra = 0;
+        String ngoId = null;
         try {
             Optional<MatchedDonation> existingOpt = repository.findById(donationId);
             if (existingOpt.isEmpty()) {
@@ -63,12 +170,33 @@ public class MatchedDonationController {
             }
             
             MatchedDonation existing = existingOpt.get();
+            ngoId = existing.getNgoId();
+            int delta = updateRequest.getQuantity() - existing.getQuantity();
+            boolean tracked = (assigner.isEnabled() || matchingService.isCapacityAware())
+                    && CapacityPeriod.isCurrent(existing.getTimestamp(), Clock.systemUTC());
+            if (tracked && delta > 0) {
+                Ngo ngo = ngoRegistry.findById(ngoId);
+                if (ngo != null && ngo.getCapacity() > 0) {
+                    if (!capacityLedger.tryReserve(ngoId, ngo.getCapacity(), delta)) {
+                        return ResponseEntity.status(HttpStatus.CONFLICT).build();
+                    }
+                    reservedExtra = delta;
+                }
+            }
             existing.setQuantity(updateRequest.getQuantity());
             existing.setNgoName(updateRequest.getNgoName());
             
             MatchedDonation saved = repository.save(existing);
+            reservedExtra = 0;
+            if (tracked && delta < 0) {
+                capacityLedger.release(ngoId, -delta);
+            }
+            historyCache.evict(List.of(existing.getDonorId()));
             return ResponseEntity.ok(saved);
         } catch (Exception e) {
+            if (reservedExtra > 0) {
+                capacityLedger.release(ngoId, reservedExtra);
+            }
             System.err.println("Error updating match " + donationId + ": " + e.getMessage());
             return ResponseEntity.internalServerError().build();
         }
@@ -78,10 +206,21 @@ public class MatchedDonationController {
     @DeleteMapping("/{donationId}")
     public ResponseEntity<String> deleteMatch(@PathVariable String donationId) {
         try {
-            if (!repository.existsById(donationId)) {
+            Optional<MatchedDonation> existing = repository.findById(donationId);
+            if (existing.isEmpty()) {
                 return ResponseEntity.notFound().build();
             }
             repository.deleteById(donationId);
+            // Only today's matches hold a reservation; assignment mode reserves every match in the
+            // ledger, whichever matching engine is set
+            if (CapacityPeriod.isCurrent(existing.get().getTimestamp(), Clock.systemUTC())) {
+                if (assigner.isEnabled()) {
+                    assigner.release(existing.get().getNgoId(), existing.get().getQuantity());
+                } else {
+                    matchingService.releaseMatch(existing.get().getNgoId(), existing.get().getQuantity());
+                }
+            }
+            historyCache.evict(List.of(existing.get().getDonorId()));
             return ResponseEntity.ok("Match deleted successfully");
         } catch (Exception e) {
             System.err.println("Error deleting match " + donationId + ": " + e.getMessage());
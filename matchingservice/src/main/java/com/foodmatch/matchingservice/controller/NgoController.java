@@ -0,0 +1,145 @@
+package com.foodmatch.matchingservice.controller;
+
+import com.foodmatch.matchingservice.model.Ngo;
+import com.foodmatch.matchingservice.service.CapacityLedger;
+import com.foodmatch.matchingservice.service.NgoRegistryService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/ngos")
+@CrossOrigin(origins = {"http://localhost:3000", "http://localhost:3001"})
+public class NgoController {
+
+    @Autowired
+    private NgoRegistryService registry;
+
+    @Autowired
+    private CapacityLedger capacityLedger;
+
+    // GET /ngos → all registered NGOs, or ?lat=&lon=&radiusKm= for a GEOSEARCH radius query
+    @GetMapping
+    public ResponseEntity<List<Ngo>> getNgos(
+            @RequestParam(required = false) Double lat,
+            @RequestParam(required = false) Double lon,
+            @RequestParam(defaultValue = "5") double radiusKm,
+            @RequestParam(defaultValue = "0") int limit) {
+        try {
+            if (lat != null && lon != null) {
+                return ResponseEntity.ok(registry.searchRadius(lat, lon, radiusKm, limit));
+            }
+            return ResponseEntity.ok(registry.findAll());
+        } catch (Exception e) {
+            System.err.println("Error fetching NGOs: " + e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    // GET /ngos/{id} → a single NGO
+    @GetMapping("/{id}")
+    public ResponseEntity<Ngo> getNgo(@PathVariable String id) {
+        try {
+            Ngo ngo = registry.findById(id);
+            return ngo != null ? ResponseEntity.ok(ngo) : ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            System.err.println("Error fetching NGO " + id + ": " + e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    // POST /ngos → register a new NGO
+    @PostMapping
+    public ResponseEntity<Ngo> createNgo(@RequestBody Ngo ngo) {
+        if (!isValid(ngo)) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            if (registry.findById(ngo.getId()) != null) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).build();
+            }
+            return ResponseEntity.status(HttpStatus.CREATED).body(registry.save(ngo));
+        } catch (Exception e) {
+            System.err.println("Error creating NGO " + ngo.getId() + ": " + e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    // PUT /ngos/{id} → replace an existing NGO
+    @PutMapping("/{id}")
+    public ResponseEntity<Ngo> updateNgo(@PathVariable String id, @RequestBody Ngo ngo) {
+        ngo.setId(id);
+        if (!isValid(ngo)) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            if (registry.findById(id) == null) {
+                return ResponseEntity.notFound().build();
+            }
+            return ResponseEntity.ok(registry.save(ngo));
+        } catch (Exception e) {
+            System.err.println("Error updating NGO " + id + ": " + e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    // DELETE /ngos/{id} → remove an NGO from the registry
+    @DeleteMapping("/{id}")
+    public ResponseEntity<String> deleteNgo(@PathVariable String id) {
+        try {
+            if (!registry.delete(id)) {
+                return ResponseEntity.notFound().build();
+            }
+            return ResponseEntity.ok("NGO deleted successfully");
+        } catch (Exception e) {
+            System.err.println("Error deleting NGO " + id + ": " + e.getMessage());
+            return ResponseEntity.internalServerError().body("Failed to delete NGO");
+        }
+    }
+
+    // GET /ngos/{id}/capacity → capacity, reserved and remaining quantity
+    @GetMapping("/{id}/capacity")
+    public ResponseEntity<Map<String, Object>> getCapacity(@PathVariable String id) {
+        try {
+            Ngo ngo = registry.findById(id);
+            if (ngo == null) {
+                return ResponseEntity.notFound().build();
+            }
+            int reserved = capacityLedger.reserved(List.of(id))[0];
+            Map<String, Object> capacity = new HashMap<>();
+            capacity.put("ngoId", id);
+            capacity.put("capacity", ngo.getCapacity());
+            capacity.put("reserved", reserved);
+            capacity.put("remaining", ngo.getCapacity() > 0 ? Math.max(0, ngo.getCapacity() - reserved) : null);
+            return ResponseEntity.ok(capacity);
+        } catch (Exception e) {
+            System.err.println("Error fetching capacity for NGO " + id + ": " + e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    // DELETE /ngos/{id}/reservations → free all reserved capacity, e.g. after the day's pickups
+    @DeleteMapping("/{id}/reservations")
+    public ResponseEntity<String> resetReservations(@PathVariable String id) {
+        try {
+            capacityLedger.reset(id);
+            return ResponseEntity.ok("Reservations reset");
+        } catch (Exception e) {
+            System.err.println("Error resetting reservations for NGO " + id + ": " + e.getMessage());
+            return ResponseEntity.internalServerError().body("Failed to reset reservations");
+        }
+    }
+
+    // Redis GEO only accepts latitudes within ±85.05112878°
+    private boolean isValid(Ngo ngo) {
+        return ngo.getId() != null && !ngo.getId().isBlank()
+                && ngo.getName() != null
+                && Math.abs(ngo.getLat()) <= 85.05112878
+                && Math.abs(ngo.getLon()) <= 180.0;
+    }
+}
@@ -0,0 +1,425 @@
+package com.foodmatch.matchingservice.geo;
+
+import com.foodmatch.matchingservice.model.Ngo;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Precomputed nearest NGOs for every LocationCell (0.01°) in reach of the catalog, so matching a
+ * donation is an array lookup instead of a spatial search.
+ *
+ * Cells are grouped into 16 x 16 blocks. A dense directory over the catalog's bounding box maps
+ * each block to a slot in the cell array, or -1 when no NGO is in reach of any of its cells. Each
+ * cell holds the ordinals of its k nearest NGOs within the radius, nearest first, padded with -1.
+ * Answers are for the cell centre, the same approximation the location cache makes.
+ *
+ * Both int sections are IntBuffers, so a table written by save() is memory-mapped back by load()
+ * without copying. update() recomputes only the blocks in reach of NGOs that were added, moved or
+ * removed; a loaded table is not usable until update() has bound it to the live catalog. The
+ * GridNgoIndex passed to build() and update() must be built over the same catalog.
+ */
+public final class CellLookupTable {
+
+    private static final int MAGIC = 0x4E43544C;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 52;
+
+    private static final int BLOCK_SHIFT = 4;
+    private static final int BLOCK_MASK = (1 << BLOCK_SHIFT) - 1;
+    private static final int CELLS_PER_BLOCK = 1 << (2 * BLOCK_SHIFT);
+
+    // Spare blocks around the catalog's reach so nearby additions can be patched in place
+    private static final int MARGIN_BLOCKS = 4;
+
+    // Past this share of the catalog changing, a full build is cheaper than patching
+    private static final double MAX_INCREMENTAL_CHANGE = 0.25;
+
+    private final int k;
+    private final double radiusKm;
+    private final long fingerprint;
+    private final int minRow;
+    private final int minCol;
+    private final int blockRows;
+    private final int blockCols;
+    private final int blockCount;
+    private final IntBuffer directory;
+    private final IntBuffer cells;
+
+    // By ordinal; ids[i] is null once NGO i has left the catalog
+    private final String[] ids;
+    private final double[] lats;
+    private final double[] lons;
+    private final Ngo[] ngos;
+
+    private CellLookupTable(int k, double radiusKm, long fingerprint, int minRow, int minCol,
+                            int blockRows, int blockCols, int blockCount, IntBuffer directory, IntBuffer cells,
+                            String[] ids, double[] lats, double[] lons, Ngo[] ngos) {
+        this.k = k;
+        this.radiusKm = radiusKm;
+        this.fingerprint = fingerprint;
+        this.minRow = minRow;
+        this.minCol = minCol;
+        this.blockRows = blockRows;
+        this.blockCols = blockCols;
+        this.blockCount = blockCount;
+        this.directory = directory;
+        this.cells = cells;
+        this.ids = ids;
+        this.lats = lats;
+        this.lons = lons;
+        this.ngos = ngos;
+    }
+
+    public static CellLookupTable build(List<Ngo> catalog, GridNgoIndex index, int k, double radiusKm) {
+        if (k <= 0) {
+            throw new IllegalArgumentException("k must be positive");
+        }
+        int n = catalog.size();
+        String[] ids = new String[n];
+        double[] lats = new double[n];
+        double[] lons = new double[n];
+        Map<String, Integer> ordinals = new HashMap<>(n * 2);
+        for (int i = 0; i < n; i++) {
+            Ngo ngo = catalog.get(i);
+            ids[i] = ngo.getId();
+            lats[i] = ngo.getLat();
+            lons[i] = ngo.getLon();
+            ordinals.put(ids[i], i);
+        }
+
+        int minRow = Integer.MAX_VALUE, maxRow = Integer.MIN_VALUE;
+        int minCol = Integer.MAX_VALUE, maxCol = Integer.MIN_VALUE;
+        for (int i = 0; i < n; i++) {
+            int[] reach = reach(lats[i], lons[i], radiusKm);
+            minRow = Math.min(minRow, reach[0]);
+            maxRow = Math.max(maxRow, reach[1]);
+            minCol = Math.min(minCol, reach[2]);
+            maxCol = Math.max(maxCol, reach[3]);
+        }
+        int blockRows = 0, blockCols = 0;
+        if (n > 0) {
+            minRow -= MARGIN_BLOCKS << BLOCK_SHIFT;
+            minCol -= MARGIN_BLOCKS << BLOCK_SHIFT;
+            blockRows = ((maxRow - minRow) >> BLOCK_SHIFT) + 1 + MARGIN_BLOCKS;
+            blockCols = ((maxCol - minCol) >> BLOCK_SHIFT) + 1 + MARGIN_BLOCKS;
+        } else {
+            minRow = 0;
+            minCol = 0;
+        }
+
+        CellLookupTable empty = new CellLookupTable(k, radiusKm, 0L, minRow, minCol, blockRows, blockCols, 0,
+                IntBuffer.allocate(0), IntBuffer.allocate(0), new String[0], new double[0], new double[0], new Ngo[0]);
+        int[] dir = new int[blockRows * blockCols];
+        Arrays.fill(dir, -1);
+        BitSet dirty = new BitSet(dir.length);
+        for (int i = 0; i < n; i++) {
+            empty.markReach(lats[i], lons[i], dirty);
+        }
+        return empty.patch(catalog, index, ordinals, ids, lats, lons, dir, new int[0], 0, dirty);
+    }
+
+    // Re-binds the table to the current catalog, recomputing only blocks the changes can affect
+    public CellLookupTable update(List<Ngo> catalog, GridNgoIndex index) {
+        Map<String, Integer> ordinals = new HashMap<>(ids.length * 2);
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] != null) {
+                ordinals.put(ids[i], i);
+            }
+        }
+        if (fingerprint(catalog, k, radiusKm) == fingerprint && ordinals.size() == catalog.size()
+                && catalog.stream().allMatch(ngo -> ordinals.containsKey(ngo.getId()))) {
+            Ngo[] bound = new Ngo[ids.length];
+            for (Ngo ngo : catalog) {
+                bound[ordinals.get(ngo.getId())] = ngo;
+            }
+            return new CellLookupTable(k, radiusKm, fingerprint, minRow, minCol, blockRows, blockCols, blockCount,
+                    directory, cells, ids, lats, lons, bound);
+        }
+
+        List<String> newIds = new ArrayList<>(Arrays.asList(ids));
+        double[] newLats = Arrays.copyOf(lats, ids.length + catalog.size());
+        double[] newLons = Arrays.copyOf(lons, ids.length + catalog.size());
+        BitSet seen = new BitSet(ids.length);
+        BitSet dirty = new BitSet(blockRows * blockCols);
+        int changed = 0;
+        for (Ngo ngo : catalog) {
+            Integer ordinal = ordinals.get(ngo.getId());
+            if (ordinal == null) {
+                ordinal = newIds.size();
+                newIds.add(ngo.getId());
+                ordinals.put(ngo.getId(), ordinal);
+            } else if (lats[ordinal] != ngo.getLat() || lons[ordinal] != ngo.getLon()) {
+                markReach(lats[ordinal], lons[ordinal], dirty);
+            } else {
+                seen.set(ordinal);
+                continue;
+            }
+            seen.set(ordinal);
+            newLats[ordinal] = ngo.getLat();
+            newLons[ordinal] = ngo.getLon();
+            if (!markReach(ngo.getLat(), ngo.getLon(), dirty)) {
+                return build(catalog, index, k, radiusKm);
+            }
+            changed++;
+        }
+        int live = 0;
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] != null && !seen.get(i)) {
+                markReach(lats[i], lons[i], dirty);
+                newIds.set(i, null);
+                ordinals.remove(ids[i]);
+                changed++;
+            }
+            if (newIds.get(i) != null) {
+                live++;
+            }
+        }
+        live += newIds.size() - ids.length;
+        if (changed > MAX_INCREMENTAL_CHANGE * Math.max(1, catalog.size()) || live * 2 < newIds.size()) {
+            return build(catalog, index, k, radiusKm);
+        }
+
+        int[] dir = new int[blockRows * blockCols];
+        directory.get(0, dir);
+        int[] data = new int[cells.capacity()];
+        cells.get(0, data);
+        int n = newIds.size();
+        return patch(catalog, index, ordinals, newIds.toArray(new String[0]),
+                Arrays.copyOf(newLats, n), Arrays.copyOf(newLons, n), dir, data, blockCount, dirty);
+    }
+
+    // Recomputes the dirty directory positions into (copies of) this table's arrays
+    private CellLookupTable patch(List<Ngo> catalog, GridNgoIndex index, Map<String, Integer> ordinals,
+                                  String[] newIds, double[] newLats, double[] newLons,
+                                  int[] dir, int[] data, int slots, BitSet dirty) {
+        Ngo[] bound = new Ngo[newIds.length];
+        for (Ngo ngo : catalog) {
+            bound[ordinals.get(ngo.getId())] = ngo;
+        }
+
+        int blockInts = CELLS_PER_BLOCK * k;
+        for (int pos = dirty.nextSetBit(0); pos >= 0; pos = dirty.nextSetBit(pos + 1)) {
+            if (dir[pos] < 0) {
+                dir[pos] = slots++;
+                if ((long) slots * blockInts > data.length) {
+                    data = Arrays.copyOf(data, Math.max(slots * blockInts, data.length + (data.length >> 1)));
+                }
+            }
+            int base = dir[pos] * blockInts;
+            int row0 = minRow + (pos / blockCols << BLOCK_SHIFT);
+            int col0 = minCol + (pos % blockCols << BLOCK_SHIFT);
+            for (int c = 0; c < CELLS_PER_BLOCK; c++) {
+                long cell = LocationCell.pack(row0 + (c >> BLOCK_SHIFT), col0 + (c & BLOCK_MASK));
+                Ngo[] nearest = index.nearest(LocationCell.lat(cell), LocationCell.lon(cell), radiusKm, k);
+                int offset = base + c * k;
+                for (int j = 0; j < k; j++) {
+                    data[offset + j] = j < nearest.length ? ordinals.get(nearest[j].getId()) : -1;
+                }
+            }
+        }
+        return new CellLookupTable(k, radiusKm, fingerprint(catalog, k, radiusKm), minRow, minCol,
+                blockRows, blockCols, slots, IntBuffer.wrap(dir), IntBuffer.wrap(data, 0, slots * blockInts).slice(),
+                newIds, newLats, newLons, bound);
+    }
+
+    // Nearest NGO to the cell centre within the radius, or null
+    public Ngo nearest(long cell) {
+        int offset = offset(cell);
+        if (offset < 0) {
+            return null;
+        }
+        int ordinal = cells.get(offset);
+        return ordinal < 0 ? null : ngos[ordinal];
+    }
+
+    // Up to k NGOs in reach of the cell centre, nearest first
+    public List<Ngo> candidates(long cell) {
+        int offset = offset(cell);
+        List<Ngo> result = new ArrayList<>(k);
+        for (int j = 0; offset >= 0 && j < k; j++) {
+            int ordinal = cells.get(offset + j);
+            if (ordinal < 0) {
+                break;
+            }
+            result.add(ngos[ordinal]);
+        }
+        return result;
+    }
+
+    private int offset(long cell) {
+        int row = LocationCell.latIndex(cell) - minRow;
+        int col = LocationCell.lonIndex(cell) - minCol;
+        if (row < 0 || col < 0 || row >= blockRows << BLOCK_SHIFT || col >= blockCols << BLOCK_SHIFT) {
+            return -1;
+        }
+        int slot = directory.get((row >> BLOCK_SHIFT) * blockCols + (col >> BLOCK_SHIFT));
+        if (slot < 0) {
+            return -1;
+        }
+        return (slot * CELLS_PER_BLOCK + ((row & BLOCK_MASK) << BLOCK_SHIFT | (col & BLOCK_MASK))) * k;
+    }
+
+    // Flags every directory position with a cell centre in reach of the point; false if any falls outside
+    private boolean markReach(double lat, double lon, BitSet dirty) {
+        int[] reach = reach(lat, lon, radiusKm);
+        int fromRow = reach[0] - minRow, toRow = reach[1] - minRow;
+        int fromCol = reach[2] - minCol, toCol = reach[3] - minCol;
+        boolean inside = fromRow >= 0 && fromCol >= 0
+                && toRow < blockRows << BLOCK_SHIFT && toCol < blockCols << BLOCK_SHIFT;
+        int br0 = Math.max(0, fromRow >> BLOCK_SHIFT), br1 = Math.min(blockRows - 1, toRow >> BLOCK_SHIFT);
+        int bc0 = Math.max(0, fromCol >> BLOCK_SHIFT), bc1 = Math.min(blockCols - 1, toCol >> BLOCK_SHIFT);
+        for (int br = br0; br <= br1; br++) {
+            dirty.set(br * blockCols + bc0, br * blockCols + bc1 + 1);
+        }
+        return inside;
+    }
+
+    // {minRow, maxRow, minCol, maxCol} of the cells whose centre can be within radiusKm of the point
+    private static int[] reach(double lat, double lon, double radiusKm) {
+        double latDeg = GeoDistance.kmToLatDegrees(radiusKm);
+        double lonDeg = GeoDistance.kmToLonDegrees(radiusKm, Math.abs(lat) + latDeg);
+        long lo = LocationCell.of(lat - latDeg, lon - lonDeg);
+        long hi = LocationCell.of(lat + latDeg, lon + lonDeg);
+        return new int[]{LocationCell.latIndex(lo) - 1, LocationCell.latIndex(hi) + 1,
+                LocationCell.lonIndex(lo) - 1, LocationCell.lonIndex(hi) + 1};
+    }
+
+    // Order-independent hash of everything the table's contents depend on
+    public static long fingerprint(Collection<Ngo> catalog, int k, double radiusKm) {
+        long h = mix(catalog.size() * 31L + k) ^ mix(Double.doubleToLongBits(radiusKm));
+        for (Ngo ngo : catalog) {
+            h += mix(mix(mix(ngo.getId().hashCode()) ^ Double.doubleToLongBits(ngo.getLat()))
+                    ^ Double.doubleToLongBits(ngo.getLon()));
+        }
+        return h;
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    // Written to a sibling temp file and moved into place, so a reader never maps a partial table
+    public void save(Path path) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path tmp = Files.createTempFile(parent, path.getFileName().toString(), ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(k);
+            out.writeDouble(radiusKm);
+            out.writeLong(fingerprint);
+            out.writeInt(minRow);
+            out.writeInt(minCol);
+            out.writeInt(blockRows);
+            out.writeInt(blockCols);
+            out.writeInt(blockCount);
+            out.writeInt(ids.length);
+            for (int i = 0; i < directory.capacity(); i++) {
+                out.writeInt(directory.get(i));
+            }
+            for (int i = 0; i < cells.capacity(); i++) {
+                out.writeInt(cells.get(i));
+            }
+            for (int i = 0; i < ids.length; i++) {
+                out.writeDouble(lats[i]);
+                out.writeDouble(lons[i]);
+                byte[] id = ids[i] == null ? null : ids[i].getBytes(StandardCharsets.UTF_8);
+                out.writeInt(id == null ? -1 : id.length);
+                if (id != null) {
+                    out.write(id);
+                }
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Maps the int sections in place; only the NGO id list is read onto the heap
+    public static CellLookupTable load(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < HEADER_BYTES || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                throw new IOException(path + " is not a cell lookup table");
+            }
+            int k = buffer.getInt();
+            double radiusKm = buffer.getDouble();
+            long fingerprint = buffer.getLong();
+            int minRow = buffer.getInt();
+            int minCol = buffer.getInt();
+            int blockRows = buffer.getInt();
+            int blockCols = buffer.getInt();
+            int blockCount = buffer.getInt();
+            int ngoCount = buffer.getInt();
+
+            int directoryBytes = blockRows * blockCols * Integer.BYTES;
+            int cellBytes = blockCount * CELLS_PER_BLOCK * k * Integer.BYTES;
+            IntBuffer directory = buffer.slice(HEADER_BYTES, directoryBytes).asIntBuffer();
+            IntBuffer cells = buffer.slice(HEADER_BYTES + directoryBytes, cellBytes).asIntBuffer();
+            buffer.position(HEADER_BYTES + directoryBytes + cellBytes);
+
+            String[] ids = new String[ngoCount];
+            double[] lats = new double[ngoCount];
+            double[] lons = new double[ngoCount];
+            for (int i = 0; i < ngoCount; i++) {
+                lats[i] = buffer.getDouble();
+                lons[i] = buffer.getDouble();
+                int length = buffer.getInt();
+                if (length >= 0) {
+                    byte[] id = new byte[length];
+                    buffer.get(id);
+                    ids[i] = new String(id, StandardCharsets.UTF_8);
+                }
+            }
+            return new CellLookupTable(k, radiusKm, fingerprint, minRow, minCol, blockRows, blockCols, blockCount,
+                    directory, cells, ids, lats, lons, new Ngo[ngoCount]);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IOException(path + " is truncated", e);
+        }
+    }
+
+    public int k() {
+        return k;
+    }
+
+    public double radiusKm() {
+        return radiusKm;
+    }
+
+    public long fingerprint() {
+        return fingerprint;
+    }
+
+    public int blockCount() {
+        return blockCount;
+    }
+
+    public long sizeBytes() {
+        return (long) (directory.capacity() + cells.capacity()) * Integer.BYTES;
+    }
+}
@@ -0,0 +1,40 @@
+package com.foodmatch.matchingservice.geo;
+
+public final class GeoDistance {
+
+    public static final double EARTH_RADIUS_KM = 6371.0;
+
+    // Length of one degree of latitude in km (constant on a spherical earth)
+    public static final double KM_PER_DEGREE_LAT = Math.toRadians(1) * EARTH_RADIUS_KM;
+
+    private GeoDistance() {}
+
+    // Great-circle distance in km using the Haversine formula
+    public static double haversine(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2) +
+                   Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) *
+                   Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+        return EARTH_RADIUS_KM * c;
+    }
+
+    // Equirectangular approximation in km. One cosine and a square root, accurate to well
+    // under 0.1% at city scale, so it is used as a cheap pre-filter before haversine.
+    public static double equirectangular(double lat1, double lon1, double lat2, double lon2) {
+        double x = Math.toRadians(lon2 - lon1) * Math.cos(Math.toRadians((lat1 + lat2) / 2));
+        double y = Math.toRadians(lat2 - lat1);
+        return Math.sqrt(x * x + y * y) * EARTH_RADIUS_KM;
+    }
+
+    // Degrees of longitude spanned by the given distance at the given latitude
+    public static double kmToLonDegrees(double km, double lat) {
+        double cos = Math.cos(Math.toRadians(Math.min(Math.abs(lat), 89.0)));
+        return km / (KM_PER_DEGREE_LAT * cos);
+    }
+
+    public static double kmToLatDegrees(double km) {
+        return km / KM_PER_DEGREE_LAT;
+    }
+}
@@ -0,0 +1,308 @@
+package com.foodmatch.matchingservice.geo;
+
+import com.foodmatch.matchingservice.model.Ngo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Uniform lat/lon grid over the NGO catalog.
+ *
+ * NGOs are bucketed into cells of cellSizeDeg x cellSizeDeg and laid out cell by cell in
+ * flat arrays, with a sorted array of non-empty cell keys for lookup. A nearest query walks
+ * rings of cells outwards from the query cell and stops as soon as the next ring cannot
+ * contain anything closer than the best hit so far. Candidates are pre-filtered with the
+ * equirectangular approximation; haversine only runs for the few that could still win.
+ */
+public class GridNgoIndex implements NgoSpatialIndex {
+
+    // Headroom on the equirectangular pre-filter so its approximation error never drops a true hit
+    private static final double PREFILTER_SLACK = 1.005;
+
+    private final double cellSizeDeg;
+    private final long[] cellKeys;
+    private final int[] cellStart;
+    private final double[] lats;
+    private final double[] lons;
+    private final Ngo[] ngos;
+
+    public GridNgoIndex(Collection<Ngo> catalog, double cellSizeDeg) {
+        if (cellSizeDeg <= 0) {
+            throw new IllegalArgumentException("cellSizeDeg must be positive");
+        }
+        this.cellSizeDeg = cellSizeDeg;
+
+        Ngo[] source = catalog.toArray(new Ngo[0]);
+        int n = source.length;
+        long[] keys = new long[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = cellKey(row(source[i].getLat()), col(source[i].getLon()));
+        }
+        int[] order = IntStream.range(0, n).boxed()
+                .sorted(Comparator.comparingLong(i -> keys[i]))
+                .mapToInt(Integer::intValue)
+                .toArray();
+
+        this.ngos = new Ngo[n];
+        this.lats = new double[n];
+        this.lons = new double[n];
+        long[] uniqueKeys = new long[n];
+        int[] starts = new int[n + 1];
+        int cells = 0;
+        for (int i = 0; i < n; i++) {
+            Ngo ngo = source[order[i]];
+            ngos[i] = ngo;
+            lats[i] = ngo.getLat();
+            lons[i] = ngo.getLon();
+            long key = keys[order[i]];
+            if (cells == 0 || uniqueKeys[cells - 1] != key) {
+                uniqueKeys[cells] = key;
+                starts[cells] = i;
+                cells++;
+            }
+        }
+        starts[cells] = n;
+        this.cellKeys = Arrays.copyOf(uniqueKeys, cells);
+        this.cellStart = Arrays.copyOf(starts, cells + 1);
+    }
+
+    @Override
+    public Ngo nearest(double lat, double lon, double maxKm) {
+        if (ngos.length == 0) {
+            return null;
+        }
+        double latDeg = GeoDistance.kmToLatDegrees(maxKm);
+        double widestLat = Math.abs(lat) + latDeg;
+        int latCells = (int) Math.ceil(latDeg / cellSizeDeg);
+        int lonCells = (int) Math.ceil(GeoDistance.kmToLonDegrees(maxKm, widestLat) / cellSizeDeg);
+
+        int row0 = row(lat);
+        int col0 = col(lon);
+        if (cellsInWindow(latCells, lonCells) > cellKeys.length) {
+            return nearestInSparseWindow(lat, lon, maxKm, row0, col0, latCells, lonCells);
+        }
+
+        // Narrowest cell edge inside the search band, used as a lower bound per ring
+        double cellKmMin = Math.min(cellSizeDeg * GeoDistance.KM_PER_DEGREE_LAT,
+                cellSizeDeg / GeoDistance.kmToLonDegrees(1.0, widestLat));
+
+        int maxRing = Math.max(latCells, lonCells);
+        Ngo best = null;
+        double bestKm = maxKm;
+
+        for (int r = 0; r <= maxRing; r++) {
+            for (int dr = -r; dr <= r; dr++) {
+                if (Math.abs(dr) > latCells) {
+                    continue;
+                }
+                // Interior rows of the ring only contribute their two edge cells
+                int step = (Math.abs(dr) == r) ? 1 : 2 * r;
+                for (int dc = -r; dc <= r; dc += step) {
+                    if (Math.abs(dc) > lonCells) {
+                        continue;
+                    }
+                    int cell = Arrays.binarySearch(cellKeys, cellKey(row0 + dr, col0 + dc));
+                    if (cell < 0) {
+                        continue;
+                    }
+                    for (int i = cellStart[cell]; i < cellStart[cell + 1]; i++) {
+                        if (GeoDistance.equirectangular(lat, lon, lats[i], lons[i]) > bestKm * PREFILTER_SLACK) {
+                            continue;
+                        }
+                        double d = GeoDistance.haversine(lat, lon, lats[i], lons[i]);
+                        if (d < bestKm) {
+                            best = ngos[i];
+                            bestKm = d;
+                        }
+                    }
+                }
+            }
+            // Everything in ring r + 1 is at least r whole cells away
+            if (best != null && bestKm <= r * cellKmMin) {
+                break;
+            }
+        }
+        return best;
+    }
+
+    // Up to k NGOs strictly closer than maxKm, nearest first (ties by id). Meant for precomputing
+    // lookup tables, so unlike nearest(lat, lon, maxKm) it allocates its result.
+    public Ngo[] nearest(double lat, double lon, double maxKm, int k) {
+        if (ngos.length == 0 || k <= 0) {
+            return new Ngo[0];
+        }
+        Ngo[] best = new Ngo[k];
+        double[] bestKm = new double[k];
+        double latDeg = GeoDistance.kmToLatDegrees(maxKm);
+        double widestLat = Math.abs(lat) + latDeg;
+        int latCells = (int) Math.ceil(latDeg / cellSizeDeg);
+        int lonCells = (int) Math.ceil(GeoDistance.kmToLonDegrees(maxKm, widestLat) / cellSizeDeg);
+
+        int row0 = row(lat);
+        int col0 = col(lon);
+        int found = 0;
+        if (cellsInWindow(latCells, lonCells) > cellKeys.length) {
+            for (int cell = 0; cell < cellKeys.length; cell++) {
+                if (inWindow(cellKeys[cell], row0, col0, latCells, lonCells)) {
+                    found = offerAll(lat, lon, maxKm, cellStart[cell], cellStart[cell + 1], best, bestKm, found);
+                }
+            }
+            return Arrays.copyOf(best, found);
+        }
+
+        double cellKmMin = Math.min(cellSizeDeg * GeoDistance.KM_PER_DEGREE_LAT,
+                cellSizeDeg / GeoDistance.kmToLonDegrees(1.0, widestLat));
+        int maxRing = Math.max(latCells, lonCells);
+        for (int r = 0; r <= maxRing; r++) {
+            for (int dr = -r; dr <= r; dr++) {
+                if (Math.abs(dr) > latCells) {
+                    continue;
+                }
+                int step = (Math.abs(dr) == r) ? 1 : 2 * r;
+                for (int dc = -r; dc <= r; dc += step) {
+                    if (Math.abs(dc) > lonCells) {
+                        continue;
+                    }
+                    int cell = Arrays.binarySearch(cellKeys, cellKey(row0 + dr, col0 + dc));
+                    if (cell >= 0) {
+                        found = offerAll(lat, lon, maxKm, cellStart[cell], cellStart[cell + 1], best, bestKm, found);
+                    }
+                }
+            }
+            if (found == k && bestKm[k - 1] <= r * cellKmMin) {
+                break;
+            }
+        }
+        return Arrays.copyOf(best, found);
+    }
+
+    @Override
+    public List<Ngo> withinRange(double lat, double lon, double rangeKm) {
+        List<Ngo> result = new ArrayList<>();
+        if (ngos.length == 0) {
+            return result;
+        }
+        double latDeg = GeoDistance.kmToLatDegrees(rangeKm);
+        int latCells = (int) Math.ceil(latDeg / cellSizeDeg);
+        int lonCells = (int) Math.ceil(GeoDistance.kmToLonDegrees(rangeKm, Math.abs(lat) + latDeg) / cellSizeDeg);
+
+        int row0 = row(lat);
+        int col0 = col(lon);
+        if (cellsInWindow(latCells, lonCells) > cellKeys.length) {
+            // Fewer occupied cells than window cells: walk the occupied ones instead of probing
+            for (int cell = 0; cell < cellKeys.length; cell++) {
+                if (inWindow(cellKeys[cell], row0, col0, latCells, lonCells)) {
+                    collectInRange(lat, lon, rangeKm, cellStart[cell], cellStart[cell + 1], result);
+                }
+            }
+            return result;
+        }
+
+        for (int dr = -latCells; dr <= latCells; dr++) {
+            for (int dc = -lonCells; dc <= lonCells; dc++) {
+                int cell = Arrays.binarySearch(cellKeys, cellKey(row0 + dr, col0 + dc));
+                if (cell >= 0) {
+                    collectInRange(lat, lon, rangeKm, cellStart[cell], cellStart[cell + 1], result);
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public int size() {
+        return ngos.length;
+    }
+
+    public int cellCount() {
+        return cellKeys.length;
+    }
+
+    private Ngo nearestInSparseWindow(double lat, double lon, double maxKm,
+                                      int row0, int col0, int latCells, int lonCells) {
+        Ngo best = null;
+        double bestKm = maxKm;
+        for (int cell = 0; cell < cellKeys.length; cell++) {
+            if (!inWindow(cellKeys[cell], row0, col0, latCells, lonCells)) {
+                continue;
+            }
+            for (int i = cellStart[cell]; i < cellStart[cell + 1]; i++) {
+                if (GeoDistance.equirectangular(lat, lon, lats[i], lons[i]) > bestKm * PREFILTER_SLACK) {
+                    continue;
+                }
+                double d = GeoDistance.haversine(lat, lon, lats[i], lons[i]);
+                if (d < bestKm) {
+                    best = ngos[i];
+                    bestKm = d;
+                }
+            }
+        }
+        return best;
+    }
+
+    // Insertion into the sorted top-k arrays; returns the new number of entries
+    private int offerAll(double lat, double lon, double maxKm, int from, int to,
+                         Ngo[] best, double[] bestKm, int found) {
+        int k = best.length;
+        for (int i = from; i < to; i++) {
+            double bound = found == k ? bestKm[k - 1] : maxKm;
+            if (GeoDistance.equirectangular(lat, lon, lats[i], lons[i]) > bound * PREFILTER_SLACK) {
+                continue;
+            }
+            double d = GeoDistance.haversine(lat, lon, lats[i], lons[i]);
+            if (d >= maxKm || (found == k && !closer(d, ngos[i], bestKm[k - 1], best[k - 1]))) {
+                continue;
+            }
+            int at = found == k ? k - 1 : found++;
+            while (at > 0 && closer(d, ngos[i], bestKm[at - 1], best[at - 1])) {
+                best[at] = best[at - 1];
+                bestKm[at] = bestKm[at - 1];
+                at--;
+            }
+            best[at] = ngos[i];
+            bestKm[at] = d;
+        }
+        return found;
+    }
+
+    private static boolean closer(double d, Ngo ngo, double otherKm, Ngo other) {
+        return d < otherKm || (d == otherKm && ngo.getId().compareTo(other.getId()) < 0);
+    }
+
+    private void collectInRange(double lat, double lon, double rangeKm, int from, int to, List<Ngo> out) {
+        for (int i = from; i < to; i++) {
+            if (GeoDistance.equirectangular(lat, lon, lats[i], lons[i]) > rangeKm * PREFILTER_SLACK) {
+                continue;
+            }
+            if (GeoDistance.haversine(lat, lon, lats[i], lons[i]) <= rangeKm) {
+                out.add(ngos[i]);
+            }
+        }
+    }
+
+    private long cellsInWindow(int latCells, int lonCells) {
+        return (2L * latCells + 1) * (2L * lonCells + 1);
+    }
+
+    private static boolean inWindow(long key, int row0, int col0, int latCells, int lonCells) {
+        int row = (int) (key >> 32);
+        int col = (int) key;
+        return Math.abs(row - row0) <= latCells && Math.abs(col - col0) <= lonCells;
+    }
+
+    private int row(double lat) {
+        return (int) Math.floor(lat / cellSizeDeg);
+    }
+
+    private int col(double lon) {
+        return (int) Math.floor(lon / cellSizeDeg);
+    }
+
+    private static long cellKey(int row, int col) {
+        return ((long) row << 32) | (col & 0xffffffffL);
+    }
+}
@@ -0,0 +1,50 @@
+package com.foodmatch.matchingservice.geo;
+
+import com.foodmatch.matchingservice.model.Ngo;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Brute-force haversine scan over every NGO. Kept as the reference implementation
+ * and for tiny catalogs where building a grid is not worth it.
+ */
+public class LinearScanNgoIndex implements NgoSpatialIndex {
+
+    private final Ngo[] ngos;
+
+    public LinearScanNgoIndex(Collection<Ngo> ngos) {
+        this.ngos = ngos.toArray(new Ngo[0]);
+    }
+
+    @Override
+    public Ngo nearest(double lat, double lon, double maxKm) {
+        Ngo nearest = null;
+        double minDistance = maxKm;
+        for (Ngo ngo : ngos) {
+            double distance = GeoDistance.haversine(lat, lon, ngo.getLat(), ngo.getLon());
+            if (distance < minDistance) {
+                nearest = ngo;
+                minDistance = distance;
+            }
+        }
+        return nearest;
+    }
+
+    @Override
+    public List<Ngo> withinRange(double lat, double lon, double rangeKm) {
+        List<Ngo> result = new ArrayList<>();
+        for (Ngo ngo : ngos) {
+            if (GeoDistance.haversine(lat, lon, ngo.getLat(), ngo.getLon()) <= rangeKm) {
+                result.add(ngo);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public int size() {
+        return ngos.length;
+    }
+}
@@ -0,0 +1,39 @@
+package com.foodmatch.matchingservice.geo;
+
+/**
+ * 0.01° location cells (≈ 1.1 km) packed into a single long: rounded latitude × 100 in the high
+ * 32 bits, rounded longitude × 100 in the low 32 bits. Same rounding as the former
+ * "lat:lon" string keys, without building a string per event.
+ */
+public final class LocationCell {
+
+    public static final double CELL_SIZE_DEG = 0.01;
+    private static final double SCALE = 100.0;
+
+    private LocationCell() {}
+
+    public static long of(double lat, double lon) {
+        return pack((int) Math.round(lat * SCALE), (int) Math.round(lon * SCALE));
+    }
+
+    public static long pack(int latIndex, int lonIndex) {
+        return ((long) latIndex << 32) | (lonIndex & 0xFFFFFFFFL);
+    }
+
+    public static int latIndex(long cell) {
+        return (int) (cell >> 32);
+    }
+
+    public static int lonIndex(long cell) {
+        return (int) cell;
+    }
+
+    // Rounded coordinates of the cell, as the old string key would have shown them
+    public static double lat(long cell) {
+        return latIndex(cell) / SCALE;
+    }
+
+    public static double lon(long cell) {
+        return lonIndex(cell) / SCALE;
+    }
+}
@@ -0,0 +1,17 @@
+package com.foodmatch.matchingservice.geo;
+
+import com.foodmatch.matchingservice.model.Ngo;
+
+import java.util.Collection;
+
+public enum NgoIndexType {
+    LINEAR,
+    GRID;
+
+    public NgoSpatialIndex build(Collection<Ngo> ngos, double cellSizeDeg) {
+        return switch (this) {
+            case LINEAR -> new LinearScanNgoIndex(ngos);
+            case GRID -> new GridNgoIndex(ngos, cellSizeDeg);
+        };
+    }
+}
@@ -0,0 +1,20 @@
+package com.foodmatch.matchingservice.geo;
+
+import com.foodmatch.matchingservice.model.Ngo;
+
+import java.util.List;
+
+/**
+ * Read-only spatial lookup over a snapshot of the NGO catalog.
+ * Implementations are immutable once built; rebuild and swap to pick up catalog changes.
+ */
+public interface NgoSpatialIndex {
+
+    // Nearest NGO strictly closer than maxKm, or null when none qualifies
+    Ngo nearest(double lat, double lon, double maxKm);
+
+    // All NGOs within rangeKm (inclusive), in no particular order
+    List<Ngo> withinRange(double lat, double lon, double rangeKm);
+
+    int size();
+}
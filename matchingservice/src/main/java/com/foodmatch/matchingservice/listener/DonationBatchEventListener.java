@@ -0,0 +1,40 @@
+package com.foodmatch.matchingservice.listener;
+
+import com.foodmatch.matchingservice.model.DonationEvent;
+import com.foodmatch.matchingservice.model.MatchedDonation;
+import com.foodmatch.matchingservice.service.DonationMatchProcessor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Batch counterpart of {@link DonationEventListener}. Receives a whole poll, matches it and
+ * writes the matches in one transaction. The container commits the batch offsets only after
+ * this method returns, i.e. after the flush.
+ */
+@Component
+@ConditionalOnProperty(name = "matching.listener.mode", havingValue = "batch")
+public class DonationBatchEventListener {
+
+    private static final Logger log = LoggerFactory.getLogger(DonationBatchEventListener.class);
+
+    private final DonationMatchProcessor processor;
+
+    public DonationBatchEventListener(DonationMatchProcessor processor) {
+        this.processor = processor;
+    }
+
+    @KafkaListener(
+        topics = "donation.events",
+        groupId = "matching-service-group",
+        containerFactory = "donationKafkaListenerContainerFactory"
+    )
+    public void handleDonations(List<DonationEvent> events) {
+        List<MatchedDonation> matches = processor.processBatch(events);
+        log.debug("donation batch processed events={} matched={}", events.size(), matches.size());
+    }
+}
@@ -2,21 +2,23 @@ package com.foodmatch.matchingservice.listener;
 
 import com.foodmatch.matchingservice.model.DonationEvent;
 import com.foodmatch.matchingservice.model.MatchedDonation;
-import com.foodmatch.matchingservice.model.Ngo;
-import com.foodmatch.matchingservice.repository.MatchedDonationRepository;
-import com.foodmatch.matchingservice.service.MatchingService;
+import com.foodmatch.matchingservice.service.DonationMatchProcessor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Component;
 
 @Component
+@ConditionalOnProperty(name = "matching.listener.mode", havingValue = "single", matchIfMissing = true)
 public class DonationEventListener {
 
-    private final MatchingService matchingService;
-    private final MatchedDonationRepository matchedDonationRepo;
+    private static final Logger log = LoggerFactory.getLogger(DonationEventListener.class);
 
-    public DonationEventListener(MatchingService matchingService, MatchedDonationRepository matchedDonationRepo) {
-        this.matchingService = matchingService;
-        this.matchedDonationRepo = matchedDonationRepo;
+    private final DonationMatchProcessor processor;
+
+    public DonationEventListener(DonationMatchProcessor processor) {
+        this.processor = processor;
     }
 
     @KafkaListener(
@@ -25,29 +27,18 @@ public class DonationEventListener {
         containerFactory = "donationKafkaListenerContainerFactory"
     )
     public void handleDonation(DonationEvent event) {
-        System.out.printf("📥 Received donation event: %s from donor %s at location (%.3f, %.3f)%n",
-                event.getDonationId(), event.getDonorId(), event.getLat(), event.getLon());
-
-        Ngo matchedNgo = matchingService.findNearestNgo(event);
-
-        if (matchedNgo != null) {
-            System.out.printf("✅ Matched with NGO: %s (%s)%n", matchedNgo.getName(), matchedNgo.getId());
-
-            MatchedDonation match = new MatchedDonation();
-            match.setDonationId(event.getDonationId());
-            match.setDonorId(event.getDonorId());
-            match.setLat(event.getLat());
-            match.setLon(event.getLon());
-            match.setQuantity(event.getQuantity());
-            match.setTimestamp(event.getTimestamp());
-            match.setNgoId(matchedNgo.getId());
-            match.setNgoName(matchedNgo.getName());
-            match.setNgoLat(matchedNgo.getLat());
-            match.setNgoLon(matchedNgo.getLon());
-
-            matchedDonationRepo.save(match);
-        } else {
-            System.out.println("⚠️ No nearby NGO found for this donation.");
+        // Per-event lines are DEBUG only: at INFO they cost more than the match itself under load.
+        // Outcome counts and latencies are in the matching.* meters.
+        MatchedDonation match = processor.process(event);
+
+        if (log.isDebugEnabled()) {
+            if (match != null) {
+                log.debug("donation matched donationId={} donorId={} ngoId={} lat={} lon={}",
+                        event.getDonationId(), event.getDonorId(), match.getNgoId(), event.getLat(), event.getLon());
+            } else {
+                log.debug("donation unmatched donationId={} donorId={} lat={} lon={}",
+                        event.getDonationId(), event.getDonorId(), event.getLat(), event.getLon());
+            }
         }
     }
 }
@@ -0,0 +1,153 @@
+package com.foodmatch.matchingservice.listener;
+
+import com.foodmatch.matchingservice.model.DonationEvent;
+import com.foodmatch.matchingservice.service.DonationMatchProcessor;
+import jakarta.annotation.PreDestroy;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Fans a poll out over a worker pool while keeping per-key order.
+ *
+ * Records with the same key (donorId or 0.01° geo-cell) are chained one after another; different
+ * keys run concurrently, so one consumer can keep Redis and Postgres busy without more partitions.
+ * Offsets are committed by hand: for each partition only the contiguous prefix of completed
+ * records is committed, and the consumer is rewound to the first failure so it is redelivered.
+ * A record that fails max-attempts deliveries in a row is logged and skipped, as the container's
+ * default error handler does for the other modes, so one poison record cannot stall its partition.
+ */
+@Component
+@ConditionalOnProperty(name = "matching.listener.mode", havingValue = "parallel")
+public class ParallelDonationEventListener {
+
+    private static final Logger log = LoggerFactory.getLogger(ParallelDonationEventListener.class);
+
+    private final DonationMatchProcessor processor;
+    private final ExecutorService workers;
+    private final int maxAttempts;
+    // Last failed offset per partition and how many deliveries in a row it has failed
+    private final Map<TopicPartition, FailedOffset> failures = new ConcurrentHashMap<>();
+
+    // donor: order per donorId; cell: order per rounded location
+    @Value("${matching.listener.parallel.key:donor}")
+    private String orderingKey;
+
+    public ParallelDonationEventListener(DonationMatchProcessor processor,
+                                         @Value("${matching.listener.parallel.executor:fixed}") String executor,
+                                         @Value("${matching.listener.parallel.threads:16}") int threads,
+                                         @Value("${matching.listener.parallel.max-attempts:10}") int maxAttempts) {
+        this.processor = processor;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.workers = "virtual".equals(executor)
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(threads);
+    }
+
+    @KafkaListener(
+        topics = "donation.events",
+        groupId = "matching-service-group",
+        containerFactory = "donationKafkaListenerContainerFactory"
+    )
+    public void handleDonations(List<ConsumerRecord<String, DonationEvent>> records, Consumer<?, ?> consumer) {
+        Map<String, CompletableFuture<Void>> tails = new HashMap<>();
+        Map<TopicPartition, List<Dispatched>> byPartition = new LinkedHashMap<>();
+
+        for (ConsumerRecord<String, DonationEvent> record : records) {
+            // Tombstones (null payloads) carry nothing to match
+            Runnable task = record.value() == null ? () -> { } : () -> processor.process(record.value());
+            CompletableFuture<Void> done = tails.compute(orderingKey(record), (key, previous) ->
+                    previous == null
+                            ? CompletableFuture.runAsync(task, workers)
+                            : previous.thenRunAsync(task, workers));
+            byPartition.computeIfAbsent(new TopicPartition(record.topic(), record.partition()), tp -> new ArrayList<>())
+                    .add(new Dispatched(record.offset(), done));
+        }
+
+        CompletableFuture.allOf(tails.values().toArray(new CompletableFuture[0]))
+                .exceptionally(e -> null)
+                .join();
+
+        Map<TopicPartition, OffsetAndMetadata> commits = new HashMap<>();
+        Map<TopicPartition, Long> rewinds = new HashMap<>();
+        for (Map.Entry<TopicPartition, List<Dispatched>> entry : byPartition.entrySet()) {
+            long next = -1;
+            for (Dispatched dispatched : entry.getValue()) {
+                if (dispatched.done().isCompletedExceptionally() && !exhausted(entry.getKey(), dispatched)) {
+                    rewinds.put(entry.getKey(), dispatched.offset());
+                    break;
+                }
+                next = dispatched.offset() + 1;
+            }
+            if (next >= 0) {
+                commits.put(entry.getKey(), new OffsetAndMetadata(next));
+            }
+            if (!rewinds.containsKey(entry.getKey())) {
+                failures.remove(entry.getKey());
+            }
+        }
+
+        if (!commits.isEmpty()) {
+            consumer.commitSync(commits);
+        }
+        rewinds.forEach((partition, offset) -> {
+            log.warn("Donation processing failed on {} at offset {} (attempt {} of {}), rewinding for redelivery",
+                    partition, offset, failures.get(partition).attempts(), maxAttempts);
+            consumer.seek(partition, offset);
+        });
+    }
+
+    // Records one more failed delivery of the offset; true once it has failed maxAttempts times in
+    // a row, in which case it is logged and committed past like a completed record
+    private boolean exhausted(TopicPartition partition, Dispatched dispatched) {
+        FailedOffset previous = failures.get(partition);
+        int attempts = previous != null && previous.offset() == dispatched.offset() ? previous.attempts() + 1 : 1;
+        if (attempts < maxAttempts) {
+            failures.put(partition, new FailedOffset(dispatched.offset(), attempts));
+            return false;
+        }
+        failures.remove(partition);
+        log.error("Skipping donation on {} at offset {} after {} failed attempts", partition, dispatched.offset(),
+                attempts, dispatched.done().exceptionNow());
+        return true;
+    }
+
+    private String orderingKey(ConsumerRecord<String, DonationEvent> record) {
+        DonationEvent event = record.value();
+        if (event == null) {
+            return String.valueOf(record.key());
+        }
+        if ("cell".equals(orderingKey)) {
+            return Math.round(event.getLat() * 100.0) + ":" + Math.round(event.getLon() * 100.0);
+        }
+        return event.getDonorId() != null ? event.getDonorId() : String.valueOf(record.key());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        workers.shutdown();
+    }
+
+    private record Dispatched(long offset, CompletableFuture<Void> done) {
+    }
+
+    private record FailedOffset(long offset, int attempts) {
+    }
+}
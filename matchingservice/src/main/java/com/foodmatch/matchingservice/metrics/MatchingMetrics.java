@@ -0,0 +1,97 @@
+package com.foodmatch.matchingservice.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meters for the donation → match pipeline. Stages are timed with System.nanoTime() deltas
+ * rather than Timer.Sample so the per-event cost is a clock read and a histogram update.
+ */
+@Component
+public class MatchingMetrics {
+
+    private final Timer matchLatency;
+    private final Timer cacheLookup;
+    private final Timer indexSearch;
+    private final Timer dbSave;
+    private final Timer endToEndLag;
+    private final Counter matched;
+    private final Counter unmatched;
+    private final Counter errors;
+    private final Counter duplicates;
+
+    public MatchingMetrics(MeterRegistry registry) {
+        this.matchLatency = Timer.builder("matching.match.latency")
+                .description("Time to pick an NGO for one donation event")
+                .publishPercentileHistogram()
+                .register(registry);
+        this.cacheLookup = Timer.builder("matching.cache.lookup")
+                .description("NGO location cache lookup (L1 then Redis)")
+                .publishPercentileHistogram()
+                .register(registry);
+        this.indexSearch = Timer.builder("matching.index.search")
+                .description("Nearest-NGO search in the spatial index")
+                .publishPercentileHistogram()
+                .register(registry);
+        this.dbSave = Timer.builder("matching.db.save")
+                .description("Transaction writing a batch of matches")
+                .publishPercentileHistogram()
+                .register(registry);
+        this.endToEndLag = Timer.builder("matching.e2e.lag")
+                .description("From the donation event timestamp to its match being committed")
+                .publishPercentileHistogram()
+                .maximumExpectedValue(Duration.ofMinutes(10))
+                .register(registry);
+        this.matched = Counter.builder("matching.donations").tag("outcome", "matched").register(registry);
+        this.unmatched = Counter.builder("matching.donations").tag("outcome", "unmatched").register(registry);
+        this.errors = Counter.builder("matching.donations").tag("outcome", "error").register(registry);
+        this.duplicates = Counter.builder("matching.donations").tag("outcome", "duplicate").register(registry);
+    }
+
+    public void recordMatch(long startNanos) {
+        matchLatency.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordCacheLookup(long startNanos) {
+        cacheLookup.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordIndexSearch(long startNanos) {
+        indexSearch.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordDbSave(long startNanos) {
+        dbSave.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    // Clock skew between hosts can make the lag negative; those samples are dropped
+    public void recordEndToEnd(Instant eventTime, Instant committedAt) {
+        if (eventTime == null) {
+            return;
+        }
+        long lagMillis = committedAt.toEpochMilli() - eventTime.toEpochMilli();
+        if (lagMillis >= 0) {
+            endToEndLag.record(lagMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public void countOutcomes(int matchedCount, int unmatchedCount) {
+        matched.increment(matchedCount);
+        unmatched.increment(unmatchedCount);
+    }
+
+    public void countErrors(int count) {
+        errors.increment(count);
+    }
+
+    // Redelivered events dropped by the recent-id check or by the insert's ON CONFLICT
+    public void countDuplicates(int count) {
+        duplicates.increment(count);
+    }
+}
@@ -5,6 +5,8 @@ import jakarta.persistence.Id;
 import jakarta.persistence.Table;
 import jakarta.persistence.Column;
 
+import java.time.Instant;
+
 @Entity
 @Table(name = "matched_donations")
 public class MatchedDonation {
@@ -18,7 +20,8 @@ public class MatchedDonation {
     private double lat;
     private double lon;
     private int quantity;
-    private String timestamp;
+    @Column(nullable = false)
+    private Instant timestamp;
 
     @Column
     private Double ngoLat;
@@ -84,11 +87,11 @@ public class MatchedDonation {
         this.quantity = quantity;
     }
 
-    public String getTimestamp() {
+    public Instant getTimestamp() {
         return timestamp;
     }
 
-    public void setTimestamp(String timestamp) {
+    public void setTimestamp(Instant timestamp) {
         this.timestamp = timestamp;
     }
 
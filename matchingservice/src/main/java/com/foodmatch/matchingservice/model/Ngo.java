@@ -11,7 +11,7 @@ public class Ngo implements Serializable {
     private String phone;
     private String email;
     private String category;
-    private boolean active;
+    private boolean active = true;
     private int capacity;
     private double rating;
 
@@ -0,0 +1,13 @@
+package com.foodmatch.matchingservice.push;
+
+/**
+ * What a subscriber's queue does when a new match arrives and it is full.
+ */
+public enum DropPolicy {
+    /** Discard the oldest queued match to make room; a slow client sees the most recent matches. */
+    DROP_OLDEST,
+    /** Discard the incoming match; a slow client sees a gap-free prefix. */
+    DROP_NEWEST,
+    /** Close the stream; the client reconnects and refetches its history. */
+    DISCONNECT
+}
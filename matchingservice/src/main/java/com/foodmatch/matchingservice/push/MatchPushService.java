@@ -0,0 +1,206 @@
+package com.foodmatch.matchingservice.push;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.foodmatch.matchingservice.model.MatchedDonation;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes new matches to SSE subscribers filtered by donor or NGO.
+ *
+ * Subscribers are indexed by donorId and ngoId, so a match is offered only to the streams that
+ * want it. Each stream has its own bounded queue and drop policy, and its writes run on a virtual
+ * thread only while it has something to send. With redis-fanout enabled every replica publishes to
+ * a Redis channel and delivers from it, so a client sees matches made by any replica.
+ */
+@Service
+public class MatchPushService {
+
+    private static final Logger log = LoggerFactory.getLogger(MatchPushService.class);
+
+    static final String CHANNEL = "matches:new";
+
+    private final ObjectMapper objectMapper;
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final Map<String, Set<MatchSubscriber>> byDonor = new ConcurrentHashMap<>();
+    private final Map<String, Set<MatchSubscriber>> byNgo = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final ExecutorService drainExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Counter dropped;
+    private final Counter delivered;
+
+    @Value("${matching.push.queue-capacity:64}")
+    private int queueCapacity;
+
+    @Value("${matching.push.drop-policy:DROP_OLDEST}")
+    private DropPolicy dropPolicy;
+
+    @Value("${matching.push.emitter-timeout-ms:1800000}")
+    private long emitterTimeoutMs;
+
+    @Value("${matching.push.max-subscribers:50000}")
+    private int maxSubscribers;
+
+    @Value("${matching.push.redis-fanout:false}")
+    private boolean redisFanout;
+
+    public MatchPushService(ObjectMapper objectMapper, StringRedisTemplate redisTemplate,
+                            RedisMessageListenerContainer listenerContainer, MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.dropped = Counter.builder("matching.push.dropped").register(meterRegistry);
+        this.delivered = Counter.builder("matching.push.offered").register(meterRegistry);
+        Gauge.builder("matching.push.subscribers", subscriberCount, AtomicInteger::get).register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void init() {
+        if (redisFanout) {
+            listenerContainer.addMessageListener((message, pattern) ->
+                    dispatch(new String(message.getBody(), StandardCharsets.UTF_8)), new ChannelTopic(CHANNEL));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        byDonor.values().forEach(set -> set.forEach(MatchSubscriber::close));
+        byNgo.values().forEach(set -> set.forEach(MatchSubscriber::close));
+        drainExecutor.shutdownNow();
+    }
+
+    /**
+     * Opens a stream of matches for a donor, an NGO, or both (a match is sent if either matches).
+     * Throws IllegalStateException when the subscriber limit is reached.
+     */
+    public SseEmitter subscribe(String donorId, String ngoId) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new IllegalStateException("Too many match subscribers");
+        }
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        MatchSubscriber subscriber = new MatchSubscriber(donorId, ngoId, emitter, queueCapacity, dropPolicy,
+                drainExecutor, this::remove, dropped::increment);
+        if (donorId != null) {
+            byDonor.computeIfAbsent(donorId, k -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        }
+        if (ngoId != null) {
+            byNgo.computeIfAbsent(ngoId, k -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        }
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(e -> subscriber.close());
+        // Flush the response headers right away so EventSource reports the stream as open
+        subscriber.offer(MatchSubscriber.HEARTBEAT);
+        return emitter;
+    }
+
+    /** Hands newly persisted matches to their subscribers; never blocks on a slow client. */
+    public void publish(List<MatchedDonation> matches) {
+        if (matches.isEmpty() || (!redisFanout && subscriberCount.get() == 0)) {
+            return;
+        }
+        for (MatchedDonation match : matches) {
+            String json;
+            try {
+                json = objectMapper.writeValueAsString(match);
+            } catch (JsonProcessingException e) {
+                continue;
+            }
+            if (redisFanout) {
+                redisTemplate.convertAndSend(CHANNEL, json);
+            } else {
+                deliver(match.getDonationId(), match.getDonorId(), match.getNgoId(), json);
+            }
+        }
+    }
+
+    // Messages from the Redis channel, including our own
+    private void dispatch(String json) {
+        if (subscriberCount.get() == 0) {
+            return;
+        }
+        try {
+            MatchedDonation match = objectMapper.readValue(json, MatchedDonation.class);
+            deliver(match.getDonationId(), match.getDonorId(), match.getNgoId(), json);
+        } catch (JsonProcessingException e) {
+            log.warn("Ignoring malformed match notification: {}", e.getMessage());
+        }
+    }
+
+    private void deliver(String donationId, String donorId, String ngoId, String json) {
+        MatchSubscriber.Item item = new MatchSubscriber.Item(donationId, json);
+        Set<MatchSubscriber> donorSubscribers = donorId != null ? byDonor.get(donorId) : null;
+        if (donorSubscribers != null) {
+            for (MatchSubscriber subscriber : donorSubscribers) {
+                subscriber.offer(item);
+                delivered.increment();
+            }
+        }
+        Set<MatchSubscriber> ngoSubscribers = ngoId != null ? byNgo.get(ngoId) : null;
+        if (ngoSubscribers != null) {
+            for (MatchSubscriber subscriber : ngoSubscribers) {
+                // Already offered through its donor filter
+                if (donorSubscribers != null && donorSubscribers.contains(subscriber)) {
+                    continue;
+                }
+                subscriber.offer(item);
+                delivered.increment();
+            }
+        }
+    }
+
+    // Keeps idle connections from being cut by proxies and finds clients that disappeared
+    @Scheduled(fixedDelayString = "${matching.push.heartbeat-ms:25000}")
+    public void heartbeat() {
+        byDonor.values().forEach(set -> set.forEach(s -> s.offer(MatchSubscriber.HEARTBEAT)));
+        byNgo.values().forEach(set -> set.forEach(s -> {
+            if (s.donorId == null) {
+                s.offer(MatchSubscriber.HEARTBEAT);
+            }
+        }));
+    }
+
+    public int getSubscriberCount() {
+        return subscriberCount.get();
+    }
+
+    private void remove(MatchSubscriber subscriber) {
+        if (subscriber.donorId != null) {
+            byDonor.computeIfPresent(subscriber.donorId, (k, set) -> {
+                set.remove(subscriber);
+                return set.isEmpty() ? null : set;
+            });
+        }
+        if (subscriber.ngoId != null) {
+            byNgo.computeIfPresent(subscriber.ngoId, (k, set) -> {
+                set.remove(subscriber);
+                return set.isEmpty() ? null : set;
+            });
+        }
+        subscriberCount.decrementAndGet();
+    }
+}
@@ -0,0 +1,111 @@
+package com.foodmatch.matchingservice.push;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * One open SSE stream. Matches are queued in a bounded buffer and written by a drain task that
+ * only exists while the buffer is non-empty, so an idle subscriber holds no thread.
+ */
+class MatchSubscriber {
+
+    // Serialized once per match and shared by every subscriber it is delivered to
+    record Item(String id, String json) {
+    }
+
+    static final Item HEARTBEAT = new Item(null, null);
+
+    final String donorId;
+    final String ngoId;
+
+    private final SseEmitter emitter;
+    private final ArrayBlockingQueue<Item> queue;
+    private final DropPolicy dropPolicy;
+    private final Executor drainExecutor;
+    private final Consumer<MatchSubscriber> onClose;
+    private final Runnable onDrop;
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    MatchSubscriber(String donorId, String ngoId, SseEmitter emitter, int capacity, DropPolicy dropPolicy,
+                    Executor drainExecutor, Consumer<MatchSubscriber> onClose, Runnable onDrop) {
+        this.donorId = donorId;
+        this.ngoId = ngoId;
+        this.emitter = emitter;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.dropPolicy = dropPolicy;
+        this.drainExecutor = drainExecutor;
+        this.onClose = onClose;
+        this.onDrop = onDrop;
+    }
+
+    // Called from the publishing thread; never blocks
+    void offer(Item item) {
+        if (closed.get()) {
+            return;
+        }
+        if (item == HEARTBEAT && !queue.isEmpty()) {
+            return;
+        }
+        while (!queue.offer(item)) {
+            onDrop.run();
+            switch (dropPolicy) {
+                case DROP_NEWEST -> {
+                    return;
+                }
+                case DISCONNECT -> {
+                    close();
+                    return;
+                }
+                case DROP_OLDEST -> queue.poll();
+            }
+        }
+        if (draining.compareAndSet(false, true)) {
+            drainExecutor.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        while (true) {
+            Item item = queue.poll();
+            if (item == null) {
+                draining.set(false);
+                // Re-check: an offer may have seen draining=true just before we cleared it
+                if (queue.isEmpty() || !draining.compareAndSet(false, true)) {
+                    return;
+                }
+                continue;
+            }
+            try {
+                if (item == HEARTBEAT) {
+                    emitter.send(SseEmitter.event().comment("keep-alive"));
+                } else {
+                    emitter.send(SseEmitter.event().name("match").id(item.id()).data(item.json(), MediaType.APPLICATION_JSON));
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Client went away or the emitter already completed
+                close();
+                draining.set(false);
+                return;
+            }
+        }
+    }
+
+    void close() {
+        if (closed.compareAndSet(false, true)) {
+            queue.clear();
+            onClose.accept(this);
+            emitter.complete();
+        }
+    }
+
+    boolean isClosed() {
+        return closed.get();
+    }
+}
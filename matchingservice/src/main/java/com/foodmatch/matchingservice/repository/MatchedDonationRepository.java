@@ -1,12 +1,76 @@
 package com.foodmatch.matchingservice.repository;
 
 import com.foodmatch.matchingservice.model.MatchedDonation;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface MatchedDonationRepository extends JpaRepository<MatchedDonation, String> {
     List<MatchedDonation> findByDonorId(String donorId);
+
+    // Per-NGO and time-range lookups, served by idx_matched_donations_ngo / idx_matched_donations_timestamp
+
+    List<MatchedDonation> findByNgoIdAndTimestampBetweenOrderByTimestampAscDonationIdAsc(String ngoId,
+                                                                                        Instant from,
+                                                                                        Instant to,
+                                                                                        Limit limit);
+
+    List<MatchedDonation> findByTimestampBetweenOrderByTimestampAscDonationIdAsc(Instant from, Instant to, Limit limit);
+
+    // Busiest donation locations since a point in time, for cache warm-up. Rows are
+    // {latIndex, lonIndex, donations}, rounded like LocationCell.of (floor(x + 0.5) is Math.round).
+    @Query(value = "select cast(floor(lat * 100 + 0.5) as integer) as lat_index, " +
+            "cast(floor(lon * 100 + 0.5) as integer) as lon_index, count(*) as donations " +
+            "from matched_donations where timestamp >= :since " +
+            "group by 1, 2 order by donations desc limit :limit", nativeQuery = true)
+    List<Object[]> findHotCells(@Param("since") Instant since, @Param("limit") int limit);
+
+    // Keyset pages ordered by (timestamp, donationId): first page, then everything after a cursor
+
+    List<MatchedDonation> findAllByOrderByTimestampAscDonationIdAsc(Limit limit);
+
+    @Query("select m from MatchedDonation m " +
+            "where m.timestamp > :timestamp or (m.timestamp = :timestamp and m.donationId > :donationId) " +
+            "order by m.timestamp, m.donationId")
+    List<MatchedDonation> findPageAfter(@Param("timestamp") Instant timestamp,
+                                        @Param("donationId") String donationId,
+                                        Limit limit);
+
+    List<MatchedDonation> findByDonorIdOrderByTimestampAscDonationIdAsc(String donorId, Limit limit);
+
+    @Query("select m from MatchedDonation m where m.donorId = :donorId " +
+            "and (m.timestamp > :timestamp or (m.timestamp = :timestamp and m.donationId > :donationId)) " +
+            "order by m.timestamp, m.donationId")
+    List<MatchedDonation> findPageByDonorIdAfter(@Param("donorId") String donorId,
+                                                 @Param("timestamp") Instant timestamp,
+                                                 @Param("donationId") String donationId,
+                                                 Limit limit);
+
+    // Cursor-backed streams for full exports; must be consumed inside a transaction and closed.
+    // Read-only skips Hibernate's dirty-checking snapshots, the fetch size keeps the JDBC driver
+    // from buffering the whole result set.
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select m from MatchedDonation m order by m.timestamp, m.donationId")
+    Stream<MatchedDonation> streamAll();
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select m from MatchedDonation m where m.donorId = :donorId order by m.timestamp, m.donationId")
+    Stream<MatchedDonation> streamByDonorId(@Param("donorId") String donorId);
 }
@@ -0,0 +1,191 @@
+package com.foodmatch.matchingservice.service;
+
+import com.foodmatch.matchingservice.geo.LocationCell;
+import com.foodmatch.matchingservice.geo.NgoSpatialIndex;
+import com.foodmatch.matchingservice.model.Ngo;
+import com.foodmatch.matchingservice.repository.MatchedDonationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Pre-loads the NGO location cache with the cells donations actually come from, so a deploy does
+ * not start with every lookup missing both tiers.
+ *
+ * Hot cells are the busiest LocationCells in matched_donations over the look-back window. Each one
+ * is resolved against the spatial index from its centre and written in batches, one pipelined Redis
+ * round trip per batch, from a small pool. On startup the Kafka listener containers are held back
+ * (see KafkaConsumerConfig) and started when the run ends, whether it succeeded or not.
+ */
+@Service
+public class CacheWarmupService {
+
+    private static final Logger log = LoggerFactory.getLogger(CacheWarmupService.class);
+
+    public enum Status { IDLE, RUNNING, DONE, SKIPPED, FAILED }
+
+    private final MatchedDonationRepository repository;
+    private final MatchingService matchingService;
+    private final NgoCacheService ngoCacheService;
+    private final KafkaListenerEndpointRegistry listenerRegistry;
+    private final boolean enabled;
+    private final int lookbackHours;
+    private final int maxCells;
+    private final int batchSize;
+    private final int parallelism;
+
+    private final AtomicReference<Status> status = new AtomicReference<>(Status.IDLE);
+    private final AtomicInteger cellsTotal = new AtomicInteger();
+    private final AtomicInteger cellsWarmed = new AtomicInteger();
+    private final AtomicInteger cellsMatched = new AtomicInteger();
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile String detail;
+
+    public CacheWarmupService(MatchedDonationRepository repository,
+                              MatchingService matchingService,
+                              NgoCacheService ngoCacheService,
+                              KafkaListenerEndpointRegistry listenerRegistry,
+                              @Value("${matching.cache.warmup.enabled:true}") boolean enabled,
+                              @Value("${matching.cache.warmup.lookback-hours:168}") int lookbackHours,
+                              @Value("${matching.cache.warmup.max-cells:20000}") int maxCells,
+                              @Value("${matching.cache.warmup.batch-size:500}") int batchSize,
+                              @Value("${matching.cache.warmup.parallelism:4}") int parallelism) {
+        this.repository = repository;
+        this.matchingService = matchingService;
+        this.ngoCacheService = ngoCacheService;
+        this.listenerRegistry = listenerRegistry;
+        this.enabled = enabled;
+        this.lookbackHours = lookbackHours;
+        this.maxCells = maxCells;
+        this.batchSize = Math.max(1, batchSize);
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmOnStartup() {
+        if (enabled) {
+            start(lookbackHours, maxCells, listenerRegistry::start);
+        }
+    }
+
+    // Runs a warm-up in the background; false when one is already in progress
+    public boolean start(int hours, int cells) {
+        return start(hours, cells, () -> { });
+    }
+
+    private boolean start(int hours, int cells, Runnable then) {
+        Status current = status.get();
+        if (current == Status.RUNNING || !status.compareAndSet(current, Status.RUNNING)) {
+            return false;
+        }
+        Thread.ofPlatform().name("cache-warmup").daemon(true).start(() -> {
+            try {
+                run(hours, cells);
+            } finally {
+                then.run();
+            }
+        });
+        return true;
+    }
+
+    private void run(int hours, int limit) {
+        startedAt = Instant.now();
+        finishedAt = null;
+        detail = null;
+        cellsTotal.set(0);
+        cellsWarmed.set(0);
+        cellsMatched.set(0);
+        try {
+            if (matchingService.isCapacityAware() || matchingService.isCellTableActive()) {
+                // Neither path reads the location cache
+                detail = matchingService.isCapacityAware() ? "capacity engine" : "cell table active";
+                status.set(Status.SKIPPED);
+                return;
+            }
+            List<Object[]> rows = repository.findHotCells(startedAt.minus(Duration.ofHours(hours)), limit);
+            long[] cells = new long[rows.size()];
+            for (int i = 0; i < cells.length; i++) {
+                Object[] row = rows.get(i);
+                cells[i] = LocationCell.pack(((Number) row[0]).intValue(), ((Number) row[1]).intValue());
+            }
+            cellsTotal.set(cells.length);
+
+            try (ExecutorService pool = Executors.newFixedThreadPool(parallelism)) {
+                List<Future<?>> batches = new ArrayList<>();
+                for (int from = 0; from < cells.length; from += batchSize) {
+                    long[] batch = Arrays.copyOfRange(cells, from, Math.min(cells.length, from + batchSize));
+                    batches.add(pool.submit(() -> warmBatch(batch)));
+                }
+                for (Future<?> batch : batches) {
+                    batch.get();
+                }
+            }
+            status.set(Status.DONE);
+            log.info("Cache warm-up done: {} cells ({} with an NGO in range) in {} ms",
+                    cellsWarmed.get(), cellsMatched.get(), Duration.between(startedAt, Instant.now()).toMillis());
+        } catch (Exception e) {
+            detail = e.getMessage();
+            status.set(Status.FAILED);
+            log.warn("Cache warm-up failed after {} of {} cells: {}", cellsWarmed.get(), cellsTotal.get(), e.getMessage());
+        } finally {
+            finishedAt = Instant.now();
+        }
+    }
+
+    private void warmBatch(long[] cells) {
+        NgoSpatialIndex index = matchingService.getNgoIndex();
+        Ngo[] ngos = new Ngo[cells.length];
+        int matched = 0;
+        for (int i = 0; i < cells.length; i++) {
+            ngos[i] = index.nearest(LocationCell.lat(cells[i]), LocationCell.lon(cells[i]),
+                    MatchingService.MAX_MATCH_DISTANCE_KM);
+            if (ngos[i] != null) {
+                matched++;
+            }
+        }
+        ngoCacheService.cacheNgoLocations(cells, ngos);
+        cellsMatched.addAndGet(matched);
+        cellsWarmed.addAndGet(cells.length);
+    }
+
+    public Map<String, Object> progress() {
+        Map<String, Object> progress = new LinkedHashMap<>();
+        int total = cellsTotal.get();
+        int warmed = cellsWarmed.get();
+        progress.put("status", status.get());
+        progress.put("cellsTotal", total);
+        progress.put("cellsWarmed", warmed);
+        progress.put("cellsMatched", cellsMatched.get());
+        progress.put("percent", total == 0 ? 0 : warmed * 100 / total);
+        progress.put("startedAt", startedAt);
+        progress.put("finishedAt", finishedAt);
+        if (startedAt != null) {
+            progress.put("durationMs", Duration.between(startedAt, finishedAt != null ? finishedAt : Instant.now()).toMillis());
+        }
+        if (detail != null) {
+            progress.put("detail", detail);
+        }
+        progress.put("listenersRunning", listenerRegistry.getListenerContainers().stream()
+                .anyMatch(MessageListenerContainer::isRunning));
+        return progress;
+    }
+}
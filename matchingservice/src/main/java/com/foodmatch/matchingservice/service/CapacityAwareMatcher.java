@@ -0,0 +1,106 @@
+package com.foodmatch.matchingservice.service;
+
+import com.foodmatch.matchingservice.geo.GeoDistance;
+import com.foodmatch.matchingservice.geo.NgoSpatialIndex;
+import com.foodmatch.matchingservice.model.DonationEvent;
+import com.foodmatch.matchingservice.model.Ngo;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Picks an NGO for a donation by weighing distance, remaining capacity and rating, then reserves
+ * the donated quantity against that NGO. When the reservation loses a race (another partition
+ * took the last units) the next best candidate is tried.
+ *
+ * Lower score is better:
+ *   distanceWeight * d / maxKm + capacityWeight * (1 - remaining / capacity) + ratingWeight * (1 - rating / 5)
+ * NGOs with capacity <= 0 are treated as unlimited.
+ */
+@Service
+public class CapacityAwareMatcher {
+
+    private static final double MAX_RATING = 5.0;
+
+    private final CapacityLedger ledger;
+    private final double distanceWeight;
+    private final double capacityWeight;
+    private final double ratingWeight;
+
+    public CapacityAwareMatcher(CapacityLedger ledger,
+                                @Value("${matching.capacity.weight.distance:0.6}") double distanceWeight,
+                                @Value("${matching.capacity.weight.capacity:0.3}") double capacityWeight,
+                                @Value("${matching.capacity.weight.rating:0.1}") double ratingWeight) {
+        this.ledger = ledger;
+        this.distanceWeight = distanceWeight;
+        this.capacityWeight = capacityWeight;
+        this.ratingWeight = ratingWeight;
+    }
+
+    public Ngo match(DonationEvent event, NgoSpatialIndex index, double maxKm) {
+        List<Ngo> candidates = new ArrayList<>();
+        for (Ngo ngo : index.withinRange(event.getLat(), event.getLon(), maxKm)) {
+            if (ngo.isActive()) {
+                candidates.add(ngo);
+            }
+        }
+        if (candidates.isEmpty()) {
+            return null;
+        }
+
+        int[] reserved = ledger.reserved(candidates.stream().map(Ngo::getId).toList());
+        double[] scores = new double[candidates.size()];
+        for (int i = 0; i < scores.length; i++) {
+            scores[i] = score(event, candidates.get(i), reserved[i], maxKm);
+        }
+
+        // The best candidate almost always wins its reservation, so pick minimums one at a time
+        // instead of sorting the whole candidate list up front
+        while (true) {
+            int best = -1;
+            for (int i = 0; i < scores.length; i++) {
+                if (scores[i] < Double.POSITIVE_INFINITY && (best < 0 || scores[i] < scores[best])) {
+                    best = i;
+                }
+            }
+            if (best < 0) {
+                return null;
+            }
+            Ngo ngo = candidates.get(best);
+            if (ngo.getCapacity() <= 0 || ledger.tryReserve(ngo.getId(), ngo.getCapacity(), event.getQuantity())) {
+                return ngo;
+            }
+            scores[best] = Double.POSITIVE_INFINITY;
+        }
+    }
+
+    // Undo the reservation made for a match that is being removed
+    public void release(String ngoId, int quantity) {
+        ledger.release(ngoId, quantity);
+    }
+
+    public CapacityLedger getLedger() {
+        return ledger;
+    }
+
+    double score(DonationEvent event, Ngo ngo, int reserved, double maxKm) {
+        double distance = GeoDistance.haversine(event.getLat(), event.getLon(), ngo.getLat(), ngo.getLon());
+        if (distance >= maxKm) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double fullness = 0.0;
+        if (ngo.getCapacity() > 0) {
+            int remaining = ngo.getCapacity() - reserved;
+            if (remaining < event.getQuantity()) {
+                return Double.POSITIVE_INFINITY;
+            }
+            fullness = 1.0 - (double) remaining / ngo.getCapacity();
+        }
+        double rating = Math.min(Math.max(ngo.getRating(), 0.0), MAX_RATING);
+        return distanceWeight * distance / maxKm
+                + capacityWeight * fullness
+                + ratingWeight * (1.0 - rating / MAX_RATING);
+    }
+}
@@ -0,0 +1,26 @@
+package com.foodmatch.matchingservice.service;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tracks how much of each NGO's capacity is already promised to matched donations.
+ * tryReserve must be atomic: two matchers racing for the last units of an NGO can never both win.
+ */
+public interface CapacityLedger {
+
+    // Reserve quantity against ngoId if reserved + quantity stays within capacity
+    boolean tryReserve(String ngoId, int capacity, int quantity);
+
+    // Give quantity back, e.g. when a match is deleted; never drops below zero
+    void release(String ngoId, int quantity);
+
+    // Currently reserved quantity per NGO, in the same order as ngoIds
+    int[] reserved(List<String> ngoIds);
+
+    void reset(String ngoId);
+
+    // Load the current period's totals rebuilt from the stored matches, before any matching starts. Returns
+    // false when the ledger already holds reservations it should keep instead.
+    boolean seed(Map<String, Integer> reserved);
+}
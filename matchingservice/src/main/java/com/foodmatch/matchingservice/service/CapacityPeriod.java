@@ -0,0 +1,30 @@
+package com.foodmatch.matchingservice.service;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
+/**
+ * NGO capacity is per UTC day: a reservation counts against the day it was made and every
+ * counter starts from zero at midnight UTC. Stored matches belong to the day of their timestamp,
+ * so only matches from the current day are seeded into the ledger or released from it.
+ */
+public final class CapacityPeriod {
+
+    private CapacityPeriod() {
+    }
+
+    public static LocalDate current(Clock clock) {
+        return LocalDate.now(clock.withZone(ZoneOffset.UTC));
+    }
+
+    public static Instant start(LocalDate day) {
+        return day.atStartOfDay(ZoneOffset.UTC).toInstant();
+    }
+
+    // True when a match with this timestamp is counted in today's reservations
+    public static boolean isCurrent(Instant timestamp, Clock clock) {
+        return timestamp != null && !timestamp.isBefore(start(current(clock)));
+    }
+}
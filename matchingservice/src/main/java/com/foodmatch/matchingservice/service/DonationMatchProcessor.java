@@ -0,0 +1,231 @@
+package com.foodmatch.matchingservice.service;
+
+import com.foodmatch.matchingservice.analytics.DemandAggregator;
+import com.foodmatch.matchingservice.assignment.MicroBatchAssigner;
+import com.foodmatch.matchingservice.metrics.MatchingMetrics;
+import com.foodmatch.matchingservice.model.DonationEvent;
+import com.foodmatch.matchingservice.model.MatchedDonation;
+import com.foodmatch.matchingservice.model.Ngo;
+import com.foodmatch.matchingservice.push.MatchPushService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Turns donation events into persisted matches. Shared by the per-record and batch listeners.
+ *
+ * Processing is idempotent per donationId. Events this replica has already written or found no
+ * NGO for are dropped before matching; anything else is matched and inserted with ON CONFLICT DO NOTHING, and a match
+ * that turns out to exist already gives back its capacity reservation and has no side effects.
+ * Events without a donationId cannot be stored; they are counted as errors and dropped.
+ */
+@Service
+public class DonationMatchProcessor {
+
+    private static final Logger log = LoggerFactory.getLogger(DonationMatchProcessor.class);
+
+    private final MatchingService matchingService;
+    private final MatchedDonationWriter writer;
+    private final MicroBatchAssigner assigner;
+    private final DonorHistoryCache historyCache;
+    private final MatchPushService pushService;
+    private final MatchingMetrics metrics;
+    private final DemandAggregator demand;
+    private final RecentDonationIds recentIds;
+
+    public DonationMatchProcessor(MatchingService matchingService, MatchedDonationWriter writer,
+                                  MicroBatchAssigner assigner, DonorHistoryCache historyCache,
+                                  MatchPushService pushService, MatchingMetrics metrics, DemandAggregator demand,
+                                  @Value("${matching.dedup.recent-ids:50000}") int recentIdCapacity) {
+        this.matchingService = matchingService;
+        this.writer = writer;
+        this.assigner = assigner;
+        this.historyCache = historyCache;
+        this.pushService = pushService;
+        this.metrics = metrics;
+        this.demand = demand;
+        this.recentIds = new RecentDonationIds(recentIdCapacity);
+    }
+
+    // Match a single event and persist it; returns the match, or null when no NGO is in range or
+    // the donation was already matched
+    public MatchedDonation process(DonationEvent event) {
+        if (event.getDonationId() == null) {
+            log.warn("Dropping donation event without a donationId (donor {})", event.getDonorId());
+            metrics.countErrors(1);
+            return null;
+        }
+        if (assigner.isEnabled()) {
+            List<MatchedDonation> matches = processBatch(List.of(event));
+            return matches.isEmpty() ? null : matches.get(0);
+        }
+        if (recentIds.contains(event.getDonationId())) {
+            metrics.countDuplicates(1);
+            return null;
+        }
+        try {
+            Ngo matchedNgo = matchingService.matchDonation(event);
+            if (matchedNgo == null) {
+                metrics.countOutcomes(0, 1);
+                demand.recordUnmatched(List.of(event));
+                recentIds.addAll(List.of(event.getDonationId()));
+                return null;
+            }
+            MatchedDonation match = toMatchedDonation(event, matchedNgo);
+            List<MatchedDonation> saved = save(List.of(event), List.of(match));
+            return saved.isEmpty() ? null : match;
+        } catch (RuntimeException e) {
+            metrics.countErrors(1);
+            throw e;
+        }
+    }
+
+    // Match a whole poll batch, then write every match in a single statement. In assignment
+    // mode the batch joins the current window and is solved together with concurrent batches.
+    // Returns the matches that were new.
+    public List<MatchedDonation> processBatch(List<DonationEvent> events) {
+        List<DonationEvent> fresh = new ArrayList<>(events.size());
+        Set<String> batchIds = new HashSet<>();
+        int invalid = 0;
+        for (DonationEvent event : events) {
+            String donationId = event.getDonationId();
+            // donation_id is the primary key: one null would fail the insert for the whole batch
+            if (donationId == null) {
+                invalid++;
+            } else if (!recentIds.contains(donationId) && batchIds.add(donationId)) {
+                fresh.add(event);
+            }
+        }
+        if (invalid > 0) {
+            log.warn("Dropping {} donation events without a donationId", invalid);
+            metrics.countErrors(invalid);
+        }
+        if (fresh.size() + invalid < events.size()) {
+            metrics.countDuplicates(events.size() - invalid - fresh.size());
+        }
+        if (fresh.isEmpty()) {
+            return List.of();
+        }
+        try {
+            if (assigner.isEnabled()) {
+                return save(fresh, assigner.submit(fresh).join());
+            }
+            List<MatchedDonation> matches = new ArrayList<>(fresh.size());
+            for (DonationEvent event : fresh) {
+                Ngo matchedNgo = matchingService.matchDonation(event);
+                if (matchedNgo != null) {
+                    matches.add(toMatchedDonation(event, matchedNgo));
+                }
+            }
+            return save(fresh, matches);
+        } catch (RuntimeException e) {
+            metrics.countErrors(fresh.size());
+            throw e;
+        }
+    }
+
+    // Evict and push only after the transaction has committed, so a refill cannot read the old
+    // rows and subscribers never see a match that was rolled back. Matches that were already in
+    // the table (redelivered after a rebalance or restart) release their reservation instead.
+    private List<MatchedDonation> save(List<DonationEvent> events, List<MatchedDonation> matches) {
+        long start = System.nanoTime();
+        Set<String> inserted = writer.insertNew(matches);
+        metrics.recordDbSave(start);
+
+        List<MatchedDonation> fresh = new ArrayList<>(inserted.size());
+        List<String> written = new ArrayList<>(matches.size());
+        for (MatchedDonation match : matches) {
+            written.add(match.getDonationId());
+            if (inserted.contains(match.getDonationId())) {
+                fresh.add(match);
+            } else {
+                releaseReservation(match);
+            }
+        }
+        recentIds.addAll(written);
+        int duplicates = matches.size() - fresh.size();
+        metrics.countDuplicates(duplicates);
+        metrics.countOutcomes(fresh.size(), events.size() - matches.size());
+        demand.recordMatched(fresh);
+        if (matches.size() < events.size()) {
+            Set<String> matched = new HashSet<>(written);
+            List<DonationEvent> unmatched = events.stream()
+                    .filter(event -> !matched.contains(event.getDonationId())).toList();
+            demand.recordUnmatched(unmatched);
+            recentIds.addAll(unmatched.stream().map(DonationEvent::getDonationId).toList());
+        }
+        if (!fresh.isEmpty()) {
+            // Lag is sampled from the event's own timestamp: the match-time fallback would record ~0
+            Instant committedAt = Instant.now();
+            for (DonationEvent event : events) {
+                if (inserted.contains(event.getDonationId())) {
+                    metrics.recordEndToEnd(eventTime(event.getTimestamp()), committedAt);
+                }
+            }
+            Set<String> donors = new HashSet<>();
+            for (MatchedDonation match : fresh) {
+                donors.add(match.getDonorId());
+            }
+            historyCache.evict(donors);
+            pushService.publish(fresh);
+        }
+        return fresh;
+    }
+
+    private void releaseReservation(MatchedDonation match) {
+        if (assigner.isEnabled()) {
+            assigner.release(match.getNgoId(), match.getQuantity());
+        } else {
+            matchingService.releaseMatch(match.getNgoId(), match.getQuantity());
+        }
+    }
+
+    public static MatchedDonation toMatchedDonation(DonationEvent event, Ngo ngo) {
+        MatchedDonation match = new MatchedDonation();
+        match.setDonationId(event.getDonationId());
+        match.setDonorId(event.getDonorId());
+        match.setLat(event.getLat());
+        match.setLon(event.getLon());
+        match.setQuantity(event.getQuantity());
+        match.setTimestamp(parseTimestamp(event.getTimestamp()));
+        match.setNgoId(ngo.getId());
+        match.setNgoName(ngo.getName());
+        match.setNgoLat(ngo.getLat());
+        match.setNgoLon(ngo.getLon());
+        return match;
+    }
+
+    // The stored timestamp column is NOT NULL: missing or unreadable ones fall back to the match time
+    static Instant parseTimestamp(String timestamp) {
+        Instant eventTime = eventTime(timestamp);
+        return eventTime != null ? eventTime : Instant.now();
+    }
+
+    // Events carry the donor-side timestamp as text, normally Date.toISOString() from the frontend.
+    // Offset-less values are taken as UTC; null when missing or unreadable.
+    static Instant eventTime(String timestamp) {
+        if (timestamp == null || timestamp.isBlank()) {
+            return null;
+        }
+        try {
+            return OffsetDateTime.parse(timestamp).toInstant();
+        } catch (DateTimeParseException e) {
+            try {
+                return LocalDateTime.parse(timestamp).toInstant(ZoneOffset.UTC);
+            } catch (DateTimeParseException ignored) {
+                return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.foodmatch.matchingservice.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.foodmatch.matchingservice.model.MatchedDonation;
+import com.foodmatch.matchingservice.repository.MatchedDonationRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Read-through cache of GET /matches/{donorId}. Each donor's history is stored in Redis as the
+ * ready-to-send JSON array plus its ETag, so a hit costs one HMGET and no serialization, and an
+ * If-None-Match hit costs one HGET.
+ *
+ * Writers evict by bumping a per-donor generation counter; a reader only stores what it loaded
+ * if the generation is unchanged, so a fill racing with a new match cannot cache stale data.
+ * evictAll bumps a global generation that every fill checks as well, so a fill that loaded its
+ * rows before a clear cannot store them after the clear has deleted the cached histories.
+ */
+@Service
+public class DonorHistoryCache {
+
+    /** A cached history: the JSON array body and its quoted strong ETag. */
+    public record CachedHistory(String etag, String body) {
+    }
+
+    private static final String KEY_PREFIX = "matches:donor:";
+    private static final String GEN_PREFIX = "matches:donor-gen:";
+    // Outside GEN_PREFIX so no donorId can collide with it
+    private static final String GLOBAL_GEN_KEY = "matches:donor-gen-all";
+
+    private static final RedisScript<Long> FILL = new DefaultRedisScript<>(
+            "if (redis.call('GET', KEYS[2]) or '0') ~= ARGV[1] then return 0 end " +
+            "if (redis.call('GET', KEYS[3]) or '0') ~= ARGV[2] then return 0 end " +
+            "redis.call('HSET', KEYS[1], 'etag', ARGV[3], 'body', ARGV[4]) " +
+            "redis.call('EXPIRE', KEYS[1], ARGV[5]) " +
+            "return 1", Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final MatchedDonationRepository repository;
+    private final ObjectMapper objectMapper;
+    private final RedisKeyScanner keyScanner;
+
+    @Value("${matching.history.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${matching.history.cache.ttl-seconds:600}")
+    private long ttlSeconds;
+
+    // Larger histories are streamed from the database instead of being held in Redis
+    @Value("${matching.history.cache.max-rows:1000}")
+    private int maxRows;
+
+    public DonorHistoryCache(StringRedisTemplate redisTemplate, MatchedDonationRepository repository,
+                             ObjectMapper objectMapper, RedisKeyScanner keyScanner) {
+        this.redisTemplate = redisTemplate;
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.keyScanner = keyScanner;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Current ETag of a cached history, or null when it is not cached. */
+    public String cachedEtag(String donorId) {
+        Object etag = redisTemplate.opsForHash().get(KEY_PREFIX + donorId, "etag");
+        return etag != null ? etag.toString() : null;
+    }
+
+    /**
+     * The donor's history, from Redis or loaded and cached on a miss. Returns null when the
+     * history has more than max-rows matches; callers stream it from the database instead.
+     */
+    public CachedHistory get(String donorId) throws JsonProcessingException {
+        String key = KEY_PREFIX + donorId;
+        List<Object> cached = redisTemplate.opsForHash().multiGet(key, List.of("etag", "body"));
+        if (cached.get(0) != null && cached.get(1) != null) {
+            return new CachedHistory(cached.get(0).toString(), cached.get(1).toString());
+        }
+
+        List<String> generations = redisTemplate.opsForValue().multiGet(List.of(GEN_PREFIX + donorId, GLOBAL_GEN_KEY));
+        List<MatchedDonation> rows = repository.findByDonorIdOrderByTimestampAscDonationIdAsc(donorId, Limit.of(maxRows + 1));
+        if (rows.size() > maxRows) {
+            return null;
+        }
+        String body = objectMapper.writeValueAsString(rows);
+        String etag = etag(body);
+        redisTemplate.execute(FILL, List.of(key, GEN_PREFIX + donorId, GLOBAL_GEN_KEY),
+                generationOf(generations, 0), generationOf(generations, 1), etag, body, String.valueOf(ttlSeconds));
+        return new CachedHistory(etag, body);
+    }
+
+    /** Drops the cached histories of these donors; called after their matches change. */
+    public void evict(Collection<String> donorIds) {
+        if (!enabled || donorIds.isEmpty()) {
+            return;
+        }
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection redis = (StringRedisConnection) connection;
+            for (String donorId : donorIds) {
+                redis.incr(GEN_PREFIX + donorId);
+                redis.expire(GEN_PREFIX + donorId, ttlSeconds * 2);
+                redis.unlink(KEY_PREFIX + donorId);
+            }
+            return null;
+        });
+    }
+
+    // Bump first: once the scan has passed a key, an in-flight fill must not be able to put it back
+    public void evictAll() {
+        if (!enabled) {
+            return;
+        }
+        redisTemplate.opsForValue().increment(GLOBAL_GEN_KEY);
+        keyScanner.deleteMatching(KEY_PREFIX + "*");
+    }
+
+    private static String generationOf(List<String> generations, int i) {
+        String generation = generations != null ? generations.get(i) : null;
+        return generation != null ? generation : "0";
+    }
+
+    private static String etag(String body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body.getBytes(StandardCharsets.UTF_8));
+            return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
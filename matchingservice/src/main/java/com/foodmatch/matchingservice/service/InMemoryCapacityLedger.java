@@ -0,0 +1,90 @@
+package com.foodmatch.matchingservice.service;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Lock-free ledger for a single replica: one AtomicInteger per NGO, reserved with a CAS loop.
+ * The counters belong to the current {@link CapacityPeriod}; the first call after midnight UTC
+ * swaps in an empty set.
+ */
+public class InMemoryCapacityLedger implements CapacityLedger {
+
+    private record Period(LocalDate day, ConcurrentHashMap<String, AtomicInteger> reserved) {
+    }
+
+    private final Clock clock;
+    private final AtomicReference<Period> period;
+
+    public InMemoryCapacityLedger() {
+        this(Clock.systemUTC());
+    }
+
+    public InMemoryCapacityLedger(Clock clock) {
+        this.clock = clock;
+        this.period = new AtomicReference<>(new Period(CapacityPeriod.current(clock), new ConcurrentHashMap<>()));
+    }
+
+    @Override
+    public boolean tryReserve(String ngoId, int capacity, int quantity) {
+        AtomicInteger counter = reserved().computeIfAbsent(ngoId, id -> new AtomicInteger());
+        while (true) {
+            int current = counter.get();
+            if (current + quantity > capacity) {
+                return false;
+            }
+            if (counter.compareAndSet(current, current + quantity)) {
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public void release(String ngoId, int quantity) {
+        AtomicInteger counter = reserved().get(ngoId);
+        if (counter != null) {
+            counter.updateAndGet(current -> Math.max(0, current - quantity));
+        }
+    }
+
+    @Override
+    public int[] reserved(List<String> ngoIds) {
+        Map<String, AtomicInteger> reserved = reserved();
+        int[] result = new int[ngoIds.size()];
+        for (int i = 0; i < result.length; i++) {
+            AtomicInteger counter = reserved.get(ngoIds.get(i));
+            result[i] = counter != null ? counter.get() : 0;
+        }
+        return result;
+    }
+
+    @Override
+    public void reset(String ngoId) {
+        reserved().remove(ngoId);
+    }
+
+    // Nothing survives a restart in memory, so today's stored matches are always the truth
+    @Override
+    public boolean seed(Map<String, Integer> totals) {
+        ConcurrentHashMap<String, AtomicInteger> reserved = new ConcurrentHashMap<>();
+        totals.forEach((ngoId, quantity) -> reserved.put(ngoId, new AtomicInteger(quantity)));
+        period.set(new Period(CapacityPeriod.current(clock), reserved));
+        return true;
+    }
+
+    // Counters of the current day, starting a new period when the day has changed
+    private ConcurrentHashMap<String, AtomicInteger> reserved() {
+        Period current = period.get();
+        LocalDate today = CapacityPeriod.current(clock);
+        if (current.day().equals(today)) {
+            return current.reserved();
+        }
+        Period next = new Period(today, new ConcurrentHashMap<>());
+        return period.compareAndSet(current, next) ? next.reserved() : period.get().reserved();
+    }
+}
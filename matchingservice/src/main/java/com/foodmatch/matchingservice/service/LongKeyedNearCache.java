@@ -0,0 +1,109 @@
+package com.foodmatch.matchingservice.service;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded in-process cache keyed by a primitive long, for the per-event location lookup.
+ *
+ * Two-way set-associative: a key can only live in the two slots of its set, so a lookup is two
+ * volatile reads and a key compare, with no boxing, hashing objects or locking. Writers replace the
+ * emptier or sooner-expiring slot of the set, which makes eviction approximate (like a CPU cache)
+ * but keeps memory fixed at the configured capacity. Only put allocates.
+ */
+class LongKeyedNearCache<V> {
+
+    private record Entry<V>(long key, V value, long expiresAtNanos) {
+    }
+
+    private final AtomicReferenceArray<Entry<V>> slots;
+    private final int setMask;
+    private final long ttlNanos;
+    private final LongAdder evictions = new LongAdder();
+
+    LongKeyedNearCache(long maxSize, long ttlNanos) {
+        int capacity = Integer.highestOneBit((int) Math.max(2, Math.min(maxSize, 1 << 30)) - 1) << 1;
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.setMask = capacity - 2;
+        this.ttlNanos = ttlNanos;
+    }
+
+    V get(long key) {
+        int set = set(key);
+        long now = System.nanoTime();
+        Entry<V> entry = slots.get(set);
+        if (entry != null && entry.key == key && now - entry.expiresAtNanos < 0) {
+            return entry.value;
+        }
+        entry = slots.get(set + 1);
+        if (entry != null && entry.key == key && now - entry.expiresAtNanos < 0) {
+            return entry.value;
+        }
+        return null;
+    }
+
+    void put(long key, V value) {
+        int set = set(key);
+        long now = System.nanoTime();
+        Entry<V> first = slots.get(set);
+        Entry<V> second = slots.get(set + 1);
+        int target;
+        if (first == null || first.key == key || now - first.expiresAtNanos >= 0) {
+            target = set;
+        } else if (second == null || second.key == key || now - second.expiresAtNanos >= 0) {
+            target = set + 1;
+        } else {
+            target = first.expiresAtNanos - second.expiresAtNanos <= 0 ? set : set + 1;
+            evictions.increment();
+        }
+        slots.set(target, new Entry<>(key, value, now + ttlNanos));
+    }
+
+    void invalidate(long key) {
+        int set = set(key);
+        for (int i = set; i <= set + 1; i++) {
+            Entry<V> entry = slots.get(i);
+            if (entry != null && entry.key == key) {
+                slots.compareAndSet(i, entry, null);
+            }
+        }
+    }
+
+    void invalidateAll() {
+        for (int i = 0; i < slots.length(); i++) {
+            slots.set(i, null);
+        }
+    }
+
+    // Live entries; walks every slot, so only for stats endpoints
+    long size() {
+        long now = System.nanoTime();
+        long live = 0;
+        for (int i = 0; i < slots.length(); i++) {
+            Entry<V> entry = slots.get(i);
+            if (entry != null && now - entry.expiresAtNanos < 0) {
+                live++;
+            }
+        }
+        return live;
+    }
+
+    int capacity() {
+        return slots.length();
+    }
+
+    long evictionCount() {
+        return evictions.sum();
+    }
+
+    private int set(long key) {
+        // Finalizer from MurmurHash3: neighbouring cells land in unrelated sets
+        long h = key;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return (int) h & setMask;
+    }
+}
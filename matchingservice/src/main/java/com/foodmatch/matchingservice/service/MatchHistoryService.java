@@ -0,0 +1,154 @@
+package com.foodmatch.matchingservice.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.foodmatch.matchingservice.model.MatchedDonation;
+import com.foodmatch.matchingservice.repository.MatchedDonationRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Read side of matched_donations: keyset pages and constant-memory streaming exports.
+ * Rows are ordered by (timestamp, donationId); a cursor is the key of the last row returned.
+ */
+@Service
+public class MatchHistoryService {
+
+    public record MatchPage(List<MatchedDonation> items, String nextCursor) {
+    }
+
+    public enum StreamFormat { JSON_ARRAY, NDJSON }
+
+    record CursorKey(Instant timestamp, String donationId) {
+    }
+
+    private static final int FLUSH_EVERY = 500;
+
+    private final MatchedDonationRepository repository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter rowWriter;
+    private final TransactionTemplate readOnlyTx;
+
+    @Value("${matching.history.max-page-size:1000}")
+    private int maxPageSize;
+
+    public MatchHistoryService(MatchedDonationRepository repository, EntityManager entityManager,
+                               ObjectMapper objectMapper, PlatformTransactionManager transactionManager) {
+        this.repository = repository;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        // Flushing is batched below; flushing per row would push every row to the socket separately
+        this.rowWriter = objectMapper.writerFor(MatchedDonation.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+    }
+
+    /** One page after {@code cursor} (null for the first page); {@code donorId} null means all donors. */
+    public MatchPage page(String donorId, String cursor, int limit) {
+        int size = Math.max(1, Math.min(limit, maxPageSize));
+        // Fetch one extra row to know whether another page exists without a count query
+        Limit fetch = Limit.of(size + 1);
+        List<MatchedDonation> rows;
+        if (cursor == null || cursor.isEmpty()) {
+            rows = donorId == null
+                    ? repository.findAllByOrderByTimestampAscDonationIdAsc(fetch)
+                    : repository.findByDonorIdOrderByTimestampAscDonationIdAsc(donorId, fetch);
+        } else {
+            CursorKey key = decodeCursor(cursor);
+            rows = donorId == null
+                    ? repository.findPageAfter(key.timestamp(), key.donationId(), fetch)
+                    : repository.findPageByDonorIdAfter(donorId, key.timestamp(), key.donationId(), fetch);
+        }
+        if (rows.size() <= size) {
+            return new MatchPage(rows, null);
+        }
+        List<MatchedDonation> items = rows.subList(0, size);
+        MatchedDonation last = items.get(size - 1);
+        return new MatchPage(items, encodeCursor(last.getTimestamp(), last.getDonationId()));
+    }
+
+    /**
+     * Writes every match (or every match of {@code donorId}) to {@code out} while reading it from a
+     * database cursor. Each row is detached once written, so heap use does not grow with the table.
+     */
+    public void stream(String donorId, StreamFormat format, OutputStream out) {
+        readOnlyTx.executeWithoutResult(status -> {
+            try (Stream<MatchedDonation> rows = donorId == null
+                    ? repository.streamAll()
+                    : repository.streamByDonorId(donorId);
+                 JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                // The servlet output stream is owned by the container
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                generator.setRootValueSeparator(null);
+                if (format == StreamFormat.JSON_ARRAY) {
+                    generator.writeStartArray();
+                }
+                int written = 0;
+                for (MatchedDonation row : (Iterable<MatchedDonation>) rows::iterator) {
+                    rowWriter.writeValue(generator, row);
+                    if (format == StreamFormat.NDJSON) {
+                        generator.writeRaw('\n');
+                    }
+                    entityManager.detach(row);
+                    if (++written % FLUSH_EVERY == 0) {
+                        generator.flush();
+                    }
+                }
+                if (format == StreamFormat.JSON_ARRAY) {
+                    generator.writeEndArray();
+                }
+                generator.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /** Matches of one NGO in [from, to], oldest first. */
+    public List<MatchedDonation> byNgo(String ngoId, Instant from, Instant to, int limit) {
+        return repository.findByNgoIdAndTimestampBetweenOrderByTimestampAscDonationIdAsc(
+                ngoId, from, to, Limit.of(Math.max(1, Math.min(limit, maxPageSize))));
+    }
+
+    /** All matches in [from, to], oldest first. */
+    public List<MatchedDonation> inRange(Instant from, Instant to, int limit) {
+        return repository.findByTimestampBetweenOrderByTimestampAscDonationIdAsc(
+                from, to, Limit.of(Math.max(1, Math.min(limit, maxPageSize))));
+    }
+
+    static String encodeCursor(Instant timestamp, String donationId) {
+        String ts = timestamp.toString();
+        // Length-prefixed so neither part needs escaping
+        String raw = ts.length() + ":" + ts + donationId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static CursorKey decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int colon = raw.indexOf(':');
+            int length = Integer.parseInt(raw.substring(0, colon));
+            int start = colon + 1;
+            return new CursorKey(Instant.parse(raw.substring(start, start + length)), raw.substring(start + length));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+}
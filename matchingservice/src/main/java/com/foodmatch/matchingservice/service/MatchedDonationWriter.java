@@ -0,0 +1,80 @@
+package com.foodmatch.matchingservice.service;
+
+import com.foodmatch.matchingservice.model.MatchedDonation;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@Service
+public class MatchedDonationWriter {
+
+    // One statement for the whole batch: column arrays are unnested into rows, rows whose
+    // donation_id already exists are skipped, and only the ids actually written come back
+    private static final String INSERT_NEW = "insert into matched_donations " +
+            "(donation_id, donor_id, ngo_id, ngo_name, lat, lon, quantity, \"timestamp\", ngo_lat, ngo_lon) " +
+            "select * from unnest(?::varchar[], ?::varchar[], ?::varchar[], ?::varchar[], ?::float8[], " +
+            "?::float8[], ?::int4[], ?::timestamptz[], ?::float8[], ?::float8[]) " +
+            "on conflict (donation_id) do nothing returning donation_id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public MatchedDonationWriter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // Insert a batch of matches in one round trip; returns the donationIds that were new.
+    // Existing rows are left as they are, so a redelivered event can never overwrite its match.
+    @Transactional
+    public Set<String> insertNew(List<MatchedDonation> matches) {
+        if (matches.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(jdbcTemplate.query(con -> prepareInsert(con, matches), (rs, row) -> rs.getString(1)));
+    }
+
+    private static PreparedStatement prepareInsert(Connection con, List<MatchedDonation> matches) throws SQLException {
+        int n = matches.size();
+        String[] donationIds = new String[n];
+        String[] donorIds = new String[n];
+        String[] ngoIds = new String[n];
+        String[] ngoNames = new String[n];
+        Double[] lats = new Double[n];
+        Double[] lons = new Double[n];
+        Integer[] quantities = new Integer[n];
+        String[] timestamps = new String[n];
+        Double[] ngoLats = new Double[n];
+        Double[] ngoLons = new Double[n];
+        for (int i = 0; i < n; i++) {
+            MatchedDonation match = matches.get(i);
+            donationIds[i] = match.getDonationId();
+            donorIds[i] = match.getDonorId();
+            ngoIds[i] = match.getNgoId();
+            ngoNames[i] = match.getNgoName();
+            lats[i] = match.getLat();
+            lons[i] = match.getLon();
+            quantities[i] = match.getQuantity();
+            timestamps[i] = match.getTimestamp().toString();
+            ngoLats[i] = match.getNgoLat();
+            ngoLons[i] = match.getNgoLon();
+        }
+        PreparedStatement ps = con.prepareStatement(INSERT_NEW);
+        ps.setArray(1, con.createArrayOf("varchar", donationIds));
+        ps.setArray(2, con.createArrayOf("varchar", donorIds));
+        ps.setArray(3, con.createArrayOf("varchar", ngoIds));
+        ps.setArray(4, con.createArrayOf("varchar", ngoNames));
+        ps.setArray(5, con.createArrayOf("float8", lats));
+        ps.setArray(6, con.createArrayOf("float8", lons));
+        ps.setArray(7, con.createArrayOf("int4", quantities));
+        ps.setArray(8, con.createArrayOf("text", timestamps));
+        ps.setArray(9, con.createArrayOf("float8", ngoLats));
+        ps.setArray(10, con.createArrayOf("float8", ngoLons));
+        return ps;
+    }
+}
@@ -1,80 +1,240 @@
 package com.foodmatch.matchingservice.service;
 
+import com.foodmatch.matchingservice.geo.CellLookupTable;
+import com.foodmatch.matchingservice.geo.GridNgoIndex;
+import com.foodmatch.matchingservice.geo.LocationCell;
+import com.foodmatch.matchingservice.geo.NgoIndexType;
+import com.foodmatch.matchingservice.geo.NgoSpatialIndex;
+import com.foodmatch.matchingservice.metrics.MatchingMetrics;
 import com.foodmatch.matchingservice.model.DonationEvent;
 import com.foodmatch.matchingservice.model.Ngo;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import java.util.Arrays;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 @Service
 public class MatchingService {
 
+    private static final Logger log = LoggerFactory.getLogger(MatchingService.class);
+
+    // Donations are only matched to NGOs strictly closer than this
+    public static final double MAX_MATCH_DISTANCE_KM = 5.0;
+
     @Autowired
     private NgoCacheService ngoCacheService;
 
-    private final List<Ngo> ngoList = Arrays.asList(
-            new Ngo("ngo001", "Helping Hands", 12.933, 77.610, "Koramangala, Bangalore"),
-            new Ngo("ngo002", "Food For All", 12.920, 77.600, "Indiranagar, Bangalore"),
-            new Ngo("ngo003", "Kindness Kitchen", 13.000, 77.700, "HSR Layout, Bangalore")
-    );
+    @Autowired
+    private NgoRegistryService ngoRegistry;
+
+    // memory: in-JVM index rebuilt from the registry; redis-geo: GEOSEARCH against the registry
+    @Value("${matching.ngo.backend:memory}")
+    private String ngoBackend;
+
+    @Autowired
+    private CapacityAwareMatcher capacityAwareMatcher;
+
+    @Autowired
+    private MatchingMetrics metrics;
+
+    // nearest: closest NGO within range; capacity: scored by distance, capacity and rating, with reservations
+    @Value("${matching.engine:nearest}")
+    private String matchingEngine;
+
+    @Value("${matching.index.type:grid}")
+    private String indexType;
+
+    @Value("${matching.index.cell-size-deg:0.02}")
+    private double indexCellSizeDeg;
+
+    // Precomputed cell -> nearest NGOs table; when enabled it answers findNearestNgo without the caches
+    @Value("${matching.cell-table.enabled:false}")
+    private boolean cellTableEnabled;
+
+    @Value("${matching.cell-table.path:data/ngo-cell-table.bin}")
+    private String cellTablePath;
+
+    @Value("${matching.cell-table.candidates:4}")
+    private int cellTableCandidates;
+
+    private volatile NgoSpatialIndex ngoIndex;
+
+    private volatile CellLookupTable cellTable;
+
+    private final AtomicBoolean reloadPending = new AtomicBoolean();
+
+    @PostConstruct
+    void buildIndex() {
+        reloadIndex();
+    }
+
+    // Registry changes are coalesced and applied by reloadIfChanged, so a bulk import rebuilds once
+    @EventListener
+    public void onCatalogChanged(NgoCatalogChangedEvent event) {
+        reloadPending.set(true);
+    }
+
+    // Cached nearest-NGO answers are cleared only after the new index is in place, and on every
+    // replica: clearing earlier lets lookups against the old index write stale answers back.
+    @Scheduled(fixedDelayString = "${matching.ngo.reload-interval-ms:1000}")
+    public void reloadIfChanged() {
+        if (reloadPending.getAndSet(false)) {
+            reloadIndex();
+            try {
+                ngoCacheService.clearNgoCache();
+            } catch (Exception e) {
+                log.warn("Could not clear NGO cache after catalog change: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void reloadIndex() {
+        if ("redis-geo".equals(ngoBackend)) {
+            ngoIndex = new RedisGeoNgoIndex(ngoRegistry);
+            return;
+        }
+        List<Ngo> catalog;
+        try {
+            catalog = ngoRegistry.findAll();
+        } catch (Exception e) {
+            log.warn("Could not load NGO registry: {}", e.getMessage());
+            if (ngoIndex != null) {
+                return;
+            }
+            catalog = NgoRegistryService.DEFAULT_NGOS;
+        }
+        List<Ngo> active = catalog.stream().filter(Ngo::isActive).toList();
+        NgoSpatialIndex index = NgoIndexType.valueOf(indexType.toUpperCase()).build(active, indexCellSizeDeg);
+        if (cellTableEnabled) {
+            refreshCellTable(active, index instanceof GridNgoIndex grid ? grid : new GridNgoIndex(active, indexCellSizeDeg));
+        }
+        ngoIndex = index;
+    }
+
+    // Patches the current table (or the one saved by the last run) for the new catalog and saves it back
+    private void refreshCellTable(List<Ngo> active, GridNgoIndex grid) {
+        long start = System.nanoTime();
+        Path path = Path.of(cellTablePath);
+        CellLookupTable previous = cellTable;
+        if (previous == null && Files.exists(path)) {
+            try {
+                previous = CellLookupTable.load(path);
+            } catch (IOException e) {
+                log.warn("Ignoring cell table {}: {}", path, e.getMessage());
+            }
+        }
+        CellLookupTable next;
+        if (previous != null && previous.k() == cellTableCandidates && previous.radiusKm() == MAX_MATCH_DISTANCE_KM) {
+            next = previous.update(active, grid);
+        } else {
+            next = CellLookupTable.build(active, grid, cellTableCandidates, MAX_MATCH_DISTANCE_KM);
+        }
+        cellTable = next;
+        log.info("Cell table ready: {} blocks, {} KB, {} ms ({})", next.blockCount(), next.sizeBytes() / 1024,
+                (System.nanoTime() - start) / 1_000_000,
+                previous != null && previous.fingerprint() == next.fingerprint() ? "unchanged" : "rebuilt");
+        if (previous == null || previous.fingerprint() != next.fingerprint()) {
+            try {
+                next.save(path);
+            } catch (IOException e) {
+                log.warn("Could not save cell table to {}: {}", path, e.getMessage());
+            }
+        }
+    }
+
+    // Entry point for the listeners: dispatches to the configured matching engine
+    public Ngo matchDonation(DonationEvent event) {
+        long start = System.nanoTime();
+        Ngo ngo = isCapacityAware()
+                ? capacityAwareMatcher.match(event, ngoIndex, MAX_MATCH_DISTANCE_KM)
+                : findNearestNgo(event);
+        metrics.recordMatch(start);
+        return ngo;
+    }
+
+    // Hand back the capacity a removed match was holding
+    public void releaseMatch(String ngoId, int quantity) {
+        if (isCapacityAware()) {
+            capacityAwareMatcher.release(ngoId, quantity);
+        }
+    }
+
+    public boolean isCapacityAware() {
+        return "capacity".equals(matchingEngine);
+    }
 
-    @Cacheable(value = "ngoLocation", key = "#event.lat + ':' + #event.lon")
     public Ngo findNearestNgo(DonationEvent event) {
-        // Check cache first
-        String cacheKey = ngoCacheService.generateLocationKey(event.getLat(), event.getLon());
-        Ngo cachedNgo = ngoCacheService.getCachedNgoLocation(cacheKey);
-        
+        CellLookupTable table = cellTable;
+        if (table != null) {
+            long start = System.nanoTime();
+            Ngo ngo = table.nearest(LocationCell.of(event.getLat(), event.getLon()));
+            metrics.recordIndexSearch(start);
+            return ngo;
+        }
+
+        // Check cache first (in-process L1, then Redis)
+        long start = System.nanoTime();
+        long cell = ngoCacheService.locationCell(event.getLat(), event.getLon());
+        Ngo cachedNgo = ngoCacheService.getCachedNgoLocation(cell);
+        metrics.recordCacheLookup(start);
+
         if (cachedNgo != null) {
-            return cachedNgo;
+            return cachedNgo == NgoCacheService.NO_NGO ? null : cachedNgo;
         }
 
         // Find nearest NGO
-        Ngo nearest = null;
-        double minDistance = Double.MAX_VALUE;
-
-        for (Ngo ngo : ngoList) {
-            double distance = haversine(event.getLat(), event.getLon(), ngo.getLat(), ngo.getLon());
-            if (distance < 5.0 && distance < minDistance) {
-                nearest = ngo;
-                minDistance = distance;
-            }
-        }
+        start = System.nanoTime();
+        Ngo nearest = ngoIndex.nearest(event.getLat(), event.getLon(), MAX_MATCH_DISTANCE_KM);
+        metrics.recordIndexSearch(start);
 
         // Cache the result
         if (nearest != null) {
-            ngoCacheService.cacheNgoLocation(cacheKey, nearest);
+            ngoCacheService.cacheNgoLocation(cell, nearest);
+        } else {
+            ngoCacheService.cacheNoNgo(cell);
         }
 
         return nearest;
     }
 
-    @Cacheable(value = "ngoList", key = "#lat + ':' + #lon + ':range'")
     public List<Ngo> findNgosInRange(double lat, double lon, double rangeKm) {
-        return ngoList.stream()
-                .filter(ngo -> haversine(lat, lon, ngo.getLat(), ngo.getLon()) <= rangeKm)
-                .collect(Collectors.toList());
+        return ngoIndex.withinRange(lat, lon, rangeKm);
+    }
+
+    // True when findNearestNgo is served by the precomputed cell table rather than the caches
+    public boolean isCellTableActive() {
+        return cellTable != null;
+    }
+
+    // Ranked candidates for the location's cell from the precomputed table; empty when it is disabled
+    public List<Ngo> getCellCandidates(double lat, double lon) {
+        CellLookupTable table = cellTable;
+        return table != null ? table.candidates(LocationCell.of(lat, lon)) : List.of();
     }
 
     public List<Ngo> getAllNgos() {
-        return ngoList;
+        return ngoRegistry.findAll();
     }
 
-    public void clearCache() {
-        ngoCacheService.clearNgoCache();
+    public NgoSpatialIndex getNgoIndex() {
+        return ngoIndex;
     }
 
-    private double haversine(double lat1, double lon1, double lat2, double lon2) {
-        final int R = 6371; // Earth radius in km
-        double dLat = Math.toRadians(lat2 - lat1);
-        double dLon = Math.toRadians(lon2 - lon1);
-        double a = Math.sin(dLat/2) * Math.sin(dLat/2) +
-                   Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) *
-                   Math.sin(dLon/2) * Math.sin(dLon/2);
-        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1-a));
-        return R * c;
+    public int getNgoCount() {
+        return ngoIndex.size();
+    }
+
+    public void clearCache() {
+        ngoCacheService.clearNgoCache();
     }
 }
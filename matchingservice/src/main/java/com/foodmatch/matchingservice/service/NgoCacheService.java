@@ -1,54 +1,154 @@
 package com.foodmatch.matchingservice.service;
 
+import com.foodmatch.matchingservice.geo.LocationCell;
 import com.foodmatch.matchingservice.model.Ngo;
-import org.springframework.cache.annotation.Cacheable;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
 @Service
 public class NgoCacheService {
 
+    private static final Logger log = LoggerFactory.getLogger(NgoCacheService.class);
+
     @Autowired
     private RedisTemplate<String, Object> redisTemplate;
 
+    @Autowired
+    private RedisMessageListenerContainer listenerContainer;
+
+    @Autowired
+    private RedisKeyScanner keyScanner;
+
+    @Autowired
+    private CacheManager cacheManager;
+
     private static final String NGO_CACHE_PREFIX = "ngo:location:";
     private static final String NGO_LIST_CACHE_PREFIX = "ngo:list:";
     private static final int CACHE_TTL_MINUTES = 30;
 
-    // Cache NGO lookup by coordinates
-    @Cacheable(value = "ngoLocation", key = "#lat + ':' + #lon")
-    public Ngo findNearestNgo(double lat, double lon) {
-        // This method will be cached automatically
-        // The actual implementation will be in MatchingService
-        return null; // Placeholder - actual logic in MatchingService
+    // Sorted sets of live cache keys scored by expiry time. ZCARD gives an O(1) size and stale
+    // members are pruned on a schedule. Kept outside the prefixes above so SCAN never sees them.
+    private static final String NGO_CACHE_INDEX = "ngo:index:location";
+    private static final String NGO_LIST_CACHE_INDEX = "ngo:index:list";
+
+    // Replicas publish location keys (or "*" for everything) here when entries are cleared
+    static final String INVALIDATION_CHANNEL = "ngo:cache:invalidate";
+    private static final String INVALIDATE_ALL = "*";
+
+    @Value("${matching.cache.l1.max-size:10000}")
+    private long l1MaxSize;
+
+    @Value("${matching.cache.l1.ttl-seconds:300}")
+    private long l1TtlSeconds;
+
+    // In-process near-cache in front of Redis, keyed by LocationCell id
+    private LongKeyedNearCache<Ngo> l1LocationCache;
+
+    /**
+     * Returned by {@link #getCachedNgoLocation(long)} for a cell known to have no NGO in range.
+     * Only the L1 holds these; catalog changes clear it, so a new NGO is picked up immediately.
+     */
+    public static final Ngo NO_NGO = new Ngo();
+
+    private static final byte[] NGO_CACHE_PREFIX_BYTES = NGO_CACHE_PREFIX.getBytes(StandardCharsets.UTF_8);
+
+    private final LongAdder l1Hits = new LongAdder();
+    private final LongAdder l1Misses = new LongAdder();
+    private final LongAdder l2Hits = new LongAdder();
+    private final LongAdder l2Misses = new LongAdder();
+
+    @PostConstruct
+    void init() {
+        l1LocationCache = new LongKeyedNearCache<>(l1MaxSize, TimeUnit.SECONDS.toNanos(l1TtlSeconds));
+        listenerContainer.addMessageListener(this::onInvalidation, new ChannelTopic(INVALIDATION_CHANNEL));
+    }
+
+    // Manual cache management for location cells
+    public void cacheNgoLocation(long cell, Ngo ngo) {
+        writeIndexed(NGO_CACHE_INDEX, locationKey(cell), ngo);
+        l1LocationCache.put(cell, ngo);
     }
 
-    // Cache list of NGOs by location range
-    @Cacheable(value = "ngoList", key = "#lat + ':' + #lon + ':range'")
-    public List<Ngo> findNgosInRange(double lat, double lon, double rangeKm) {
-        // This method will be cached automatically
-        return new ArrayList<>(); // Placeholder
+    // Bulk cacheNgoLocation for warm-up: every SETEX/ZADD pair in one pipelined round trip.
+    // A null NGO is remembered in L1 only, as cacheNoNgo does.
+    @SuppressWarnings("unchecked")
+    public void cacheNgoLocations(long[] cells, Ngo[] ngos) {
+        RedisSerializer<Object> valueSerializer = (RedisSerializer<Object>) redisTemplate.getValueSerializer();
+        byte[] rawIndex = RedisSerializer.string().serialize(NGO_CACHE_INDEX);
+        long ttlSeconds = CACHE_TTL_MINUTES * 60L;
+        double expiresAt = System.currentTimeMillis() + ttlSeconds * 1000;
+        byte[][] rawKeys = new byte[cells.length][];
+        byte[][] rawValues = new byte[cells.length][];
+        for (int i = 0; i < cells.length; i++) {
+            if (ngos[i] != null) {
+                rawKeys[i] = locationKey(cells[i]);
+                rawValues[i] = valueSerializer.serialize(ngos[i]);
+            }
+        }
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (int i = 0; i < rawKeys.length; i++) {
+                if (rawKeys[i] != null) {
+                    connection.stringCommands().setEx(rawKeys[i], ttlSeconds, rawValues[i]);
+                    connection.zSetCommands().zAdd(rawIndex, expiresAt, rawKeys[i]);
+                }
+            }
+            return null;
+        });
+        for (int i = 0; i < cells.length; i++) {
+            l1LocationCache.put(cells[i], ngos[i] != null ? ngos[i] : NO_NGO);
+        }
     }
 
-    // Manual cache management for custom keys
-    public void cacheNgoLocation(String key, Ngo ngo) {
-        String cacheKey = NGO_CACHE_PREFIX + key;
-        redisTemplate.opsForValue().set(cacheKey, ngo, CACHE_TTL_MINUTES, TimeUnit.MINUTES);
+    // Remember in L1 that nothing is in range of this cell, so repeat misses skip Redis
+    public void cacheNoNgo(long cell) {
+        l1LocationCache.put(cell, NO_NGO);
     }
 
-    public Ngo getCachedNgoLocation(String key) {
-        String cacheKey = NGO_CACHE_PREFIX + key;
-        return (Ngo) redisTemplate.opsForValue().get(cacheKey);
+    // L1 first, then Redis; an L2 hit is copied into L1 so repeat locations stay in-process.
+    // An L1 hit performs no allocation.
+    public Ngo getCachedNgoLocation(long cell) {
+        Ngo ngo = l1LocationCache.get(cell);
+        if (ngo != null) {
+            l1Hits.increment();
+            return ngo;
+        }
+        l1Misses.increment();
+
+        byte[] rawKey = locationKey(cell);
+        byte[] rawValue = redisTemplate.execute((RedisCallback<byte[]>) connection -> connection.stringCommands().get(rawKey));
+        ngo = rawValue != null ? (Ngo) redisTemplate.getValueSerializer().deserialize(rawValue) : null;
+        if (ngo != null) {
+            l2Hits.increment();
+            l1LocationCache.put(cell, ngo);
+        } else {
+            l2Misses.increment();
+        }
+        return ngo;
     }
 
     public void cacheNgoList(String key, List<Ngo> ngos) {
-        String cacheKey = NGO_LIST_CACHE_PREFIX + key;
-        redisTemplate.opsForValue().set(cacheKey, ngos, CACHE_TTL_MINUTES, TimeUnit.MINUTES);
+        writeIndexed(NGO_LIST_CACHE_INDEX, NGO_LIST_CACHE_PREFIX + key, ngos);
     }
 
     @SuppressWarnings("unchecked")
@@ -58,37 +158,135 @@ public class NgoCacheService {
     }
 
     public void clearNgoCache() {
-        // Clear all NGO-related cache entries
-        redisTemplate.delete(redisTemplate.keys(NGO_CACHE_PREFIX + "*"));
-        redisTemplate.delete(redisTemplate.keys(NGO_LIST_CACHE_PREFIX + "*"));
+        // Clear all NGO-related cache entries with cursor-based SCAN, never KEYS
+        keyScanner.deleteMatching(NGO_CACHE_PREFIX + "*");
+        keyScanner.deleteMatching(NGO_LIST_CACHE_PREFIX + "*");
+        redisTemplate.unlink(List.of(NGO_CACHE_INDEX, NGO_LIST_CACHE_INDEX));
+        for (String name : List.of("ngoLocation", "ngoList")) {
+            var cache = cacheManager.getCache(name);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+        l1LocationCache.invalidateAll();
+        publishInvalidation(INVALIDATE_ALL);
     }
 
     public void clearLocationCache(double lat, double lon) {
-        String key = lat + ":" + lon;
-        redisTemplate.delete(NGO_CACHE_PREFIX + key);
-        redisTemplate.delete(NGO_LIST_CACHE_PREFIX + key + ":range");
+        long cell = LocationCell.of(lat, lon);
+        String key = LocationCell.lat(cell) + ":" + LocationCell.lon(cell);
+        RedisSerializer<String> keySerializer = RedisSerializer.string();
+        byte[] locationKey = locationKey(cell);
+        byte[] listKey = keySerializer.serialize(NGO_LIST_CACHE_PREFIX + key + ":range");
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            connection.keyCommands().del(locationKey, listKey);
+            connection.zSetCommands().zRem(keySerializer.serialize(NGO_CACHE_INDEX), locationKey);
+            connection.zSetCommands().zRem(keySerializer.serialize(NGO_LIST_CACHE_INDEX), listKey);
+            return null;
+        });
+        l1LocationCache.invalidate(cell);
+        publishInvalidation(Long.toString(cell));
     }
 
-    // Generate cache key for location-based lookup
-    public String generateLocationKey(double lat, double lon) {
-        // Round coordinates to reduce cache keys (0.01 degree ≈ 1.1 km)
-        double roundedLat = Math.round(lat * 100.0) / 100.0;
-        double roundedLon = Math.round(lon * 100.0) / 100.0;
-        return roundedLat + ":" + roundedLon;
+    // Cache key for location-based lookup: the 0.01° cell (≈ 1.1 km) containing the point
+    public long locationCell(double lat, double lon) {
+        return LocationCell.of(lat, lon);
     }
 
-    // Cache statistics
+    // Fixed-width binary Redis key: "ngo:location:" followed by the 8-byte big-endian cell id
+    static byte[] locationKey(long cell) {
+        byte[] key = Arrays.copyOf(NGO_CACHE_PREFIX_BYTES, NGO_CACHE_PREFIX_BYTES.length + Long.BYTES);
+        for (int i = 0; i < Long.BYTES; i++) {
+            key[NGO_CACHE_PREFIX_BYTES.length + i] = (byte) (cell >>> (56 - 8 * i));
+        }
+        return key;
+    }
+
+    // Cache statistics: two O(1) ZCARDs, safe to poll from dashboards
     public long getCacheSize() {
-        return redisTemplate.keys(NGO_CACHE_PREFIX + "*").size() + 
-               redisTemplate.keys(NGO_LIST_CACHE_PREFIX + "*").size();
+        Long locations = redisTemplate.opsForZSet().zCard(NGO_CACHE_INDEX);
+        Long lists = redisTemplate.opsForZSet().zCard(NGO_LIST_CACHE_INDEX);
+        return (locations != null ? locations : 0) + (lists != null ? lists : 0);
     }
 
-    public boolean isCacheEnabled() {
+    // Drop index members whose cache entry has already expired
+    @Scheduled(fixedDelayString = "${matching.cache.index-prune-interval-ms:60000}")
+    public void pruneExpiredIndexEntries() {
+        double now = System.currentTimeMillis();
         try {
-            redisTemplate.getConnectionFactory().getConnection().ping();
+            redisTemplate.opsForZSet().removeRangeByScore(NGO_CACHE_INDEX, 0, now);
+            redisTemplate.opsForZSet().removeRangeByScore(NGO_LIST_CACHE_INDEX, 0, now);
+        } catch (Exception e) {
+            log.warn("Failed to prune NGO cache index: {}", e.getMessage());
+        }
+    }
+
+    // Per-tier hit/miss counters for /cache/stats
+    public Map<String, Object> getTierStats() {
+        Map<String, Object> l1 = new LinkedHashMap<>();
+        l1.put("hits", l1Hits.sum());
+        l1.put("misses", l1Misses.sum());
+        l1.put("size", l1LocationCache.size());
+        l1.put("capacity", l1LocationCache.capacity());
+        l1.put("evictions", l1LocationCache.evictionCount());
+
+        Map<String, Object> l2 = new LinkedHashMap<>();
+        l2.put("hits", l2Hits.sum());
+        l2.put("misses", l2Misses.sum());
+
+        Map<String, Object> tiers = new LinkedHashMap<>();
+        tiers.put("l1", l1);
+        tiers.put("l2", l2);
+        return tiers;
+    }
+
+    public boolean isCacheEnabled() {
+        try (RedisConnection connection = redisTemplate.getConnectionFactory().getConnection()) {
+            connection.ping();
             return true;
         } catch (Exception e) {
             return false;
         }
     }
-} 
\ No newline at end of file
+
+    // SET with TTL and the matching index ZADD in one pipelined round trip
+    private void writeIndexed(String indexKey, String cacheKey, Object value) {
+        writeIndexed(indexKey, RedisSerializer.string().serialize(cacheKey), value);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void writeIndexed(String indexKey, byte[] rawKey, Object value) {
+        RedisSerializer<String> keySerializer = RedisSerializer.string();
+        RedisSerializer<Object> valueSerializer = (RedisSerializer<Object>) redisTemplate.getValueSerializer();
+        byte[] rawValue = valueSerializer.serialize(value);
+        byte[] rawIndex = keySerializer.serialize(indexKey);
+        long ttlSeconds = CACHE_TTL_MINUTES * 60L;
+        double expiresAt = System.currentTimeMillis() + ttlSeconds * 1000;
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            connection.stringCommands().setEx(rawKey, ttlSeconds, rawValue);
+            connection.zSetCommands().zAdd(rawIndex, expiresAt, rawKey);
+            return null;
+        });
+    }
+
+    private void publishInvalidation(String key) {
+        byte[] channel = INVALIDATION_CHANNEL.getBytes(StandardCharsets.UTF_8);
+        byte[] body = key.getBytes(StandardCharsets.UTF_8);
+        redisTemplate.execute(connection -> connection.publish(channel, body), true);
+    }
+
+    // Another replica (or this one) cleared entries in Redis; drop the matching L1 entries
+    private void onInvalidation(Message message, byte[] pattern) {
+        String key = new String(message.getBody(), StandardCharsets.UTF_8);
+        if (INVALIDATE_ALL.equals(key)) {
+            l1LocationCache.invalidateAll();
+            return;
+        }
+        try {
+            l1LocationCache.invalidate(Long.parseLong(key));
+        } catch (NumberFormatException e) {
+            // Old "lat:lon" message from a replica that has not been upgraded yet
+            l1LocationCache.invalidateAll();
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.foodmatch.matchingservice.service;
+
+/**
+ * Published whenever the NGO registry changes. originatedHere is true on the replica that
+ * handled the CRUD call and false when the change arrived from another replica via Redis.
+ */
+public record NgoCatalogChangedEvent(String ngoId, boolean originatedHere) {
+}
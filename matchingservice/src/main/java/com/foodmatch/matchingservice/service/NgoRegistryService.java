@@ -0,0 +1,187 @@
+package com.foodmatch.matchingservice.service;
+
+import com.foodmatch.matchingservice.model.Ngo;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.geo.Distance;
+import org.springframework.data.geo.GeoResult;
+import org.springframework.data.geo.GeoResults;
+import org.springframework.data.geo.Metrics;
+import org.springframework.data.geo.Point;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.RedisGeoCommands;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.domain.geo.GeoReference;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * NGO catalog shared by all matching-service replicas.
+ *
+ * Coordinates live in a Redis GEO set (ngo:registry:geo) so radius queries can run server-side
+ * with GEOSEARCH; full NGO records live in a hash (ngo:registry:data) keyed by id. Every change
+ * is announced on ngo:registry:changed so other replicas can rebuild their in-memory index.
+ */
+@Service
+public class NgoRegistryService {
+
+    private static final Logger log = LoggerFactory.getLogger(NgoRegistryService.class);
+
+    static final String GEO_KEY = "ngo:registry:geo";
+    static final String DATA_KEY = "ngo:registry:data";
+    static final String CHANGE_CHANNEL = "ngo:registry:changed";
+
+    // Catalog the service shipped with before the registry existed; seeded into an empty registry
+    public static final List<Ngo> DEFAULT_NGOS = List.of(
+            new Ngo("ngo001", "Helping Hands", 12.933, 77.610, "Koramangala, Bangalore"),
+            new Ngo("ngo002", "Food For All", 12.920, 77.600, "Indiranagar, Bangalore"),
+            new Ngo("ngo003", "Kindness Kitchen", 13.000, 77.700, "HSR Layout, Bangalore")
+    );
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${matching.ngo.seed-defaults:true}")
+    private boolean seedDefaults = true;
+
+    public NgoRegistryService(RedisTemplate<String, Object> redisTemplate,
+                              RedisMessageListenerContainer listenerContainer,
+                              ApplicationEventPublisher eventPublisher) {
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostConstruct
+    void init() {
+        listenerContainer.addMessageListener(this::onRemoteChange, new ChannelTopic(CHANGE_CHANNEL));
+        if (!seedDefaults) {
+            return;
+        }
+        try {
+            if (count() == 0) {
+                DEFAULT_NGOS.forEach(this::write);
+            }
+        } catch (Exception e) {
+            log.warn("Could not seed NGO registry: {}", e.getMessage());
+        }
+    }
+
+    public Ngo save(Ngo ngo) {
+        write(ngo);
+        announce(ngo.getId());
+        return ngo;
+    }
+
+    public boolean delete(String id) {
+        List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            connection.zSetCommands().zRem(raw(GEO_KEY), rawMember(id));
+            connection.hashCommands().hDel(raw(DATA_KEY), raw(id));
+            return null;
+        });
+        boolean removed = results.size() > 1 && Objects.equals(results.get(1), 1L);
+        if (removed) {
+            announce(id);
+        }
+        return removed;
+    }
+
+    public Ngo findById(String id) {
+        return (Ngo) redisTemplate.opsForHash().get(DATA_KEY, id);
+    }
+
+    // Streams the hash with HSCAN so a large catalog never costs one long blocking HGETALL
+    public List<Ngo> findAll() {
+        List<Ngo> ngos = new ArrayList<>();
+        ScanOptions options = ScanOptions.scanOptions().count(1000).build();
+        try (Cursor<Map.Entry<Object, Object>> cursor = redisTemplate.opsForHash().scan(DATA_KEY, options)) {
+            while (cursor.hasNext()) {
+                ngos.add((Ngo) cursor.next().getValue());
+            }
+        }
+        return ngos;
+    }
+
+    public long count() {
+        Long size = redisTemplate.opsForHash().size(DATA_KEY);
+        return size != null ? size : 0;
+    }
+
+    // GEOSEARCH FROMLONLAT ... BYRADIUS radiusKm km ASC [COUNT limit], nearest first
+    public List<Ngo> searchRadius(double lat, double lon, double radiusKm, int limit) {
+        RedisGeoCommands.GeoSearchCommandArgs args = RedisGeoCommands.GeoSearchCommandArgs
+                .newGeoSearchArgs()
+                .sortAscending();
+        if (limit > 0) {
+            args = args.limit(limit);
+        }
+        GeoResults<RedisGeoCommands.GeoLocation<Object>> results = redisTemplate.opsForGeo().search(
+                GEO_KEY,
+                GeoReference.fromCoordinate(lon, lat),
+                new Distance(radiusKm, Metrics.KILOMETERS),
+                args);
+        if (results == null || results.getContent().isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Object> ids = new ArrayList<>(results.getContent().size());
+        for (GeoResult<RedisGeoCommands.GeoLocation<Object>> result : results) {
+            ids.add(result.getContent().getName());
+        }
+        List<Object> values = redisTemplate.opsForHash().multiGet(DATA_KEY, ids);
+        List<Ngo> ngos = new ArrayList<>(values.size());
+        for (Object value : values) {
+            if (value != null) {
+                ngos.add((Ngo) value);
+            }
+        }
+        return ngos;
+    }
+
+    // GEOADD and HSET in one pipelined round trip
+    private void write(Ngo ngo) {
+        @SuppressWarnings("unchecked")
+        byte[] rawNgo = ((RedisSerializer<Object>) redisTemplate.getHashValueSerializer()).serialize(ngo);
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            connection.geoCommands().geoAdd(raw(GEO_KEY), new Point(ngo.getLon(), ngo.getLat()), rawMember(ngo.getId()));
+            connection.hashCommands().hSet(raw(DATA_KEY), raw(ngo.getId()), rawNgo);
+            return null;
+        });
+    }
+
+    private void announce(String id) {
+        eventPublisher.publishEvent(new NgoCatalogChangedEvent(id, true));
+        byte[] body = id.getBytes(StandardCharsets.UTF_8);
+        redisTemplate.execute(connection -> connection.publish(raw(CHANGE_CHANNEL), body), true);
+    }
+
+    private void onRemoteChange(Message message, byte[] pattern) {
+        String id = new String(message.getBody(), StandardCharsets.UTF_8);
+        eventPublisher.publishEvent(new NgoCatalogChangedEvent(id, false));
+    }
+
+    private static byte[] raw(String key) {
+        return RedisSerializer.string().serialize(key);
+    }
+
+    // GEOSEARCH results are decoded with the template's value serializer, so GEO members are
+    // encoded with it too; hash fields use the plain string hash-key serializer
+    @SuppressWarnings("unchecked")
+    private byte[] rawMember(String id) {
+        return ((RedisSerializer<Object>) redisTemplate.getValueSerializer()).serialize(id);
+    }
+}
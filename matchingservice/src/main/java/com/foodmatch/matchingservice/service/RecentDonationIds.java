@@ -0,0 +1,61 @@
+package com.foodmatch.matchingservice.service;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded LRU of donationIds this replica has already processed: written as matches or found
+ * unmatched. The processor checks it before matching, so a redelivered event is dropped without
+ * touching the index, the capacity ledger or Postgres. A miss proves nothing (the id may have been written before a restart or by another
+ * replica); the insert's ON CONFLICT DO NOTHING is what decides.
+ */
+class RecentDonationIds {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<String, Boolean> ids;
+
+    RecentDonationIds(int capacity) {
+        this.ids = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    boolean contains(String donationId) {
+        if (donationId == null) {
+            return false;
+        }
+        lock.lock();
+        try {
+            return ids.get(donationId) != null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void addAll(Collection<String> donationIds) {
+        lock.lock();
+        try {
+            for (String donationId : donationIds) {
+                if (donationId != null) {
+                    ids.put(donationId, Boolean.TRUE);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int size() {
+        lock.lock();
+        try {
+            return ids.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
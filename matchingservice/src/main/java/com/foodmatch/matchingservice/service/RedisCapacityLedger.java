@@ -0,0 +1,104 @@
+package com.foodmatch.matchingservice.service;
+
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ledger shared by all replicas. Reservations live in one Redis hash per {@link CapacityPeriod}
+ * (ngo:capacity:reserved:2025-08-05) and the check-and-increment runs as a Lua script, so it is
+ * atomic across Kafka partitions and pods. A new day starts on a new, empty hash; the old one
+ * expires a day later.
+ */
+public class RedisCapacityLedger implements CapacityLedger {
+
+    static final String RESERVED_KEY_PREFIX = "ngo:capacity:reserved:";
+    private static final String PERIOD_TTL_SECONDS = String.valueOf(2 * 24 * 3600);
+
+    private static final RedisScript<Long> RESERVE = new DefaultRedisScript<>(
+            "local used = tonumber(redis.call('HGET', KEYS[1], ARGV[1]) or '0') " +
+            "if used + tonumber(ARGV[3]) > tonumber(ARGV[2]) then return 0 end " +
+            "redis.call('HINCRBY', KEYS[1], ARGV[1], ARGV[3]) " +
+            "redis.call('EXPIRE', KEYS[1], ARGV[4]) " +
+            "return 1", Long.class);
+
+    // A release never creates the day's hash: there is nothing to give back in an empty period
+    private static final RedisScript<Long> RELEASE = new DefaultRedisScript<>(
+            "local used = tonumber(redis.call('HGET', KEYS[1], ARGV[1]) or '0') " +
+            "if used == 0 then return 0 end " +
+            "local left = math.max(0, used - tonumber(ARGV[2])) " +
+            "redis.call('HSET', KEYS[1], ARGV[1], left) " +
+            "return left", Long.class);
+
+    // Fills the hash only if it does not exist: other replicas may be reserving against it already
+    private static final RedisScript<Long> SEED = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 1 then return 0 end " +
+            "for i = 2, #ARGV, 2 do redis.call('HSET', KEYS[1], ARGV[i], ARGV[i + 1]) end " +
+            "redis.call('EXPIRE', KEYS[1], ARGV[1]) " +
+            "return 1", Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final Clock clock;
+
+    public RedisCapacityLedger(StringRedisTemplate redisTemplate) {
+        this(redisTemplate, Clock.systemUTC());
+    }
+
+    public RedisCapacityLedger(StringRedisTemplate redisTemplate, Clock clock) {
+        this.redisTemplate = redisTemplate;
+        this.clock = clock;
+    }
+
+    @Override
+    public boolean tryReserve(String ngoId, int capacity, int quantity) {
+        Long ok = redisTemplate.execute(RESERVE, List.of(reservedKey()),
+                ngoId, String.valueOf(capacity), String.valueOf(quantity), PERIOD_TTL_SECONDS);
+        return ok != null && ok == 1L;
+    }
+
+    @Override
+    public void release(String ngoId, int quantity) {
+        redisTemplate.execute(RELEASE, List.of(reservedKey()), ngoId, String.valueOf(quantity));
+    }
+
+    @Override
+    public int[] reserved(List<String> ngoIds) {
+        List<Object> values = redisTemplate.opsForHash().multiGet(reservedKey(), new ArrayList<>(ngoIds));
+        int[] result = new int[ngoIds.size()];
+        for (int i = 0; i < result.length; i++) {
+            Object value = values.get(i);
+            result[i] = value != null ? Integer.parseInt(value.toString()) : 0;
+        }
+        return result;
+    }
+
+    @Override
+    public void reset(String ngoId) {
+        redisTemplate.opsForHash().delete(reservedKey(), ngoId);
+    }
+
+    // The day's hash outlives service restarts; it is rebuilt only when missing, e.g. after Redis lost its data
+    @Override
+    public boolean seed(Map<String, Integer> totals) {
+        if (totals.isEmpty()) {
+            return false;
+        }
+        List<String> args = new ArrayList<>(totals.size() * 2 + 1);
+        args.add(PERIOD_TTL_SECONDS);
+        totals.forEach((ngoId, quantity) -> {
+            args.add(ngoId);
+            args.add(String.valueOf(quantity));
+        });
+        Long seeded = redisTemplate.execute(SEED, List.of(reservedKey()), args.toArray());
+        return seeded != null && seeded == 1L;
+    }
+
+    private String reservedKey() {
+        return RESERVED_KEY_PREFIX + CapacityPeriod.current(clock);
+    }
+}
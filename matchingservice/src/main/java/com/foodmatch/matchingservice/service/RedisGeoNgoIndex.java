@@ -0,0 +1,44 @@
+package com.foodmatch.matchingservice.service;
+
+import com.foodmatch.matchingservice.geo.GeoDistance;
+import com.foodmatch.matchingservice.geo.NgoSpatialIndex;
+import com.foodmatch.matchingservice.model.Ngo;
+
+import java.util.List;
+
+/**
+ * Spatial index served by GEOSEARCH against the shared registry instead of an in-JVM structure,
+ * so very large catalogs do not have to sit in every replica's heap.
+ */
+public class RedisGeoNgoIndex implements NgoSpatialIndex {
+
+    private final NgoRegistryService registry;
+
+    public RedisGeoNgoIndex(NgoRegistryService registry) {
+        this.registry = registry;
+    }
+
+    // Inactive NGOs stay in the GEO set, so fetch a few nearest and skip past them
+    private static final int NEAREST_CANDIDATES = 8;
+
+    @Override
+    public Ngo nearest(double lat, double lon, double maxKm) {
+        for (Ngo ngo : registry.searchRadius(lat, lon, maxKm, NEAREST_CANDIDATES)) {
+            // GEOSEARCH radius is inclusive; nearest() is strict like the in-memory indexes
+            if (ngo.isActive() && GeoDistance.haversine(lat, lon, ngo.getLat(), ngo.getLon()) < maxKm) {
+                return ngo;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public List<Ngo> withinRange(double lat, double lon, double rangeKm) {
+        return registry.searchRadius(lat, lon, rangeKm, 0).stream().filter(Ngo::isActive).toList();
+    }
+
+    @Override
+    public int size() {
+        return (int) registry.count();
+    }
+}
@@ -0,0 +1,64 @@
+package com.foodmatch.matchingservice.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pattern deletes without KEYS. Walks the keyspace with a SCAN cursor and UNLINKs matches in
+ * fixed-size batches, so Redis never runs an O(keyspace) command on our behalf and frees
+ * memory off its main thread.
+ *
+ * Keys are handled as raw bytes on the connection, never through the template's string key
+ * serializer: binary keys such as NgoCacheService's location keys would not survive a decode to
+ * String and back, and UNLINK would miss them.
+ */
+@Component
+public class RedisKeyScanner {
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    @Value("${matching.cache.scan-batch-size:1000}")
+    private int batchSize;
+
+    public RedisKeyScanner(RedisTemplate<String, Object> redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    // Returns the number of keys removed
+    public long deleteMatching(String pattern) {
+        Long deleted = redisTemplate.execute((RedisCallback<Long>) connection -> deleteMatching(connection, pattern));
+        return deleted != null ? deleted : 0;
+    }
+
+    private long deleteMatching(RedisConnection connection, String pattern) {
+        ScanOptions options = ScanOptions.scanOptions().match(pattern).count(batchSize).build();
+        List<byte[]> batch = new ArrayList<>(batchSize);
+        long deleted = 0;
+        try (Cursor<byte[]> cursor = connection.keyCommands().scan(options)) {
+            while (cursor.hasNext()) {
+                batch.add(cursor.next());
+                if (batch.size() >= batchSize) {
+                    deleted += unlink(connection, batch);
+                    batch.clear();
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            deleted += unlink(connection, batch);
+        }
+        return deleted;
+    }
+
+    private static long unlink(RedisConnection connection, List<byte[]> keys) {
+        Long removed = connection.keyCommands().unlink(keys.toArray(new byte[0][]));
+        return removed != null ? removed : 0;
+    }
+}
@@ -0,0 +1,13 @@
+-- Schema as previously generated by hibernate.ddl-auto=update; a no-op on existing databases
+CREATE TABLE IF NOT EXISTS matched_donations (
+    donation_id VARCHAR(255) PRIMARY KEY,
+    donor_id    VARCHAR(255),
+    ngo_id      VARCHAR(255),
+    ngo_name    VARCHAR(255),
+    lat         DOUBLE PRECISION NOT NULL,
+    lon         DOUBLE PRECISION NOT NULL,
+    quantity    INTEGER          NOT NULL,
+    "timestamp" VARCHAR(255),
+    ngo_lat     DOUBLE PRECISION,
+    ngo_lon     DOUBLE PRECISION
+);
@@ -0,0 +1,36 @@
+-- Event timestamps arrive as ISO-8601 text; rows without a readable one get the epoch so the
+-- column can be NOT NULL (keyset paging cannot move past NULL keys).
+-- Offset-less values are taken as UTC, as the service does, whatever the server's TimeZone is.
+SET LOCAL TIME ZONE 'UTC';
+
+-- A value shaped like a date can still be out of range (2024-13-40T25:00); it becomes NULL
+-- instead of failing the whole migration
+CREATE FUNCTION pg_temp.try_timestamptz(value TEXT) RETURNS TIMESTAMPTZ AS $$
+BEGIN
+    RETURN value::TIMESTAMPTZ;
+EXCEPTION WHEN data_exception THEN
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+ALTER TABLE matched_donations
+    ALTER COLUMN "timestamp" TYPE TIMESTAMPTZ
+    USING CASE
+        WHEN "timestamp" ~ '^\d{4}-\d{2}-\d{2}[T ]\d{2}:\d{2}' THEN pg_temp.try_timestamptz("timestamp")
+        ELSE NULL
+    END;
+
+UPDATE matched_donations SET "timestamp" = TIMESTAMPTZ 'epoch' WHERE "timestamp" IS NULL;
+
+ALTER TABLE matched_donations ALTER COLUMN "timestamp" SET NOT NULL;
+
+-- Keyset order for GET /matches and time-range scans
+CREATE INDEX IF NOT EXISTS idx_matched_donations_timestamp
+    ON matched_donations ("timestamp", donation_id);
+
+-- Per-donor and per-NGO history; the trailing columns serve the same keyset order without a sort
+CREATE INDEX IF NOT EXISTS idx_matched_donations_donor
+    ON matched_donations (donor_id, "timestamp", donation_id);
+
+CREATE INDEX IF NOT EXISTS idx_matched_donations_ngo
+    ON matched_donations (ngo_id, "timestamp", donation_id);
@@ -0,0 +1,95 @@
+package com.foodmatch.matchingservice.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RollingCounterTableTest {
+
+    private static final int MINUTE = 29_000_000;
+
+    @Test
+    void sumsOnlyBucketsInsideTheWindowAndReusesExpiredOnes() {
+        RollingCounterTable table = new RollingCounterTable(4, 100);
+        table.add(7L, MINUTE, 1, 10, 0);
+        table.add(7L, MINUTE + 59, 2, 5, 1);
+
+        assertThat(sums(table, RollingWindow.MINUTE, MINUTE + 59, 60).get(7L)).containsExactly(3, 15, 1);
+        assertThat(sums(table, RollingWindow.MINUTE, MINUTE + 59, 1).get(7L)).containsExactly(2, 5, 1);
+
+        // Same ring slot as MINUTE, one lap later: the old bucket is reset, not added to
+        table.add(7L, MINUTE + 60, 4, 4, 0);
+        assertThat(sums(table, RollingWindow.MINUTE, MINUTE + 60, 60).get(7L)).containsExactly(6, 9, 1);
+        assertThat(sums(table, RollingWindow.HOUR, RollingWindow.HOUR.bucketOf(MINUTE + 60), 24).get(7L))
+                .containsExactly(7, 19, 1);
+    }
+
+    @Test
+    void dropsNewKeysPastCapacity() {
+        RollingCounterTable table = new RollingCounterTable(1, 3);
+        for (long key = 0; key < 5; key++) {
+            table.add(key, MINUTE, 1, 1, 0);
+        }
+        table.add(0L, MINUTE, 1, 1, 0);
+
+        assertThat(table.size()).isEqualTo(3);
+        assertThat(table.rejectedCount()).isEqualTo(2);
+        assertThat(sums(table, RollingWindow.MINUTE, MINUTE, 1).get(0L)).containsExactly(2, 2, 0);
+    }
+
+    @Test
+    void evictsKeysIdleForADayToMakeRoom() throws IOException {
+        int nextDay = MINUTE + 24 * 60;
+        RollingCounterTable table = new RollingCounterTable(1, 2);
+        table.add(0L, MINUTE, 1, 1, 0);
+        table.add(1L, MINUTE + 23 * 60, 1, 1, 0);
+        table.add(2L, nextDay, 1, 1, 0);
+
+        assertThat(table.size()).isEqualTo(2);
+        assertThat(table.rejectedCount()).isZero();
+        assertThat(sums(table, RollingWindow.HOUR, RollingWindow.HOUR.bucketOf(nextDay), 24)).containsOnlyKeys(1L, 2L);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        table.writeTo(new DataOutputStream(bytes), nextDay + 23 * 60);
+        RollingCounterTable restored = new RollingCounterTable(1, 2);
+        restored.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())), nextDay + 23 * 60);
+        assertThat(restored.size()).isEqualTo(1);
+
+        assertThat(table.evictStale(nextDay + 24 * 60)).isEqualTo(2);
+        assertThat(table.size()).isZero();
+    }
+
+    @Test
+    void snapshotRoundTripsIntoADifferentStripeCount() throws IOException {
+        RollingCounterTable table = new RollingCounterTable(8, 1000);
+        for (long key = 0; key < 200; key++) {
+            table.add(key * 31, MINUTE, 1, (int) key, 0);
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        table.writeTo(new DataOutputStream(bytes), MINUTE);
+
+        RollingCounterTable restored = new RollingCounterTable(2, 1000);
+        restored.add(31L, MINUTE, 1, 1, 1);
+        restored.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())), MINUTE);
+
+        Map<Long, long[]> sums = sums(restored, RollingWindow.MINUTE, MINUTE, 1);
+        assertThat(sums).hasSize(200);
+        assertThat(sums.get(31L * 199)).containsExactly(1, 199, 0);
+        assertThat(sums.get(31L)).containsExactly(2, 2, 1);
+    }
+
+    private static Map<Long, long[]> sums(RollingCounterTable table, RollingWindow window, int current, int last) {
+        Map<Long, long[]> sums = new HashMap<>();
+        table.forEach(window, current, last, (key, donations, quantity, unmatched) ->
+                sums.put(key, new long[]{donations, quantity, unmatched}));
+        return sums;
+    }
+}
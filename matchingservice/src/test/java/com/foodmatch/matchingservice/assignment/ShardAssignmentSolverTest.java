@@ -0,0 +1,63 @@
+package com.foodmatch.matchingservice.assignment;
+
+import com.foodmatch.matchingservice.geo.GeoDistance;
+import com.foodmatch.matchingservice.geo.GridNgoIndex;
+import com.foodmatch.matchingservice.geo.NgoSpatialIndex;
+import com.foodmatch.matchingservice.model.DonationEvent;
+import com.foodmatch.matchingservice.model.Ngo;
+import com.foodmatch.matchingservice.service.InMemoryCapacityLedger;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ShardAssignmentSolverTest {
+
+    private static final double LAT = 12.97;
+    private static final double LON = 77.59;
+
+    // Point the given number of km east of the reference location
+    private static double east(double km) {
+        return LON + GeoDistance.kmToLonDegrees(km, LAT);
+    }
+
+    private static Ngo ngo(String id, double km, int capacity) {
+        Ngo ngo = new Ngo(id, id, LAT, east(km), "Bangalore");
+        ngo.setCapacity(capacity);
+        return ngo;
+    }
+
+    private static DonationEvent donation(String id, double km) {
+        DonationEvent event = new DonationEvent();
+        event.setDonationId(id);
+        event.setLat(LAT);
+        event.setLon(east(km));
+        event.setQuantity(10);
+        return event;
+    }
+
+    @Test
+    void beatsGreedyWhenNearestNgoIsContended() {
+        // Greedy in arrival order sends d1 to A (0.9 km) and d2 to B (1.9 km) = 2.8 km.
+        // The global optimum is d1 -> B (1.1 km), d2 -> A (0.1 km) = 1.2 km.
+        NgoSpatialIndex index = new GridNgoIndex(List.of(ngo("A", 0.0, 10), ngo("B", 2.0, 10)), 0.02);
+        List<DonationEvent> donations = List.of(donation("d1", 0.9), donation("d2", 0.1));
+
+        Ngo[] assignment = ShardAssignmentSolver.solve(donations, index, new InMemoryCapacityLedger(), 5.0);
+
+        assertThat(assignment).extracting(Ngo::getId).containsExactly("B", "A");
+    }
+
+    @Test
+    void leavesDonationsUnassignedOnceCapacityRunsOut() {
+        NgoSpatialIndex index = new GridNgoIndex(List.of(ngo("A", 0.0, 20)), 0.02);
+        List<DonationEvent> donations = List.of(donation("d1", 0.5), donation("d2", 0.2), donation("d3", 3.0));
+
+        Ngo[] assignment = ShardAssignmentSolver.solve(donations, index, new InMemoryCapacityLedger(), 5.0);
+
+        assertThat(assignment[0]).isNotNull();
+        assertThat(assignment[1]).isNotNull();
+        assertThat(assignment[2]).isNull();
+    }
+}
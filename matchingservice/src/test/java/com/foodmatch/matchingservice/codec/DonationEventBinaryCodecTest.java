@@ -0,0 +1,48 @@
+package com.foodmatch.matchingservice.codec;
+
+import com.foodmatch.matchingservice.model.DonationEvent;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HexFormat;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DonationEventBinaryCodecTest {
+
+    // Written by donorservice's encoder, whose codec test checks it against the same file
+    private static final Path GOLDEN = Path.of("../codec-fixtures/donation-event-v1.tsv");
+
+    @Test
+    void decodesTheGoldenFixture() throws IOException {
+        List<String[]> cases = Files.readAllLines(GOLDEN, StandardCharsets.UTF_8).stream()
+                .filter(line -> !line.isBlank() && !line.startsWith("#"))
+                .map(line -> line.split("\t"))
+                .toList();
+
+        assertThat(cases).isNotEmpty();
+        for (String[] fields : cases) {
+            DonationEvent expected = new DonationEvent();
+            expected.setDonationId(nullable(fields[0]));
+            expected.setDonorId(nullable(fields[1]));
+            expected.setLat(Double.parseDouble(fields[2]));
+            expected.setLon(Double.parseDouble(fields[3]));
+            expected.setQuantity(Integer.parseInt(fields[4]));
+            expected.setTimestamp(nullable(fields[5]));
+            byte[] bytes = HexFormat.of().parseHex(fields[6]);
+
+            assertThat(DonationEventBinaryCodec.isBinary(bytes)).isTrue();
+            assertThat(DonationEventBinaryCodec.decode(bytes)).as("decoding of %s", fields[0])
+                    .usingRecursiveComparison().isEqualTo(expected);
+            assertThat(DonationEventBinaryCodec.encode(expected)).isEqualTo(bytes);
+        }
+    }
+
+    private static String nullable(String field) {
+        return "null".equals(field) ? null : field;
+    }
+}
@@ -0,0 +1,58 @@
+package com.foodmatch.matchingservice.codec;
+
+import com.foodmatch.matchingservice.model.DonationEvent;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DonationEventDeserializerTest {
+
+    private static DonationEvent event(String timestamp) {
+        DonationEvent event = new DonationEvent();
+        event.setDonationId("66b1f0c2a7e4d93f1c2b3a4d");
+        event.setDonorId("donor-ü-7");
+        event.setLat(12.9716);
+        event.setLon(77.5946);
+        event.setQuantity(42);
+        event.setTimestamp(timestamp);
+        return event;
+    }
+
+    private static DonationEvent roundTrip(DonationEvent event) {
+        return new DonationEventDeserializer().deserialize("donation.events", DonationEventBinaryCodec.encode(event));
+    }
+
+    @Test
+    void binaryRoundTripPacksBrowserTimestamps() {
+        DonationEvent decoded = roundTrip(event("2025-08-05T10:15:30.120Z"));
+
+        assertThat(decoded).usingRecursiveComparison().isEqualTo(event("2025-08-05T10:15:30.120Z"));
+        // header + two length-prefixed ids, no timestamp text
+        assertThat(DonationEventBinaryCodec.encode(event("2025-08-05T10:15:30.120Z")))
+                .hasSize(30 + 2 + 24 + 2 + "donor-ü-7".getBytes(StandardCharsets.UTF_8).length);
+    }
+
+    @Test
+    void binaryRoundTripKeepsOtherTimestampsAndNulls() {
+        assertThat(roundTrip(event("2025-08-05 10:15"))).usingRecursiveComparison()
+                .isEqualTo(event("2025-08-05 10:15"));
+
+        DonationEvent sparse = new DonationEvent();
+        sparse.setQuantity(-1);
+        assertThat(roundTrip(sparse)).usingRecursiveComparison().isEqualTo(sparse);
+    }
+
+    @Test
+    void fallsBackToJson() {
+        byte[] json = ("{\"donationId\":\"d1\",\"donorId\":\"u1\",\"lat\":1.5,\"lon\":2.5,"
+                + "\"quantity\":3,\"timestamp\":\"2025-08-05T10:15:30.120Z\"}").getBytes(StandardCharsets.UTF_8);
+
+        DonationEvent decoded = new DonationEventDeserializer().deserialize("donation.events", json);
+
+        assertThat(decoded.getDonationId()).isEqualTo("d1");
+        assertThat(decoded.getLon()).isEqualTo(2.5);
+        assertThat(decoded.getQuantity()).isEqualTo(3);
+    }
+}
@@ -0,0 +1,81 @@
+package com.foodmatch.matchingservice.geo;
+
+import com.foodmatch.matchingservice.model.Ngo;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CellLookupTableTest {
+
+    private static final double RADIUS_KM = 5.0;
+
+    private static List<Ngo> randomNgos(Random random, int count) {
+        List<Ngo> ngos = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            double lat = 12.85 + random.nextDouble() * 0.3;
+            double lon = 77.45 + random.nextDouble() * 0.3;
+            ngos.add(new Ngo("ngo" + i, "NGO " + i, lat, lon, "Bangalore"));
+        }
+        return ngos;
+    }
+
+    // Every cell in and around the catalog answers what a search from its centre would
+    private static void assertMatchesSearch(CellLookupTable table, List<Ngo> ngos) {
+        GridNgoIndex grid = new GridNgoIndex(ngos, 0.02);
+        for (int row = 1270; row <= 1330; row++) {
+            for (int col = 7730; col <= 7790; col++) {
+                long cell = LocationCell.pack(row, col);
+                Ngo expected = grid.nearest(LocationCell.lat(cell), LocationCell.lon(cell), RADIUS_KM);
+                assertThat(table.nearest(cell)).as("cell %d,%d", row, col).isSameAs(expected);
+            }
+        }
+    }
+
+    @Test
+    void lookupMatchesSpatialSearchFromCellCentre() {
+        List<Ngo> ngos = randomNgos(new Random(42), 300);
+        GridNgoIndex grid = new GridNgoIndex(ngos, 0.02);
+        CellLookupTable table = CellLookupTable.build(ngos, grid, 3, RADIUS_KM);
+
+        assertMatchesSearch(table, ngos);
+        long cell = LocationCell.of(12.97, 77.59);
+        assertThat(table.candidates(cell)).containsExactly(grid.nearest(12.97, 77.59, RADIUS_KM, 3));
+        assertThat(table.nearest(LocationCell.of(28.70, 77.10))).isNull();
+    }
+
+    @Test
+    void incrementalUpdateAgreesWithFullBuild() {
+        Random random = new Random(7);
+        List<Ngo> ngos = randomNgos(random, 300);
+        CellLookupTable table = CellLookupTable.build(ngos, new GridNgoIndex(ngos, 0.02), 3, RADIUS_KM);
+
+        List<Ngo> changed = new ArrayList<>(ngos.subList(5, ngos.size()));
+        changed.set(0, new Ngo("ngo5", "Moved", 12.99, 77.61, "Bangalore"));
+        changed.add(new Ngo("ngo900", "New", 12.91, 77.52, "Bangalore"));
+        CellLookupTable updated = table.update(changed, new GridNgoIndex(changed, 0.02));
+
+        assertThat(updated.blockCount()).isEqualTo(table.blockCount());
+        assertThat(updated.fingerprint()).isEqualTo(CellLookupTable.fingerprint(changed, 3, RADIUS_KM));
+        assertMatchesSearch(updated, changed);
+    }
+
+    @Test
+    void savedTableIsMappedBackAndRebound(@TempDir Path dir) throws Exception {
+        List<Ngo> ngos = randomNgos(new Random(11), 200);
+        Path file = dir.resolve("cells.bin");
+        CellLookupTable.build(ngos, new GridNgoIndex(ngos, 0.02), 2, RADIUS_KM).save(file);
+
+        CellLookupTable loaded = CellLookupTable.load(file);
+        assertThat(loaded.fingerprint()).isEqualTo(CellLookupTable.fingerprint(ngos, 2, RADIUS_KM));
+        CellLookupTable bound = loaded.update(ngos, new GridNgoIndex(ngos, 0.02));
+
+        assertThat(bound.fingerprint()).isEqualTo(loaded.fingerprint());
+        assertMatchesSearch(bound, ngos);
+    }
+}
@@ -0,0 +1,64 @@
+package com.foodmatch.matchingservice.geo;
+
+import com.foodmatch.matchingservice.model.Ngo;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GridNgoIndexTest {
+
+    private static List<Ngo> randomNgos(Random random, int count) {
+        List<Ngo> ngos = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            double lat = 12.85 + random.nextDouble() * 0.3;
+            double lon = 77.45 + random.nextDouble() * 0.3;
+            ngos.add(new Ngo("ngo" + i, "NGO " + i, lat, lon, "Bangalore"));
+        }
+        return ngos;
+    }
+
+    @Test
+    void matchesLinearScanForNearestAndRange() {
+        Random random = new Random(42);
+        List<Ngo> ngos = randomNgos(random, 2_000);
+        NgoSpatialIndex linear = new LinearScanNgoIndex(ngos);
+        NgoSpatialIndex grid = new GridNgoIndex(ngos, 0.02);
+
+        for (int i = 0; i < 500; i++) {
+            double lat = 12.80 + random.nextDouble() * 0.4;
+            double lon = 77.40 + random.nextDouble() * 0.4;
+
+            assertThat(grid.nearest(lat, lon, 5.0)).isSameAs(linear.nearest(lat, lon, 5.0));
+            assertThat(grid.withinRange(lat, lon, 3.0))
+                    .containsExactlyInAnyOrderElementsOf(linear.withinRange(lat, lon, 3.0));
+        }
+    }
+
+    @Test
+    void sparseCatalogWithLargeRadius() {
+        List<Ngo> ngos = List.of(
+                new Ngo("ngo001", "Helping Hands", 12.933, 77.610, "Koramangala, Bangalore"),
+                new Ngo("ngo002", "Food For All", 12.920, 77.600, "Indiranagar, Bangalore"),
+                new Ngo("ngo003", "Kindness Kitchen", 13.000, 77.700, "HSR Layout, Bangalore"));
+        NgoSpatialIndex grid = new GridNgoIndex(ngos, 0.001);
+
+        assertThat(grid.nearest(12.9716, 77.5946, 5.0).getId()).isEqualTo("ngo001");
+        assertThat(grid.nearest(40.0, -74.0, 5.0)).isNull();
+        assertThat(grid.withinRange(12.95, 77.65, 100.0))
+                .extracting(Ngo::getId)
+                .containsExactlyInAnyOrder("ngo001", "ngo002", "ngo003");
+    }
+
+    @Test
+    void emptyCatalog() {
+        NgoSpatialIndex grid = new GridNgoIndex(List.of(), 0.02);
+        assertThat(grid.nearest(12.9, 77.6, 5.0)).isNull();
+        assertThat(grid.withinRange(12.9, 77.6, 5.0)).isEmpty();
+        assertThat(grid.size()).isZero();
+    }
+}
@@ -0,0 +1,96 @@
+package com.foodmatch.matchingservice.push;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MatchSubscriberTest {
+
+    // Records the ids of sent events instead of writing to a response
+    private static class RecordingEmitter extends SseEmitter {
+        final List<String> sent = new ArrayList<>();
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            String frame = builder.build().iterator().next().getData().toString();
+            sent.add(frame.startsWith("event:match\nid:") ? frame.substring(15, frame.indexOf('\n', 15)) : "heartbeat");
+        }
+    }
+
+    private final Queue<Runnable> pendingDrains = new ArrayDeque<>();
+    private final AtomicInteger drops = new AtomicInteger();
+    private final RecordingEmitter emitter = new RecordingEmitter();
+
+    private MatchSubscriber subscriber(DropPolicy policy) {
+        return new MatchSubscriber("donor1", null, emitter, 2, policy, pendingDrains::add, s -> {
+        }, drops::incrementAndGet);
+    }
+
+    private void runDrains() {
+        while (!pendingDrains.isEmpty()) {
+            pendingDrains.poll().run();
+        }
+    }
+
+    private static MatchSubscriber.Item item(String id) {
+        return new MatchSubscriber.Item(id, "{}");
+    }
+
+    @Test
+    void dropOldestKeepsTheLatestMatchesForASlowClient() {
+        MatchSubscriber subscriber = subscriber(DropPolicy.DROP_OLDEST);
+        subscriber.offer(item("m1"));
+        subscriber.offer(item("m2"));
+        subscriber.offer(item("m3"));
+
+        assertThat(pendingDrains).hasSize(1);
+        runDrains();
+
+        assertThat(emitter.sent).containsExactly("m2", "m3");
+        assertThat(drops).hasValue(1);
+    }
+
+    @Test
+    void dropNewestKeepsTheQueuedPrefix() {
+        MatchSubscriber subscriber = subscriber(DropPolicy.DROP_NEWEST);
+        subscriber.offer(item("m1"));
+        subscriber.offer(item("m2"));
+        subscriber.offer(item("m3"));
+        runDrains();
+
+        assertThat(emitter.sent).containsExactly("m1", "m2");
+    }
+
+    @Test
+    void disconnectClosesTheStream() {
+        MatchSubscriber subscriber = subscriber(DropPolicy.DISCONNECT);
+        subscriber.offer(item("m1"));
+        subscriber.offer(item("m2"));
+        subscriber.offer(item("m3"));
+        runDrains();
+
+        assertThat(subscriber.isClosed()).isTrue();
+        assertThat(emitter.sent).isEmpty();
+    }
+
+    @Test
+    void idleSubscriberSchedulesNoDrain() {
+        MatchSubscriber subscriber = subscriber(DropPolicy.DROP_OLDEST);
+        subscriber.offer(item("m1"));
+        runDrains();
+        assertThat(pendingDrains).isEmpty();
+
+        subscriber.offer(item("m2"));
+        assertThat(pendingDrains).hasSize(1);
+        runDrains();
+        assertThat(emitter.sent).containsExactly("m1", "m2");
+    }
+}
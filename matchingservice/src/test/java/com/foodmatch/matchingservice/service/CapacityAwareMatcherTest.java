@@ -0,0 +1,127 @@
+package com.foodmatch.matchingservice.service;
+
+import com.foodmatch.matchingservice.geo.GridNgoIndex;
+import com.foodmatch.matchingservice.geo.NgoSpatialIndex;
+import com.foodmatch.matchingservice.model.DonationEvent;
+import com.foodmatch.matchingservice.model.Ngo;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CapacityAwareMatcherTest {
+
+    private static Ngo ngo(String id, double lat, double lon, int capacity, double rating) {
+        Ngo ngo = new Ngo(id, id, lat, lon, "Bangalore");
+        ngo.setCapacity(capacity);
+        ngo.setRating(rating);
+        return ngo;
+    }
+
+    private static DonationEvent donation(int quantity) {
+        DonationEvent event = new DonationEvent();
+        event.setDonationId("d");
+        event.setLat(12.9716);
+        event.setLon(77.5946);
+        event.setQuantity(quantity);
+        return event;
+    }
+
+    @Test
+    void spillsOverToNextNgoWhenNearestIsFull() {
+        NgoSpatialIndex index = new GridNgoIndex(List.of(
+                ngo("near", 12.972, 77.595, 10, 3.0),
+                ngo("far", 12.990, 77.610, 100, 3.0)), 0.02);
+        CapacityAwareMatcher matcher = new CapacityAwareMatcher(new InMemoryCapacityLedger(), 1.0, 0.0, 0.0);
+
+        assertThat(matcher.match(donation(10), index, 5.0).getId()).isEqualTo("near");
+        assertThat(matcher.match(donation(10), index, 5.0).getId()).isEqualTo("far");
+
+        matcher.release("near", 10);
+        assertThat(matcher.match(donation(5), index, 5.0).getId()).isEqualTo("near");
+    }
+
+    @Test
+    void inactiveNgosAreSkipped() {
+        Ngo closed = ngo("closed", 12.972, 77.595, 0, 5.0);
+        closed.setActive(false);
+        NgoSpatialIndex index = new GridNgoIndex(List.of(closed), 0.02);
+        CapacityAwareMatcher matcher = new CapacityAwareMatcher(new InMemoryCapacityLedger(), 0.6, 0.3, 0.1);
+
+        assertThat(matcher.match(donation(1), index, 5.0)).isNull();
+    }
+
+    @Test
+    void concurrentMatchersNeverOverAllocate() throws InterruptedException {
+        NgoSpatialIndex index = new GridNgoIndex(List.of(
+                ngo("a", 12.972, 77.595, 500, 4.0),
+                ngo("b", 12.975, 77.600, 300, 2.0)), 0.02);
+        CapacityLedger ledger = new InMemoryCapacityLedger();
+        CapacityAwareMatcher matcher = new CapacityAwareMatcher(ledger, 0.6, 0.3, 0.1);
+        AtomicInteger matched = new AtomicInteger();
+
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        for (int i = 0; i < 2_000; i++) {
+            pool.execute(() -> {
+                if (matcher.match(donation(1), index, 5.0) != null) {
+                    matched.incrementAndGet();
+                }
+            });
+        }
+        pool.shutdown();
+        assertThat(pool.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(matched.get()).isEqualTo(800);
+        assertThat(ledger.reserved(List.of("a", "b"))).containsExactly(500, 300);
+    }
+
+    @Test
+    void capacityFreesUpWhenTheDayRollsOver() {
+        MutableClock clock = new MutableClock(Instant.parse("2026-03-01T23:00:00Z"));
+        InMemoryCapacityLedger ledger = new InMemoryCapacityLedger(clock);
+        ledger.seed(Map.of("a", 8));
+
+        assertThat(ledger.tryReserve("a", 10, 5)).isFalse();
+        clock.advance(Duration.ofHours(2));
+        assertThat(ledger.reserved(List.of("a"))).containsExactly(0);
+        assertThat(ledger.tryReserve("a", 10, 5)).isTrue();
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
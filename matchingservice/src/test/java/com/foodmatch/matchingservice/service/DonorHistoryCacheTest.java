@@ -0,0 +1,141 @@
+package com.foodmatch.matchingservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.foodmatch.matchingservice.config.RedisConfig;
+import com.foodmatch.matchingservice.model.MatchedDonation;
+import com.foodmatch.matchingservice.repository.MatchedDonationRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DonorHistoryCacheTest {
+
+    private static RedisServer redisServer;
+    private static LettuceConnectionFactory connectionFactory;
+    private static StringRedisTemplate redisTemplate;
+
+    private MatchedDonationRepository repository;
+    private DonorHistoryCache cache;
+
+    @BeforeAll
+    static void startRedis() throws IOException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        redisServer = new RedisServer(port);
+        redisServer.start();
+        connectionFactory = new LettuceConnectionFactory("localhost", port);
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+    }
+
+    @AfterAll
+    static void stopRedis() throws Exception {
+        connectionFactory.destroy();
+        redisServer.stop();
+    }
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate.execute(connection -> {
+            connection.serverCommands().flushAll();
+            return null;
+        }, true);
+        repository = mock(MatchedDonationRepository.class);
+        // Configured like Spring Boot's ObjectMapper: ISO-8601 dates
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        RedisKeyScanner keyScanner = new RedisKeyScanner(new RedisConfig().redisTemplate(connectionFactory));
+        ReflectionTestUtils.setField(keyScanner, "batchSize", 100);
+        cache = new DonorHistoryCache(redisTemplate, repository, objectMapper, keyScanner);
+        ReflectionTestUtils.setField(cache, "enabled", true);
+        ReflectionTestUtils.setField(cache, "ttlSeconds", 60L);
+        ReflectionTestUtils.setField(cache, "maxRows", 10);
+    }
+
+    private static MatchedDonation match(String id) {
+        MatchedDonation match = new MatchedDonation();
+        match.setDonationId(id);
+        match.setDonorId("donor1");
+        match.setTimestamp(Instant.parse("2025-08-05T10:15:30.120Z"));
+        return match;
+    }
+
+    @Test
+    void servesRepeatReadsFromRedisUntilEvicted() throws Exception {
+        when(repository.findByDonorIdOrderByTimestampAscDonationIdAsc(eq("donor1"), any(Limit.class)))
+                .thenReturn(List.of(match("d1")));
+
+        DonorHistoryCache.CachedHistory first = cache.get("donor1");
+        DonorHistoryCache.CachedHistory second = cache.get("donor1");
+
+        assertThat(second).isEqualTo(first);
+        assertThat(first.body()).contains("\"donationId\":\"d1\"").contains("2025-08-05T10:15:30.120Z");
+        assertThat(cache.cachedEtag("donor1")).isEqualTo(first.etag());
+        verify(repository, times(1)).findByDonorIdOrderByTimestampAscDonationIdAsc(eq("donor1"), any(Limit.class));
+
+        cache.evict(List.of("donor1"));
+
+        assertThat(cache.cachedEtag("donor1")).isNull();
+        cache.get("donor1");
+        verify(repository, times(2)).findByDonorIdOrderByTimestampAscDonationIdAsc(eq("donor1"), any(Limit.class));
+    }
+
+    @Test
+    void fillRacingWithAnEvictionIsNotCached() throws Exception {
+        // A new match lands while the history is being read from the database
+        when(repository.findByDonorIdOrderByTimestampAscDonationIdAsc(eq("donor1"), any(Limit.class)))
+                .thenAnswer(invocation -> {
+                    cache.evict(List.of("donor1"));
+                    return List.of(match("d1"));
+                });
+
+        assertThat(cache.get("donor1")).isNotNull();
+        assertThat(cache.cachedEtag("donor1")).isNull();
+    }
+
+    @Test
+    void fillRacingWithEvictAllIsNotCached() throws Exception {
+        // All matches are cleared while the history is being read from the database
+        when(repository.findByDonorIdOrderByTimestampAscDonationIdAsc(eq("donor1"), any(Limit.class)))
+                .thenAnswer(invocation -> {
+                    cache.evictAll();
+                    return List.of(match("d1"));
+                });
+
+        assertThat(cache.get("donor1")).isNotNull();
+        assertThat(cache.cachedEtag("donor1")).isNull();
+    }
+
+    @Test
+    void oversizedHistoriesAreNotCached() throws Exception {
+        List<MatchedDonation> rows = IntStream.range(0, 11).mapToObj(i -> match("d" + i)).toList();
+        when(repository.findByDonorIdOrderByTimestampAscDonationIdAsc(eq("donor1"), any(Limit.class))).thenReturn(rows);
+
+        assertThat(cache.get("donor1")).isNull();
+        assertThat(cache.cachedEtag("donor1")).isNull();
+    }
+}
@@ -0,0 +1,55 @@
+package com.foodmatch.matchingservice.service;
+
+import com.foodmatch.matchingservice.geo.LocationCell;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LongKeyedNearCacheTest {
+
+    @Test
+    void cellsMatchTheRoundingOfTheOldStringKeys() {
+        long cell = LocationCell.of(12.97164, -77.59461);
+
+        assertThat(LocationCell.lat(cell)).isEqualTo(12.97);
+        assertThat(LocationCell.lon(cell)).isEqualTo(-77.59);
+        assertThat(LocationCell.of(12.9749, -77.5851)).isEqualTo(cell);
+        assertThat(LocationCell.of(12.9751, -77.5851)).isNotEqualTo(cell);
+    }
+
+    @Test
+    void getPutInvalidateAndExpiry() {
+        LongKeyedNearCache<String> cache = new LongKeyedNearCache<>(1000, TimeUnit.MINUTES.toNanos(5));
+        long a = LocationCell.of(12.97, 77.59);
+        long b = LocationCell.of(19.07, 72.87);
+        cache.put(a, "ngo001");
+        cache.put(b, "ngo002");
+
+        assertThat(cache.capacity()).isEqualTo(1024);
+        assertThat(cache.get(a)).isEqualTo("ngo001");
+        assertThat(cache.get(b)).isEqualTo("ngo002");
+        cache.invalidate(a);
+        assertThat(cache.get(a)).isNull();
+        assertThat(cache.size()).isEqualTo(1);
+        cache.invalidateAll();
+        assertThat(cache.get(b)).isNull();
+
+        LongKeyedNearCache<String> expired = new LongKeyedNearCache<>(1000, 0);
+        expired.put(a, "ngo001");
+        assertThat(expired.get(a)).isNull();
+    }
+
+    @Test
+    void staysWithinCapacityAndCountsEvictions() {
+        LongKeyedNearCache<Long> cache = new LongKeyedNearCache<>(64, TimeUnit.MINUTES.toNanos(5));
+        for (int i = 0; i < 10_000; i++) {
+            cache.put(LocationCell.pack(i, i), (long) i);
+        }
+
+        assertThat(cache.size()).isLessThanOrEqualTo(64);
+        assertThat(cache.evictionCount()).isGreaterThanOrEqualTo(10_000 - 64);
+        assertThat(cache.get(LocationCell.pack(9_999, 9_999))).isEqualTo(9_999L);
+    }
+}
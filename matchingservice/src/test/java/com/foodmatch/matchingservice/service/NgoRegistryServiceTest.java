@@ -0,0 +1,102 @@
+package com.foodmatch.matchingservice.service;
+
+import com.foodmatch.matchingservice.config.RedisConfig;
+import com.foodmatch.matchingservice.model.Ngo;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs against an embedded redis-server so GEOADD/GEOSEARCH behave exactly as in production.
+ */
+class NgoRegistryServiceTest {
+
+    private static RedisServer redisServer;
+    private static LettuceConnectionFactory connectionFactory;
+    private static RedisTemplate<String, Object> redisTemplate;
+    private static RedisMessageListenerContainer listenerContainer;
+
+    // Also receives the pub/sub echo of our own changes, delivered on the listener thread
+    private final List<Object> events = new CopyOnWriteArrayList<>();
+    private NgoRegistryService registry;
+
+    @BeforeAll
+    static void startRedis() throws IOException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        redisServer = new RedisServer(port);
+        redisServer.start();
+        connectionFactory = new LettuceConnectionFactory("localhost", port);
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        redisTemplate = new RedisConfig().redisTemplate(connectionFactory);
+        listenerContainer = new RedisMessageListenerContainer();
+        listenerContainer.setConnectionFactory(connectionFactory);
+        listenerContainer.afterPropertiesSet();
+        listenerContainer.start();
+    }
+
+    @AfterAll
+    static void stopRedis() throws Exception {
+        listenerContainer.destroy();
+        connectionFactory.destroy();
+        redisServer.stop();
+    }
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate.execute(connection -> {
+            connection.serverCommands().flushAll();
+            return null;
+        }, true);
+        registry = new NgoRegistryService(redisTemplate, listenerContainer, events::add);
+        registry.init();
+    }
+
+    @Test
+    void seedsDefaultsIntoEmptyRegistry() {
+        assertThat(registry.count()).isEqualTo(NgoRegistryService.DEFAULT_NGOS.size());
+        assertThat(registry.findById("ngo001").getName()).isEqualTo("Helping Hands");
+    }
+
+    @Test
+    void radiusSearchReturnsNearestFirst() {
+        List<Ngo> hits = registry.searchRadius(12.9716, 77.5946, 5.0, 0);
+
+        assertThat(hits).extracting(Ngo::getId).containsExactly("ngo001");
+        assertThat(registry.searchRadius(12.925, 77.605, 10.0, 2))
+                .extracting(Ngo::getId)
+                .containsExactly("ngo002", "ngo001");
+    }
+
+    @Test
+    void saveAndDeleteAnnounceChanges() {
+        Ngo ngo = new Ngo("ngo100", "Anna Daan", 12.9716, 77.5946, "MG Road, Bangalore");
+        registry.save(ngo);
+
+        assertThat(registry.findById("ngo100").getAddress()).isEqualTo("MG Road, Bangalore");
+        assertThat(new RedisGeoNgoIndex(registry).nearest(12.972, 77.595, 5.0).getId()).isEqualTo("ngo100");
+        assertThat(registry.delete("ngo100")).isTrue();
+        assertThat(registry.delete("ngo100")).isFalse();
+        assertThat(registry.findById("ngo100")).isNull();
+        assertThat(registry.findAll()).hasSize(NgoRegistryService.DEFAULT_NGOS.size());
+        assertThat(events).filteredOn(e -> ((NgoCatalogChangedEvent) e).originatedHere())
+                .containsExactly(
+                        new NgoCatalogChangedEvent("ngo100", true),
+                        new NgoCatalogChangedEvent("ngo100", true));
+    }
+}
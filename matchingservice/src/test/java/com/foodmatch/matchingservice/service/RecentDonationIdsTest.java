@@ -0,0 +1,25 @@
+package com.foodmatch.matchingservice.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RecentDonationIdsTest {
+
+    @Test
+    void evictsTheLeastRecentlySeenIdPastCapacity() {
+        RecentDonationIds ids = new RecentDonationIds(2);
+        ids.addAll(List.of("d1", "d2"));
+        assertThat(ids.contains("d1")).isTrue();
+
+        ids.addAll(List.of("d3"));
+
+        assertThat(ids.size()).isEqualTo(2);
+        assertThat(ids.contains("d1")).isTrue();
+        assertThat(ids.contains("d2")).isFalse();
+        assertThat(ids.contains("d3")).isTrue();
+        assertThat(ids.contains(null)).isFalse();
+    }
+}
@@ -0,0 +1,66 @@
+package com.foodmatch.matchingservice.service;
+
+import com.foodmatch.matchingservice.config.RedisConfig;
+import com.foodmatch.matchingservice.geo.LocationCell;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RedisKeyScannerTest {
+
+    private static RedisServer redisServer;
+    private static LettuceConnectionFactory connectionFactory;
+    private static RedisTemplate<String, Object> redisTemplate;
+
+    @BeforeAll
+    static void startRedis() throws IOException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        redisServer = new RedisServer(port);
+        redisServer.start();
+        connectionFactory = new LettuceConnectionFactory("localhost", port);
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        redisTemplate = new RedisConfig().redisTemplate(connectionFactory);
+    }
+
+    @AfterAll
+    static void stopRedis() throws Exception {
+        connectionFactory.destroy();
+        redisServer.stop();
+    }
+
+    @Test
+    void deletesBinaryKeysThatAreNotValidUtf8() {
+        // Negative coordinates put bytes >= 0x80 into the location key
+        byte[] binaryKey = NgoCacheService.locationKey(LocationCell.of(-33.87, 151.21));
+        byte[] textKey = "ngo:location:other".getBytes(StandardCharsets.UTF_8);
+        byte[] unrelated = "ngo:list:1".getBytes(StandardCharsets.UTF_8);
+        redisTemplate.execute((RedisCallback<Object>) connection -> {
+            connection.serverCommands().flushAll();
+            for (byte[] key : new byte[][]{binaryKey, textKey, unrelated}) {
+                connection.stringCommands().set(key, new byte[]{1});
+            }
+            return null;
+        });
+        RedisKeyScanner scanner = new RedisKeyScanner(redisTemplate);
+        ReflectionTestUtils.setField(scanner, "batchSize", 1);
+
+        assertThat(scanner.deleteMatching("ngo:location:*")).isEqualTo(2);
+        assertThat(redisTemplate.execute((RedisCallback<Long>) connection ->
+                connection.keyCommands().exists(binaryKey, textKey, unrelated))).isEqualTo(1L);
+    }
+}